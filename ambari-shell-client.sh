@@ -0,0 +1,37 @@
+#!/bin/bash
+#
+# Thin client of the Ambari Shell daemon (--ambari.daemon.port), needs no JVM.
+#
+# Usage: ambari-shell-client.sh PORT [COMMAND]...
+#        the commands are read from the standard input if none is given
+
+: ${1:?"Usage: $0 PORT [COMMAND]..."}
+PORT=$1
+shift
+TOKEN_FILE=~/.ambari-shell/daemon-$PORT.token
+
+if ! exec 3<>"/dev/tcp/127.0.0.1/$PORT" 2>/dev/null || [ ! -r "$TOKEN_FILE" ]; then
+  echo "Cannot connect to the shell daemon on port $PORT"
+  exit 3
+fi
+
+{
+  cat "$TOKEN_FILE"
+  echo
+  if [ $# -eq 0 ]; then
+    grep -v '^[[:space:]]*$'
+  else
+    for command in "$@"; do
+      echo "$command"
+    done
+  fi
+  echo
+} >&3
+
+while IFS= read -r line <&3; do
+  if [[ "$line" == __EXIT__* ]]; then
+    exit ${line#__EXIT__ }
+  fi
+  echo "$line"
+done
+exit 3
@@ -0,0 +1,2 @@
+version
+help
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sequenceiq.ambari.shell.commands.ClusterCommands;
+import com.sequenceiq.ambari.shell.completion.Blueprint;
+import com.sequenceiq.ambari.shell.completion.Host;
+import com.sequenceiq.ambari.shell.model.AmbariContext;
+
+/**
+ * Host group assignment bookkeeping of the cluster build and the prompt rendered after
+ * every command. Every invocation starts from empty host groups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClusterAssignBenchmark {
+
+  @Param({"100", "10000"})
+  private int hosts;
+
+  private AmbariContext context;
+  private ClusterCommands commands;
+  private Host lastHost;
+  private String hostRange;
+
+  @Setup
+  public void setUp() {
+    context = new AmbariContext();
+    context.setBlueprintsAvailable(true);
+    commands = new ClusterCommands(new StubAmbariClient(hosts), context, null);
+    commands.buildCluster(new Blueprint(StubAmbariClient.BLUEPRINT));
+    lastHost = new Host(StubAmbariClient.hostName(hosts));
+    hostRange = String.format("host[00001-%05d].mycorp.com", hosts);
+  }
+
+  @Benchmark
+  public String assignSingleHost() {
+    commands.reset();
+    return commands.assign(lastHost, "slave", null, null, null);
+  }
+
+  @Benchmark
+  public String assignHostRange() {
+    commands.reset();
+    return commands.assign(null, "slave", hostRange, null, null);
+  }
+
+  @Benchmark
+  public String prompt() {
+    return context.getPrompt();
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.shell.core.Completion;
+
+import com.sequenceiq.ambari.shell.completion.Host;
+import com.sequenceiq.ambari.shell.converter.HostConverter;
+
+/**
+ * Host name completion of 10k hosts, as triggered by every TAB press.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HostCompletionBenchmark {
+
+  private static final int HOSTS = 10000;
+
+  @Param({"", "host0", "host0999"})
+  private String prefix;
+
+  private HostConverter converter;
+
+  @Setup
+  public void setUp() {
+    converter = new HostConverter(new StubAmbariClient(HOSTS));
+  }
+
+  @Benchmark
+  public List<Completion> complete() {
+    List<Completion> completions = new ArrayList<Completion>();
+    converter.getAllPossibleValues(completions, Host.class, prefix, "", null);
+    return completions;
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+
+/**
+ * In memory Ambari client serving generated hosts and a fixed blueprint, so the
+ * benchmarks measure the shell only.
+ */
+public class StubAmbariClient extends AmbariClient {
+
+  public static final String BLUEPRINT = "multi-node-hdfs-yarn";
+  public static final List<String> HOST_GROUPS = Arrays.asList("master", "slave");
+
+  private final Map<String, String> hosts;
+  private final Map<String, List<String>> blueprint;
+
+  /**
+   * @param hostCount number of hosts named host00001.mycorp.com, host00002.mycorp.com..
+   */
+  public StubAmbariClient(int hostCount) {
+    super("localhost", "8080", "admin", "admin");
+    Map<String, String> generated = new LinkedHashMap<String, String>(hostCount);
+    for (int i = 1; i <= hostCount; i++) {
+      generated.put(hostName(i), "HEALTHY");
+    }
+    this.hosts = Collections.unmodifiableMap(generated);
+    Map<String, List<String>> groups = new HashMap<String, List<String>>();
+    groups.put("master", Arrays.asList("NAMENODE", "RESOURCEMANAGER", "ZOOKEEPER_SERVER"));
+    groups.put("slave", Arrays.asList("DATANODE", "NODEMANAGER"));
+    this.blueprint = Collections.unmodifiableMap(groups);
+  }
+
+  public static String hostName(int index) {
+    return String.format("host%05d.mycorp.com", index);
+  }
+
+  @Override
+  public Map<String, String> getHostNames() {
+    return hosts;
+  }
+
+  @Override
+  public boolean doesBlueprintExist(String id) {
+    return BLUEPRINT.equals(id);
+  }
+
+  @Override
+  public Map<String, List<String>> getBlueprintMap(String id) {
+    return blueprint;
+  }
+
+  @Override
+  public List<String> getHostGroups(String blueprintName) {
+    return new ArrayList<String>(HOST_GROUPS);
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.sequenceiq.ambari.shell.support.StreamingTableRenderer;
+import com.sequenceiq.ambari.shell.support.TableRenderer;
+
+/**
+ * Rendering of the host tables with the in memory and the streaming renderer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TableRendererBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  private int rows;
+
+  private Map<String, String> hosts;
+
+  @Setup
+  public void setUp() {
+    hosts = new LinkedHashMap<String, String>(rows);
+    for (int i = 1; i <= rows; i++) {
+      hosts.put(StubAmbariClient.hostName(i), i % 10 == 0 ? "UNHEALTHY" : "HEALTHY");
+    }
+  }
+
+  @Benchmark
+  public String renderSingleMap() {
+    return TableRenderer.renderSingleMap(hosts, "HOSTNAME", "STATE");
+  }
+
+  @Benchmark
+  public int renderStreaming() throws IOException {
+    StreamingTableRenderer renderer = new StreamingTableRenderer(new NullWriter(),
+      StreamingTableRenderer.DEFAULT_SAMPLE_SIZE, 0, null);
+    return renderer.render(StreamingTableRenderer.singleMapRows(hosts), "HOSTNAME", "STATE");
+  }
+
+  /**
+   * Discards the output.
+   */
+  private static class NullWriter extends Writer {
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -17,27 +17,40 @@
  */
 package com.sequenceiq.ambari.shell;
 
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.shell.CommandLine;
 import org.springframework.shell.core.JLineShellComponent;
 import org.springframework.shell.event.ShellStatus;
 import org.springframework.shell.event.ShellStatusListener;
+import org.springframework.shell.support.logging.HandlerUtils;
 
 import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.configuration.FastStartConfiguration;
+import com.sequenceiq.ambari.shell.daemon.ShellDaemon;
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
 import com.sequenceiq.ambari.shell.model.AmbariContext;
-import com.sequenceiq.ambari.shell.model.Hints;
+import com.sequenceiq.ambari.shell.support.BatchScriptExecutor;
+import com.sequenceiq.ambari.shell.support.StartupProbe;
 
 /**
  * Shell bootstrap.
  */
 @Configuration
-@ComponentScan(basePackageClasses = {AmbariShell.class})
+@ComponentScan(basePackageClasses = {AmbariShell.class},
+  excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, value = FastStartConfiguration.class))
 public class AmbariShell implements CommandLineRunner, ShellStatusListener {
 
+  private static final Logger LOGGER = HandlerUtils.getLogger(AmbariShell.class);
+
   @Autowired
   private CommandLine commandLine;
   @Autowired
@@ -46,17 +59,33 @@ public class AmbariShell implements CommandLineRunner, ShellStatusListener {
   private AmbariContext context;
   @Autowired
   private AmbariClient client;
+  @Autowired
+  private MetricsRegistry metricsRegistry;
+  @Value("${ambari.batch.parallelism:0}")
+  private int batchParallelism;
+  @Value("${ambari.connect.timeout:30}")
+  private long connectTimeout;
+  @Value("${ambari.daemon.port:0}")
+  private int daemonPort;
+  @Value("${ambari.daemon.threads:4}")
+  private int daemonThreads;
 
   @Override
   public void run(String... arg) throws Exception {
     String[] shellCommandsToExecute = commandLine.getShellCommandsToExecute();
     if (shellCommandsToExecute != null) {
-      for (String cmd : shellCommandsToExecute) {
-        if (!shell.executeScriptLine(cmd)) {
-          break;
+      if (batchParallelism > 1) {
+        new BatchScriptExecutor(shell, batchParallelism, metricsRegistry).execute(shellCommandsToExecute);
+      } else {
+        for (String cmd : shellCommandsToExecute) {
+          if (!shell.executeScriptLine(cmd)) {
+            break;
+          }
         }
       }
       System.exit(0);
+    } else if (daemonPort > 0) {
+      runDaemon();
     } else {
       shell.addShellStatusListener(this);
       shell.start();
@@ -65,27 +94,40 @@ public class AmbariShell implements CommandLineRunner, ShellStatusListener {
     }
   }
 
+  private void runDaemon() throws Exception {
+    new StartupProbe(client, context, TimeUnit.SECONDS.toMillis(connectTimeout))
+      .start(new StartupProbe.FailureListener() {
+        @Override
+        public void onFailure(String message) {
+          System.out.println(message);
+          System.exit(1);
+        }
+      });
+    final ShellDaemon daemon = new ShellDaemon(shell, metricsRegistry, daemonPort, daemonThreads,
+      ShellDaemon.getDefaultTokenFile(daemonPort));
+    daemon.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+      @Override
+      public void run() {
+        daemon.stop();
+      }
+    }, "daemon-shutdown"));
+    System.out.println(String.format("Listening on 127.0.0.1:%d", daemon.getPort()));
+    daemon.serve();
+  }
+
   @Override
   public void onShellStatusChange(ShellStatus oldStatus, ShellStatus newStatus) {
     if (newStatus.getStatus() == ShellStatus.Status.STARTED) {
-      try {
-        String cluster = client.getClusterName();
-        boolean available = client.isBlueprintAvailable();
-        if (cluster == null) {
-          if (available) {
-            context.setHint(Hints.BUILD_CLUSTER);
-          } else {
-            context.setHint(Hints.ADD_BLUEPRINT);
+      new StartupProbe(client, context, TimeUnit.SECONDS.toMillis(connectTimeout))
+        .start(new StartupProbe.FailureListener() {
+          @Override
+          public void onFailure(String message) {
+            LOGGER.severe(message);
+            shell.stop();
+            System.exit(1);
           }
-        } else {
-          context.setHint(Hints.PROGRESS);
-        }
-        context.setCluster(cluster);
-        context.setBlueprintsAvailable(available);
-      } catch (Exception e) {
-        System.out.println(e.getMessage());
-        shell.executeCommand("quit");
-      }
+        });
     }
   }
 
@@ -101,12 +143,43 @@ public class AmbariShell implements CommandLineRunner, ShellStatusListener {
           "  --ambari.host=<HOSTNAME>       Hostname of the Ambari Server [default: localhost].\n" +
           "  --ambari.port=<PORT>           Port of the Ambari Server [default: 8080].\n" +
           "  --ambari.user=<USER>           Username of the Ambari admin [default: admin].\n" +
-          "  --ambari.password=<PASSWORD>   Password of the Ambari admin [default: admin].\n\n" +
+          "  --ambari.password=<PASSWORD>   Password of the Ambari admin [default: admin].\n" +
+          "  --ambari.profiles=<FILE>       Properties file with the connection profiles of other Ambari Servers.\n" +
+          "  --ambari.cache.ttl=<SECONDS>   Lifetime of the cached cluster metadata, 0 disables it [default: 30].\n" +
+          "  --ambari.cache.size=<ENTRIES>  Maximum number of cached metadata entries [default: 256].\n" +
+          "  --ambari.connect.timeout=<SECONDS>  Timeout of connecting to the Ambari Server on startup [default: 30].\n" +
+          "  --ambari.fanout.parallelism=<N>     Concurrent requests of the multi host queries [default: 16].\n" +
+          "  --ambari.fanout.timeout=<SECONDS>   Timeout of a single request of the multi host queries [default: 30].\n" +
+          "  --ambari.poll.min=<MILLIS>          Shortest interval of the progress polling [default: 500].\n" +
+          "  --ambari.poll.max=<MILLIS>          Longest interval of the progress polling [default: 15000].\n" +
+          "  --ambari.jobs.threads=<N>           Background jobs, e.g. followed operations, running at once [default: 4].\n" +
+          "  --ambari.jobs.queue=<N>             Maximum number of queued background jobs [default: 16].\n" +
+          "  --ambari.flash.frameRate=<N>        Refreshes of the flash line per second [default: 4].\n" +
+          "  --ambari.http.maxConnections=<N>    Pooled connections to the Ambari Server [default: fan-out + job threads + 1].\n" +
+          "  --ambari.http.connectTimeout=<SECONDS>  Timeout of opening a connection, 0 waits forever [default: 10].\n" +
+          "  --ambari.http.readTimeout=<SECONDS>     Timeout of waiting for a response, 0 waits forever [default: 60].\n" +
+          "  --ambari.http.keepAlive=<SECONDS>       Reuses idle connections for this long, 0 disables it [default: 60].\n" +
+          "  --ambari.http.gzip=<true|false>         Asks for gzip compressed responses [default: true].\n" +
+          "  --ambari.batch.parallelism=<N>      Runs independent commands of the --cmdfile concurrently [default: 0, disabled].\n" +
+          "  --ambari.daemon.port=<PORT>         Keeps running and executes the commands of the clients on the port.\n" +
+          "  --ambari.daemon.threads=<N>         Maximum number of concurrently connected clients [default: 4].\n" +
+          "  --ambari.fastStart                  Registers the beans explicitly and creates the converters on demand.\n" +
+          "  --ambari.metrics.file=<FILE>        Writes the command and REST call metrics to the file as json on exit.\n\n" +
           "Note:\n" +
           "  At least one option is mandatory."
       );
       System.exit(1);
     }
-    new SpringApplicationBuilder(AmbariShell.class).showBanner(false).run(args);
+    Object source = isFastStart(args) ? FastStartConfiguration.class : AmbariShell.class;
+    new SpringApplicationBuilder(source).showBanner(false).run(args);
+  }
+
+  private static boolean isFastStart(String[] args) {
+    for (String arg : args) {
+      if ("--ambari.fastStart".equals(arg) || "--ambari.fastStart=true".equals(arg)) {
+        return true;
+      }
+    }
+    return false;
   }
 }
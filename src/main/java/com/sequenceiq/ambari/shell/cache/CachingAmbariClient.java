@@ -0,0 +1,334 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderSingleMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.client.InvalidHostGroupHostAssociation;
+import com.sequenceiq.ambari.shell.model.HostResources;
+import com.sequenceiq.ambari.shell.support.AssignmentPlanner;
+import com.sequenceiq.ambari.shell.support.Cardinality;
+
+import groovyx.net.http.HttpResponseException;
+
+/**
+ * Ambari client which keeps the frequently used cluster metadata (hosts, blueprints,
+ * host groups, services) in a {@link MetadataCache}, so command and completion lookups
+ * don't need a REST round trip every time. State changing calls invalidate the affected entries.
+ * While a {@link ClusterSnapshot} is loaded the read calls are answered from it, the assignments
+ * are recommended by an {@link AssignmentPlanner} from the hosts of the snapshot, and the calls
+ * which need the live server (state changes, install progress) are rejected.
+ */
+public class CachingAmbariClient extends AmbariClient {
+
+  private final MetadataCache cache;
+  private volatile ClusterSnapshot snapshot;
+
+  public CachingAmbariClient(String host, String port, String user, String password, MetadataCache cache) {
+    super(host, port, user, password);
+    this.cache = cache;
+  }
+
+  /**
+   * Answers the read calls from the snapshot until it's unloaded.
+   *
+   * @param snapshot snapshot to answer from, null to go back to the server
+   */
+  public void setSnapshot(ClusterSnapshot snapshot) {
+    this.snapshot = snapshot;
+    cache.invalidateAll();
+  }
+
+  /**
+   * Returns the loaded snapshot.
+   *
+   * @return snapshot or null if the calls go to the server
+   */
+  public ClusterSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Returns the snapshot loaded into the client.
+   *
+   * @param client any client
+   * @return snapshot or null if the client is online
+   */
+  public static ClusterSnapshot getSnapshot(AmbariClient client) {
+    return client instanceof CachingAmbariClient ? ((CachingAmbariClient) client).getSnapshot() : null;
+  }
+
+  /**
+   * Drops the cached services and components of the client, e.g. after a state change
+   * request finished.
+   *
+   * @param client any client
+   */
+  public static void invalidateServices(AmbariClient client) {
+    if (client instanceof CachingAmbariClient) {
+      ((CachingAmbariClient) client).invalidateServices();
+    }
+  }
+
+  /**
+   * Drops the cached services and components.
+   */
+  public void invalidateServices() {
+    cache.invalidate(MetadataKey.SERVICES);
+    cache.invalidate(MetadataKey.SERVICE_COMPONENTS);
+  }
+
+  @Override
+  public String getClusterName() {
+    ClusterSnapshot offline = snapshot;
+    return offline == null ? super.getClusterName() : offline.getCluster();
+  }
+
+  @Override
+  public boolean isBlueprintAvailable() {
+    ClusterSnapshot offline = snapshot;
+    return offline == null ? super.isBlueprintAvailable() : !offline.getBlueprints().isEmpty();
+  }
+
+  @Override
+  public boolean doesBlueprintExist(String id) {
+    ClusterSnapshot offline = snapshot;
+    return offline == null ? super.doesBlueprintExist(id) : offline.getBlueprints().containsKey(id);
+  }
+
+  @Override
+  public String showHostList() {
+    ClusterSnapshot offline = snapshot;
+    return offline == null ? super.showHostList() : renderSingleMap(offline.getHosts(), "HOSTNAME", "STATE");
+  }
+
+  @Override
+  public Map<String, String> getHostComponentsMap(String host) {
+    ClusterSnapshot offline = snapshot;
+    return offline == null ? super.getHostComponentsMap(host) : offline.getHostComponents().get(host);
+  }
+
+  @Override
+  public Map<String, String> getTaskMap(String id) {
+    ClusterSnapshot offline = snapshot;
+    return offline == null ? super.getTaskMap(id) : offline.getTaskMap(id);
+  }
+
+  @Override
+  public Map<String, String> getHostNames() {
+    ClusterSnapshot offline = snapshot;
+    if (offline != null) {
+      return offline.getHosts();
+    }
+    return cache.get(MetadataKey.HOSTS.key(), new Callable<Map<String, String>>() {
+      @Override
+      public Map<String, String> call() {
+        return unmodifiable(CachingAmbariClient.super.getHostNames());
+      }
+    });
+  }
+
+  @Override
+  public Map<String, String> getBlueprintsMap() {
+    ClusterSnapshot offline = snapshot;
+    if (offline != null) {
+      return offline.getBlueprints();
+    }
+    return cache.get(MetadataKey.BLUEPRINTS.key(), new Callable<Map<String, String>>() {
+      @Override
+      public Map<String, String> call() {
+        return unmodifiable(CachingAmbariClient.super.getBlueprintsMap());
+      }
+    });
+  }
+
+  @Override
+  public Map<String, List<String>> getBlueprintMap(final String id) {
+    ClusterSnapshot offline = snapshot;
+    if (offline != null) {
+      return offline.getBlueprintHostGroups().get(id);
+    }
+    return cache.get(MetadataKey.BLUEPRINT.key(id), new Callable<Map<String, List<String>>>() {
+      @Override
+      public Map<String, List<String>> call() {
+        return unmodifiable(CachingAmbariClient.super.getBlueprintMap(id));
+      }
+    });
+  }
+
+  @Override
+  public List<String> getHostGroups(final String blueprint) {
+    ClusterSnapshot offline = snapshot;
+    if (offline != null) {
+      return hostGroups(offline.getBlueprintHostGroups().get(blueprint));
+    }
+    return cache.get(MetadataKey.HOST_GROUPS.key(blueprint), new Callable<List<String>>() {
+      @Override
+      public List<String> call() {
+        List<String> hostGroups = CachingAmbariClient.super.getHostGroups(blueprint);
+        return hostGroups == null ? null : unmodifiableList(hostGroups);
+      }
+    });
+  }
+
+  @Override
+  public Map<String, String> getServicesMap() {
+    ClusterSnapshot offline = snapshot;
+    if (offline != null) {
+      return offline.getServices();
+    }
+    return cache.get(MetadataKey.SERVICES.key(), new Callable<Map<String, String>>() {
+      @Override
+      public Map<String, String> call() {
+        return unmodifiable(CachingAmbariClient.super.getServicesMap());
+      }
+    });
+  }
+
+  @Override
+  public Map<String, Map<String, String>> getServiceComponentsMap() {
+    ClusterSnapshot offline = snapshot;
+    if (offline != null) {
+      return offline.getServiceComponents();
+    }
+    return cache.get(MetadataKey.SERVICE_COMPONENTS.key(), new Callable<Map<String, Map<String, String>>>() {
+      @Override
+      public Map<String, Map<String, String>> call() {
+        return unmodifiable(CachingAmbariClient.super.getServiceComponentsMap());
+      }
+    });
+  }
+
+  @Override
+  public Map<String, List<String>> recommendAssignments(String blueprint) throws InvalidHostGroupHostAssociation {
+    ClusterSnapshot offline = snapshot;
+    if (offline == null) {
+      return super.recommendAssignments(blueprint);
+    }
+    Map<String, List<String>> hostGroups = offline.getBlueprintHostGroups().get(blueprint);
+    if (hostGroups == null) {
+      return Collections.emptyMap();
+    }
+    List<HostResources> hosts = new ArrayList<HostResources>();
+    for (String host : offline.getHosts().keySet()) {
+      hosts.add(new HostResources(host, 1, 0, 1, null));
+    }
+    return new AssignmentPlanner(hostGroups, Collections.<String, Cardinality>emptyMap()).plan(hosts);
+  }
+
+  @Override
+  public BigDecimal getInstallProgress() {
+    checkOnline("A snapshot is loaded, unload it to follow the installation");
+    return super.getInstallProgress();
+  }
+
+  @Override
+  public void addBlueprint(String json) throws HttpResponseException {
+    checkOnline();
+    try {
+      super.addBlueprint(json);
+    } finally {
+      invalidateBlueprints();
+    }
+  }
+
+  @Override
+  public void addDefaultBlueprints() throws HttpResponseException {
+    checkOnline();
+    try {
+      super.addDefaultBlueprints();
+    } finally {
+      invalidateBlueprints();
+    }
+  }
+
+  @Override
+  public void createCluster(String clusterName, String blueprintName, Map<String, List<String>> hostGroups)
+    throws HttpResponseException {
+    checkOnline();
+    try {
+      super.createCluster(clusterName, blueprintName, hostGroups);
+    } finally {
+      cache.invalidateAll();
+    }
+  }
+
+  @Override
+  public void deleteCluster(String clusterName) throws HttpResponseException {
+    checkOnline();
+    try {
+      super.deleteCluster(clusterName);
+    } finally {
+      cache.invalidateAll();
+    }
+  }
+
+  @Override
+  public int startAllServices() {
+    checkOnline();
+    try {
+      return super.startAllServices();
+    } finally {
+      invalidateServices();
+    }
+  }
+
+  @Override
+  public int stopAllServices() {
+    checkOnline();
+    try {
+      return super.stopAllServices();
+    } finally {
+      invalidateServices();
+    }
+  }
+
+  private void checkOnline() {
+    checkOnline("A snapshot is loaded, unload it to change the cluster");
+  }
+
+  private void checkOnline(String message) {
+    if (snapshot != null) {
+      throw new IllegalStateException(message);
+    }
+  }
+
+  private List<String> hostGroups(Map<String, List<String>> blueprint) {
+    return blueprint == null ? null : unmodifiableList(new ArrayList<String>(blueprint.keySet()));
+  }
+
+  private void invalidateBlueprints() {
+    cache.invalidate(MetadataKey.BLUEPRINTS);
+    cache.invalidate(MetadataKey.BLUEPRINT);
+    cache.invalidate(MetadataKey.HOST_GROUPS);
+  }
+
+  private static <K, V> Map<K, V> unmodifiable(Map<K, V> map) {
+    return map == null ? null : unmodifiableMap(map);
+  }
+}
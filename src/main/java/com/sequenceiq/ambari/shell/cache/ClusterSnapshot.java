@@ -0,0 +1,334 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
+import com.sequenceiq.ambari.shell.support.ResourceQuery;
+
+/**
+ * Point in time copy of the cluster state (hosts, services, components, blueprints and the
+ * tasks of the latest requests) which can be saved to a gzip compressed json file. Once
+ * loaded into the {@link CachingAmbariClient} the read commands are answered from it.
+ */
+public class ClusterSnapshot {
+
+  private static final String HOSTS = "hosts";
+  private static final String SERVICES = "services";
+  private static final String SERVICE_COMPONENTS = "serviceComponents";
+  private static final String BLUEPRINTS = "blueprints";
+  private static final String REQUESTS = "requests";
+  private static final String HOST_PREFIX = "host:";
+  private static final String BLUEPRINT_PREFIX = "blueprint:";
+  private static final String TASKS_PREFIX = "tasks:";
+
+  private long created;
+  private String server;
+  private String cluster;
+  private Map<String, String> hosts = Collections.emptyMap();
+  private Map<String, Map<String, String>> hostComponents = Collections.emptyMap();
+  private Map<String, String> services = Collections.emptyMap();
+  private Map<String, Map<String, String>> serviceComponents = Collections.emptyMap();
+  private Map<String, String> blueprints = Collections.emptyMap();
+  private Map<String, Map<String, List<String>>> blueprintHostGroups = Collections.emptyMap();
+  private Map<String, List<List<String>>> tasks = Collections.emptyMap();
+
+  /**
+   * Queries the cluster state in parallel: first the listings, then the components of every
+   * host, every blueprint and the tasks of the latest requests.
+   *
+   * @param client      client to query the state with
+   * @param taskTracker tracker to query the tasks with
+   * @param executor    executes the queries in parallel
+   * @param listener    notified about the progress
+   * @param requests    number of the latest requests whose tasks are saved
+   * @return snapshot of the cluster
+   * @throws IOException if any of the queries failed
+   */
+  @SuppressWarnings("unchecked")
+  public static ClusterSnapshot capture(final AmbariClient client, final TaskTracker taskTracker,
+    FanOutExecutor executor, FanOutExecutor.ProgressListener listener, int requests) throws IOException {
+    ClusterSnapshot snapshot = new ClusterSnapshot();
+    snapshot.created = System.currentTimeMillis();
+    snapshot.server = String.valueOf(client.getAmbari().getUri());
+    snapshot.cluster = client.getClusterName();
+    final String cluster = snapshot.cluster;
+    Map<String, Object> listings = values(executor.execute(
+      Arrays.asList(HOSTS, SERVICES, SERVICE_COMPONENTS, BLUEPRINTS, REQUESTS), new FanOutExecutor.Task<Object>() {
+        @Override
+        public Object call(String key) throws Exception {
+          if (HOSTS.equals(key)) {
+            return client.getHostNames();
+          } else if (SERVICES.equals(key)) {
+            return cluster == null ? null : client.getServicesMap();
+          } else if (SERVICE_COMPONENTS.equals(key)) {
+            return cluster == null ? null : client.getServiceComponentsMap();
+          } else if (BLUEPRINTS.equals(key)) {
+            return client.getBlueprintsMap();
+          }
+          return cluster == null ? null : latestRequests(client, cluster);
+        }
+      }, listener));
+    snapshot.hosts = orEmpty((Map<String, String>) listings.get(HOSTS));
+    snapshot.services = orEmpty((Map<String, String>) listings.get(SERVICES));
+    snapshot.serviceComponents = orEmpty((Map<String, Map<String, String>>) listings.get(SERVICE_COMPONENTS));
+    snapshot.blueprints = orEmpty((Map<String, String>) listings.get(BLUEPRINTS));
+
+    List<String> keys = new ArrayList<String>();
+    for (String host : snapshot.hosts.keySet()) {
+      keys.add(HOST_PREFIX + host);
+    }
+    for (String blueprint : snapshot.blueprints.keySet()) {
+      keys.add(BLUEPRINT_PREFIX + blueprint);
+    }
+    List<String> requestIds = (List<String>) listings.get(REQUESTS);
+    for (String id : requestIds == null ? Collections.<String>emptyList() : tail(requestIds, requests)) {
+      keys.add(TASKS_PREFIX + id);
+    }
+    Map<String, Object> details = values(executor.execute(keys, new FanOutExecutor.Task<Object>() {
+      @Override
+      public Object call(String key) throws Exception {
+        if (key.startsWith(HOST_PREFIX)) {
+          return client.getHostComponentsMap(key.substring(HOST_PREFIX.length()));
+        } else if (key.startsWith(BLUEPRINT_PREFIX)) {
+          return client.getBlueprintMap(key.substring(BLUEPRINT_PREFIX.length()));
+        }
+        List<List<String>> rows = new ArrayList<List<String>>();
+        for (String[] row : taskTracker.getTasks(key.substring(TASKS_PREFIX.length()))) {
+          rows.add(Arrays.asList(row));
+        }
+        return rows;
+      }
+    }, listener));
+    snapshot.hostComponents = new TreeMap<String, Map<String, String>>();
+    snapshot.blueprintHostGroups = new TreeMap<String, Map<String, List<String>>>();
+    snapshot.tasks = new LinkedHashMap<String, List<List<String>>>();
+    for (Map.Entry<String, Object> entry : details.entrySet()) {
+      String key = entry.getKey();
+      if (key.startsWith(HOST_PREFIX)) {
+        snapshot.hostComponents.put(key.substring(HOST_PREFIX.length()), (Map<String, String>) entry.getValue());
+      } else if (key.startsWith(BLUEPRINT_PREFIX)) {
+        snapshot.blueprintHostGroups.put(key.substring(BLUEPRINT_PREFIX.length()),
+          (Map<String, List<String>>) entry.getValue());
+      } else {
+        snapshot.tasks.put(key.substring(TASKS_PREFIX.length()), (List<List<String>>) entry.getValue());
+      }
+    }
+    return snapshot;
+  }
+
+  /**
+   * Writes the snapshot as gzip compressed json.
+   *
+   * @param file   where to write it
+   * @param mapper json mapper
+   * @throws IOException if the file cannot be written
+   */
+  public void write(File file, ObjectMapper mapper) throws IOException {
+    OutputStream out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      mapper.writeValue(out, this);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Reads a snapshot written by {@link #write(File, ObjectMapper)}.
+   *
+   * @param file   file of the snapshot
+   * @param mapper json mapper
+   * @return snapshot
+   * @throws IOException if the file cannot be read
+   */
+  public static ClusterSnapshot read(File file, ObjectMapper mapper) throws IOException {
+    InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      return mapper.readValue(in, ClusterSnapshot.class);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Returns the tasks of a request in the same form as {@link TaskTracker#getTasks(String)}.
+   *
+   * @param requestId id of the request
+   * @return id, command detail and status of the tasks, empty if the request was not saved
+   */
+  public List<String[]> getTaskRows(String requestId) {
+    List<String[]> rows = new ArrayList<String[]>();
+    List<List<String>> saved = tasks.get(requestId);
+    if (saved != null) {
+      for (List<String> row : saved) {
+        rows.add(row.toArray(new String[row.size()]));
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the tasks of a request by their command detail.
+   *
+   * @param requestId id of the request
+   * @return status by command detail
+   */
+  public Map<String, String> getTaskMap(String requestId) {
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    for (String[] row : getTaskRows(requestId)) {
+      result.put(row[1], row[2]);
+    }
+    return result;
+  }
+
+  private static List<String> latestRequests(AmbariClient client, String cluster) throws IOException {
+    TreeMap<Long, String> ids = new TreeMap<Long, String>();
+    Iterator<String[]> rows = new ResourceQuery(client, String.format("clusters/%s/requests", cluster))
+      .field("Requests/id", "ID").rows();
+    while (rows.hasNext()) {
+      String id = rows.next()[0];
+      ids.put(Long.valueOf(id), id);
+    }
+    return new ArrayList<String>(ids.values());
+  }
+
+  private static List<String> tail(List<String> list, int size) {
+    return list.subList(Math.max(0, list.size() - size), list.size());
+  }
+
+  private static Map<String, Object> values(Map<String, FanOutExecutor.Result<Object>> results) throws IOException {
+    Map<String, Object> values = new LinkedHashMap<String, Object>();
+    List<String> failed = new ArrayList<String>();
+    for (Map.Entry<String, FanOutExecutor.Result<Object>> entry : results.entrySet()) {
+      if (entry.getValue().isSuccess()) {
+        values.put(entry.getKey(), entry.getValue().getValue());
+      } else {
+        failed.add(entry.getKey() + " (" + entry.getValue().getError() + ")");
+      }
+    }
+    if (!failed.isEmpty()) {
+      throw new IOException("Cannot query " + failed);
+    }
+    return values;
+  }
+
+  private static <K, V> Map<K, V> orEmpty(Map<K, V> map) {
+    return map == null ? Collections.<K, V>emptyMap() : map;
+  }
+
+  public long getCreated() {
+    return created;
+  }
+
+  public void setCreated(long created) {
+    this.created = created;
+  }
+
+  public String getServer() {
+    return server;
+  }
+
+  public void setServer(String server) {
+    this.server = server;
+  }
+
+  public String getCluster() {
+    return cluster;
+  }
+
+  public void setCluster(String cluster) {
+    this.cluster = cluster;
+  }
+
+  public Map<String, String> getHosts() {
+    return hosts;
+  }
+
+  public void setHosts(Map<String, String> hosts) {
+    this.hosts = hosts;
+  }
+
+  public Map<String, Map<String, String>> getHostComponents() {
+    return hostComponents;
+  }
+
+  public void setHostComponents(Map<String, Map<String, String>> hostComponents) {
+    this.hostComponents = hostComponents;
+  }
+
+  public Map<String, String> getServices() {
+    return services;
+  }
+
+  public void setServices(Map<String, String> services) {
+    this.services = services;
+  }
+
+  public Map<String, Map<String, String>> getServiceComponents() {
+    return serviceComponents;
+  }
+
+  public void setServiceComponents(Map<String, Map<String, String>> serviceComponents) {
+    this.serviceComponents = serviceComponents;
+  }
+
+  public Map<String, String> getBlueprints() {
+    return blueprints;
+  }
+
+  public void setBlueprints(Map<String, String> blueprints) {
+    this.blueprints = blueprints;
+  }
+
+  public Map<String, Map<String, List<String>>> getBlueprintHostGroups() {
+    return blueprintHostGroups;
+  }
+
+  public void setBlueprintHostGroups(Map<String, Map<String, List<String>>> blueprintHostGroups) {
+    this.blueprintHostGroups = blueprintHostGroups;
+  }
+
+  public Map<String, List<List<String>>> getTasks() {
+    return tasks;
+  }
+
+  public void setTasks(Map<String, List<List<String>>> tasks) {
+    this.tasks = tasks;
+  }
+}
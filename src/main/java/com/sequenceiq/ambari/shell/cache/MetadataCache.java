@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Size bounded, time based cache for the cluster metadata fetched from the Ambari Server.
+ * Entries expire after the configured TTL and the least recently used entry is evicted
+ * once the cache is full. A non-positive TTL disables the caching. Every invalidation starts
+ * a new generation, a value loaded in an earlier generation is returned but not cached, it
+ * could be older than the invalidation.
+ */
+public class MetadataCache {
+
+  private final long ttl;
+  private final int maxSize;
+  private final Map<String, Entry> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long generation;
+
+  /**
+   * @param ttl     time to live of the entries in milliseconds
+   * @param maxSize maximum number of entries
+   */
+  public MetadataCache(long ttl, final int maxSize) {
+    this.ttl = ttl;
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<String, Entry>(maxSize, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        boolean remove = size() > MetadataCache.this.maxSize;
+        if (remove) {
+          evictions++;
+        }
+        return remove;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached value of the key or loads it with the provided loader if it's
+   * missing or expired. The loader is invoked outside of the lock, so a slow REST call
+   * does not block the lookup of other entries.
+   *
+   * @param key    key of the entry
+   * @param loader loads the value if it is not cached
+   * @param <T>    type of the value
+   * @return cached or freshly loaded value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(String key, Callable<T> loader) {
+    long loadedGeneration;
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && !entry.isExpired()) {
+        hits++;
+        return (T) entry.value;
+      }
+      misses++;
+      loadedGeneration = generation;
+    }
+    T value = load(loader);
+    if (ttl > 0 && value != null) {
+      synchronized (this) {
+        if (loadedGeneration == generation) {
+          entries.put(key, new Entry(value, System.currentTimeMillis() + ttl));
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Removes the entry and all of its parameterized variants.
+   *
+   * @param key key to invalidate
+   */
+  public synchronized void invalidate(MetadataKey key) {
+    generation++;
+    Iterator<String> iterator = entries.keySet().iterator();
+    while (iterator.hasNext()) {
+      String next = iterator.next();
+      if (next.equals(key.key()) || next.startsWith(key.key() + ":")) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Removes every entry.
+   */
+  public synchronized void invalidateAll() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public long getTtl() {
+    return ttl;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  private <T> T load(Callable<T> loader) {
+    try {
+      return loader.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class Entry {
+
+    private final Object value;
+    private final long expires;
+
+    private Entry(Object value, long expires) {
+      this.value = value;
+      this.expires = expires;
+    }
+
+    private boolean isExpired() {
+      return System.currentTimeMillis() > expires;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+/**
+ * Identifies the cluster metadata entries kept in the {@link MetadataCache}.
+ * Parameterized entries (e.g. a single blueprint) share the prefix of their key,
+ * so invalidating a key removes all of its variants.
+ */
+public enum MetadataKey {
+
+  /**
+   * Host names with their state.
+   */
+  HOSTS("hosts"),
+
+  /**
+   * Blueprint names with their stack.
+   */
+  BLUEPRINTS("blueprints"),
+
+  /**
+   * Host groups and components of a single blueprint.
+   */
+  BLUEPRINT("blueprint"),
+
+  /**
+   * Host group names of a single blueprint.
+   */
+  HOST_GROUPS("hostGroups"),
+
+  /**
+   * Services with their state.
+   */
+  SERVICES("services"),
+
+  /**
+   * Services with their components and component states.
+   */
+  SERVICE_COMPONENTS("serviceComponents");
+
+  private final String name;
+
+  private MetadataKey(String name) {
+    this.name = name;
+  }
+
+  public String key() {
+    return name;
+  }
+
+  /**
+   * Returns the key of a parameterized entry.
+   *
+   * @param parameter e.g. the id of the blueprint
+   * @return key of the entry
+   */
+  public String key(String parameter) {
+    return name + ":" + parameter;
+  }
+}
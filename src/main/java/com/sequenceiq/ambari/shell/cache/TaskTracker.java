@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.support.ResourceQuery;
+
+/**
+ * Keeps a local view of the tasks of the recently listed requests, so listing the tasks
+ * again only fetches what could have changed. Tasks in a final state never change, only
+ * the tasks from the first unfinished one (by id) are queried again, or the new ones if
+ * every known task is finished. The least recently listed request is dropped once more
+ * than the maximum number of requests are tracked. The path of the tasks is resolved with
+ * the first fetch of a request, the tracker is cleared when the client connects to another
+ * server.
+ */
+public class TaskTracker {
+
+  /**
+   * Default number of tracked requests.
+   */
+  public static final int DEFAULT_MAX_REQUESTS = 16;
+
+  static final Set<String> FINAL_STATES = new HashSet<String>(
+    Arrays.asList("COMPLETED", "FAILED", "TIMEDOUT", "ABORTED", "SKIPPED_FAILED"));
+
+  private final AmbariClient client;
+  private final Map<String, RequestTasks> requests;
+  private long fetchedTasks;
+
+  /**
+   * @param client      client to query the tasks with
+   * @param maxRequests maximum number of tracked requests
+   */
+  public TaskTracker(AmbariClient client, final int maxRequests) {
+    this.client = client;
+    this.requests = new LinkedHashMap<String, RequestTasks>(maxRequests, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, RequestTasks> eldest) {
+        return size() > maxRequests;
+      }
+    };
+  }
+
+  /**
+   * Fetches the changes of the tasks of the request and returns the merged view. While a
+   * snapshot is loaded the tasks are returned from the snapshot.
+   *
+   * @param requestId id of the request
+   * @return id, command detail and status of the tasks ordered by id
+   * @throws IOException if the tasks cannot be queried
+   */
+  public List<String[]> getTasks(String requestId) throws IOException {
+    ClusterSnapshot snapshot = CachingAmbariClient.getSnapshot(client);
+    if (snapshot != null) {
+      return snapshot.getTaskRows(requestId);
+    }
+    RequestTasks tasks;
+    synchronized (requests) {
+      tasks = requests.get(requestId);
+      if (tasks == null) {
+        tasks = new RequestTasks(requestId);
+        requests.put(requestId, tasks);
+      }
+    }
+    synchronized (tasks) {
+      tasks.update();
+      return tasks.rows();
+    }
+  }
+
+  /**
+   * Checks whether a task status is final or not, tasks in a final state never change.
+   *
+   * @param status status of the task
+   * @return true if final false otherwise
+   */
+  public static boolean isFinal(String status) {
+    return FINAL_STATES.contains(status);
+  }
+
+  /**
+   * Forgets every tracked request.
+   */
+  public void clear() {
+    synchronized (requests) {
+      requests.clear();
+    }
+  }
+
+  /**
+   * Returns the number of tasks fetched from the server so far.
+   *
+   * @return fetched task count
+   */
+  public synchronized long getFetchedTasks() {
+    return fetchedTasks;
+  }
+
+  private synchronized void countFetched(int count) {
+    fetchedTasks += count;
+  }
+
+  /**
+   * Local view of the tasks of a single request.
+   */
+  private class RequestTasks {
+
+    private final String requestId;
+    private final TreeMap<Long, String[]> tasks = new TreeMap<Long, String[]>();
+    private String path;
+
+    RequestTasks(String requestId) {
+      this.requestId = requestId;
+    }
+
+    void update() throws IOException {
+      if (path == null) {
+        path = String.format("clusters/%s/requests/%s/tasks", client.getClusterName(), requestId);
+      }
+      ResourceQuery query = new ResourceQuery(client, path)
+        .field("Tasks/id", "ID").field("Tasks/command_detail", "TASK").field("Tasks/status", "STATUS");
+      if (!tasks.isEmpty()) {
+        Long cursor = firstUnfinished();
+        query.where(cursor == null ? "Tasks/id>" + tasks.lastKey() : "Tasks/id>=" + cursor);
+      }
+      int count = 0;
+      Iterator<String[]> rows = query.rows();
+      while (rows.hasNext()) {
+        String[] row = rows.next();
+        tasks.put(Long.valueOf(row[0]), row);
+        count++;
+      }
+      countFetched(count);
+    }
+
+    List<String[]> rows() {
+      return new ArrayList<String[]>(tasks.values());
+    }
+
+    private Long firstUnfinished() {
+      for (Map.Entry<Long, String[]> entry : tasks.entrySet()) {
+        if (!isFinal(entry.getValue()[2])) {
+          return entry.getKey();
+        }
+      }
+      return null;
+    }
+  }
+}
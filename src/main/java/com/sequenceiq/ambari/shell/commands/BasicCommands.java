@@ -17,9 +17,18 @@
  */
 package com.sequenceiq.ambari.shell.commands;
 
+import static com.sequenceiq.ambari.shell.support.StreamingTableRenderer.mapValueMapRows;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderMapValueMap;
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderRows;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderSingleMap;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.core.CommandMarker;
 import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
@@ -28,7 +37,19 @@ import org.springframework.shell.core.annotation.CliOption;
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.cache.CachingAmbariClient;
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+import com.sequenceiq.ambari.shell.flash.AbstractOperation;
+import com.sequenceiq.ambari.shell.flash.FlashService;
+import com.sequenceiq.ambari.shell.flash.OperationProgress;
+import com.sequenceiq.ambari.shell.flash.RollingOperation;
+import com.sequenceiq.ambari.shell.flash.TableWatcher;
 import com.sequenceiq.ambari.shell.model.AmbariContext;
+import com.sequenceiq.ambari.shell.support.ConnectionProfiles;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
+import com.sequenceiq.ambari.shell.support.ResourceQuery;
+import com.sequenceiq.ambari.shell.support.ServiceControl;
+import com.sequenceiq.ambari.shell.support.ShellConsole;
 
 /**
  * Basic commands used in the shell. Delegating the commands
@@ -39,13 +60,27 @@ import com.sequenceiq.ambari.shell.model.AmbariContext;
 @Component
 public class BasicCommands implements CommandMarker {
 
+  /**
+   * Tables with more rows are streamed to the console instead of rendered in memory.
+   */
+  private static final int STREAMING_THRESHOLD = 1000;
+
   private AmbariClient client;
   private AmbariContext context;
+  private FlashService flashService;
+  private TaskTracker taskTracker;
+  private ConnectionProfiles profiles;
+  private ShellConsole console;
 
   @Autowired
-  public BasicCommands(AmbariClient client, AmbariContext context) {
+  public BasicCommands(AmbariClient client, AmbariContext context, FlashService flashService,
+    TaskTracker taskTracker, ConnectionProfiles profiles, ShellConsole console) {
     this.client = client;
     this.context = context;
+    this.flashService = flashService;
+    this.taskTracker = taskTracker;
+    this.profiles = profiles;
+    this.console = console;
   }
 
   /**
@@ -59,15 +94,49 @@ public class BasicCommands implements CommandMarker {
   }
 
   /**
-   * Prints the tasks of the Ambari Server.
+   * Prints the tasks of the Ambari Server. Large task lists are streamed to the console.
+   * The tasks are tracked, so listing them again only fetches the ones which could have changed.
+   * The status and the fields are queried from the server, the filter is applied on the
+   * returned tasks.
    *
-   * @param id id of the request
+   * @param id       id of the request
+   * @param pageSize number of rows after the output pauses, 0 disables paging
+   * @param filter   glob or substring the task has to match
+   * @param state    status of the tasks to list
+   * @param fields   additional fields of the tasks to list
+   * @param watch    polls the tasks with the given interval in seconds and prints the changes, 0 disables it
    * @return task list
    */
   @CliCommand(value = "tasks", help = "Lists the Ambari tasks")
   public String tasks(
-    @CliOption(key = "id", mandatory = false, help = "Id of the request; default is: 1", unspecifiedDefaultValue = "1") String id) {
-    return renderSingleMap(client.getTaskMap(id), "TASK", "STATUS");
+    @CliOption(key = "id", mandatory = false, help = "Id of the request; default is: 1", unspecifiedDefaultValue = "1") String id,
+    @CliOption(key = "pageSize", mandatory = false, help = "Pauses the output after the given number of rows",
+      unspecifiedDefaultValue = "0") int pageSize,
+    @CliOption(key = "filter", mandatory = false, help = "Lists the tasks matching the glob or substring") String filter,
+    @CliOption(key = "state", mandatory = false, help = "Lists the tasks with the given status, e.g. FAILED") String state,
+    @CliOption(key = "fields", mandatory = false, help = "Comma separated additional fields, e.g. Tasks/host_name")
+    String fields,
+    @CliOption(key = "watch", mandatory = false, specifiedDefaultValue = "5", unspecifiedDefaultValue = "0",
+      help = "Polls the tasks with the given interval in seconds and prints the changes until a key is pressed")
+    int watch) {
+    if (watch > 0) {
+      return watchTasks(id, watch);
+    }
+    if (filter != null || state != null || fields != null) {
+      return query(new ResourceQuery(client, String.format("clusters/%s/requests/%s/tasks", client.getClusterName(), id))
+        .field("Tasks/command_detail", "TASK").field("Tasks/status", "STATUS").fields(fields)
+        .where("Tasks/status", upperCase(state)), 0, filter, pageSize);
+    }
+    List<String[]> tasks;
+    try {
+      tasks = taskTracker.getTasks(id);
+    } catch (IOException e) {
+      return "Cannot query the Ambari Server: " + e.getMessage();
+    }
+    if (pageSize > 0 || tasks.size() > STREAMING_THRESHOLD) {
+      return console.renderTable(tasks.iterator(), pageSize, "ID", "TASK", "STATUS");
+    }
+    return renderRows(tasks, "ID", "TASK", "STATUS");
   }
 
   /**
@@ -81,12 +150,38 @@ public class BasicCommands implements CommandMarker {
   }
 
   /**
-   * Prints the available service list of the Ambari Server.
+   * Prints the available service list of the Ambari Server. The state and the fields are
+   * queried from the server, the filter is applied on the returned services.
    *
+   * @param filter     glob or substring the service has to match
+   * @param state      state of the services to list
+   * @param fields     additional fields of the services to list
+   * @param watch      polls the services with the given interval in seconds and prints the changes, 0 disables it
+   * @param allServers queries the services of every connection profile concurrently
    * @return service list
    */
   @CliCommand(value = "services list", help = "Lists the available services")
-  public String servicesList() {
+  public String servicesList(
+    @CliOption(key = "filter", mandatory = false, help = "Lists the services matching the glob or substring") String filter,
+    @CliOption(key = "state", mandatory = false, help = "Lists the services in the given state, e.g. STARTED") String state,
+    @CliOption(key = "fields", mandatory = false,
+      help = "Comma separated additional fields, e.g. ServiceInfo/maintenance_state") String fields,
+    @CliOption(key = "watch", mandatory = false, specifiedDefaultValue = "5", unspecifiedDefaultValue = "0",
+      help = "Polls the services with the given interval in seconds and prints the changes until a key is pressed")
+    int watch,
+    @CliOption(key = "allServers", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Lists the services of every connection profile") boolean allServers) {
+    if (allServers) {
+      return servicesOfAllServers(filter, state);
+    }
+    if (watch > 0) {
+      return watchServices(watch);
+    }
+    if (filter != null || state != null || fields != null) {
+      return query(new ResourceQuery(client, String.format("clusters/%s/services", client.getClusterName()))
+        .field("ServiceInfo/service_name", "SERVICE").field("ServiceInfo/state", "STATE").fields(fields)
+        .where("ServiceInfo/state", upperCase(state)), 0, filter, 0);
+    }
     return renderSingleMap(client.getServicesMap(), "SERVICE", "STATE");
   }
 
@@ -101,13 +196,34 @@ public class BasicCommands implements CommandMarker {
   }
 
   /**
-   * Prints the service components of the Ambari Server.
+   * Prints the service components of the Ambari Server. Large component lists are streamed to the console.
+   * The state and the fields are queried from the server, the filter is applied on the returned components.
    *
+   * @param pageSize number of rows after the output pauses, 0 disables paging
+   * @param filter   glob or substring the component has to match
+   * @param state    state of the components to list
+   * @param fields   additional fields of the components to list
    * @return service component list
    */
   @CliCommand(value = "services components", help = "Lists all services with their components")
-  public String serviceComponents() {
-    return renderMapValueMap(client.getServiceComponentsMap(), "SERVICE", "COMPONENT", "STATE");
+  public String serviceComponents(
+    @CliOption(key = "pageSize", mandatory = false, help = "Pauses the output after the given number of rows",
+      unspecifiedDefaultValue = "0") int pageSize,
+    @CliOption(key = "filter", mandatory = false, help = "Lists the components matching the glob or substring") String filter,
+    @CliOption(key = "state", mandatory = false, help = "Lists the components in the given state, e.g. INSTALLED") String state,
+    @CliOption(key = "fields", mandatory = false,
+      help = "Comma separated additional fields, e.g. ServiceComponentInfo/category") String fields) {
+    if (filter != null || state != null || fields != null) {
+      return query(new ResourceQuery(client, String.format("clusters/%s/components", client.getClusterName()))
+        .field("ServiceComponentInfo/service_name", "SERVICE").field("ServiceComponentInfo/component_name", "COMPONENT")
+        .field("ServiceComponentInfo/state", "STATE").fields(fields)
+        .where("ServiceComponentInfo/state", upperCase(state)), 1, filter, pageSize);
+    }
+    Map<String, Map<String, String>> components = client.getServiceComponentsMap();
+    if (pageSize > 0 || countRows(components) > STREAMING_THRESHOLD) {
+      return console.renderTable(mapValueMapRows(components), pageSize, "SERVICE", "COMPONENT", "STATE");
+    }
+    return renderMapValueMap(components, "SERVICE", "COMPONENT", "STATE");
   }
 
   /**
@@ -177,16 +293,30 @@ public class BasicCommands implements CommandMarker {
     return context.isConnectedToCluster();
   }
 
+  /**
+   * Stops the services. The request is followed in the background, so the command returns
+   * right away unless it's asked to wait for the completion. In rolling mode the components
+   * are stopped host batch by host batch.
+   *
+   * @param service     name of the service to stop, null for every service
+   * @param rolling     stops the components host batch by host batch
+   * @param batchSize   number of hosts in a rolling batch
+   * @param parallelism maximum number of rolling batches in flight
+   * @param wait        waits until the services stopped
+   * @return id of the request or the result of the operation if waited for
+   */
   @CliCommand(value = "services stop", help = "Stops all the running services")
-  public String stopServices() {
-    String message;
-    try {
-      client.stopAllServices();
-      message = "Stopping all services..";
-    } catch (Exception e) {
-      message = "Cannot stop services";
-    }
-    return String.format("%s\n\n%s", message, servicesList());
+  public String stopServices(
+    @CliOption(key = "service", mandatory = false, help = "Name of the service to stop, e.g. HDFS") String service,
+    @CliOption(key = "rolling", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Stops the components host batch by host batch") boolean rolling,
+    @CliOption(key = "batchSize", mandatory = false, unspecifiedDefaultValue = "50",
+      help = "Number of hosts in a rolling batch") int batchSize,
+    @CliOption(key = "parallelism", mandatory = false, unspecifiedDefaultValue = "1",
+      help = "Maximum number of rolling batches in flight") int parallelism,
+    @CliOption(key = "wait", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Waits until the services stopped") boolean wait) {
+    return changeServices(ServiceControl.INSTALLED, service, rolling, batchSize, parallelism, wait);
   }
 
   @CliAvailabilityIndicator("services start")
@@ -194,15 +324,170 @@ public class BasicCommands implements CommandMarker {
     return context.isConnectedToCluster();
   }
 
+  /**
+   * Starts the services. The request is followed in the background, so the command returns
+   * right away unless it's asked to wait for the completion. In rolling mode the components
+   * are started host batch by host batch.
+   *
+   * @param service     name of the service to start, null for every service
+   * @param rolling     starts the components host batch by host batch
+   * @param batchSize   number of hosts in a rolling batch
+   * @param parallelism maximum number of rolling batches in flight
+   * @param wait        waits until the services started
+   * @return id of the request or the result of the operation if waited for
+   */
   @CliCommand(value = "services start", help = "Starts all the services")
-  public String startServices() {
-    String message;
+  public String startServices(
+    @CliOption(key = "service", mandatory = false, help = "Name of the service to start, e.g. HDFS") String service,
+    @CliOption(key = "rolling", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Starts the components host batch by host batch") boolean rolling,
+    @CliOption(key = "batchSize", mandatory = false, unspecifiedDefaultValue = "50",
+      help = "Number of hosts in a rolling batch") int batchSize,
+    @CliOption(key = "parallelism", mandatory = false, unspecifiedDefaultValue = "1",
+      help = "Maximum number of rolling batches in flight") int parallelism,
+    @CliOption(key = "wait", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Waits until the services started") boolean wait) {
+    return changeServices(ServiceControl.STARTED, service, rolling, batchSize, parallelism, wait);
+  }
+
+  private String changeServices(String state, String service, boolean rolling, int batchSize, int parallelism,
+    boolean wait) {
+    boolean start = ServiceControl.STARTED.equals(state);
+    String title = String.format("%s %s", start ? "Starting" : "Stopping", service == null ? "all services" : service);
+    if (rolling) {
+      return rollServices(title, state, service, batchSize, parallelism, wait);
+    }
+    int requestId;
     try {
-      client.startAllServices();
-      message = "Starting all services..";
+      if (service == null) {
+        requestId = start ? client.startAllServices() : client.stopAllServices();
+      } else {
+        requestId = new ServiceControl(client).setServiceState(service, state);
+      }
     } catch (Exception e) {
-      message = "Cannot start services";
+      return String.format("Cannot %s %s: %s", start ? "start" : "stop", service == null ? "services" : service,
+        e.getMessage());
+    }
+    return trackOperation(title, requestId, wait);
+  }
+
+  private String rollServices(String title, String state, String service, int batchSize, int parallelism,
+    boolean wait) {
+    ServiceControl control = new ServiceControl(client);
+    List<String> components;
+    try {
+      components = control.getControllableComponents(service);
+    } catch (IOException e) {
+      return "Cannot query the Ambari Server: " + e.getMessage();
+    }
+    if (components.isEmpty()) {
+      return String.format("%s: nothing to do", title);
+    }
+    List<String> hosts = new ArrayList<String>(new TreeSet<String>(client.getHostNames().keySet()));
+    RollingOperation operation;
+    try {
+      operation = flashService.startRolling(title + " (rolling)", control, hosts, components, state,
+        batchSize, parallelism);
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    } catch (RejectedExecutionException e) {
+      return String.format("%s: too many background jobs, see 'jobs'", title);
+    }
+    if (!wait) {
+      return String.format("%s.. %d host(s) in batches of %d, at most %d batch(es) at once",
+        operation.getTitle(), hosts.size(), batchSize, parallelism);
+    }
+    return awaitOperation(operation);
+  }
+
+  private String trackOperation(String title, int requestId, boolean wait) {
+    if (requestId <= 0) {
+      return String.format("%s: nothing to do\n\n%s", title, servicesList(null, null, null, 0, false));
+    }
+    OperationProgress operation;
+    try {
+      operation = flashService.trackOperation(title, String.valueOf(requestId));
+    } catch (RejectedExecutionException e) {
+      return String.format("%s.. request id: %d, it's not followed, there are too many background jobs",
+        title, requestId);
+    }
+    if (!wait) {
+      return String.format("%s.. request id: %d, see 'tasks --id %d' for the details", title, requestId, requestId);
+    }
+    return awaitOperation(operation);
+  }
+
+  private String awaitOperation(AbstractOperation operation) {
+    String result;
+    try {
+      result = operation.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return String.format("Stopped waiting for %s, it's still followed in the background", operation.getTitle());
+    }
+    CachingAmbariClient.invalidateServices(client);
+    return String.format("%s: %s\n\n%s", operation.getTitle(), result, servicesList(null, null, null, 0, false));
+  }
+
+  private String watchTasks(final String id, int interval) {
+    return flashService.createWatcher(interval).watch("Watching tasks", new TableWatcher.Source() {
+      @Override
+      public List<String[]> poll() {
+        try {
+          return taskTracker.getTasks(id);
+        } catch (IOException e) {
+          throw new IllegalStateException("Cannot query the Ambari Server: " + e.getMessage(), e);
+        }
+      }
+    }, "ID", "TASK", "STATUS");
+  }
+
+  private String watchServices(int interval) {
+    return flashService.createWatcher(interval).watch("Watching services", new TableWatcher.Source() {
+      @Override
+      public List<String[]> poll() {
+        CachingAmbariClient.invalidateServices(client);
+        return rows(client.getServicesMap());
+      }
+    }, "SERVICE", "STATE");
+  }
+
+  private String servicesOfAllServers(String filter, String state) {
+    Map<String, FanOutExecutor.Result<Map<String, String>>> results = profiles.execute(
+      new ConnectionProfiles.ServerTask<Map<String, String>>() {
+        @Override
+        public Map<String, String> call(AmbariClient server) {
+          return server.getServicesMap();
+        }
+      }, flashService.createProgress("Querying servers"));
+    return ConnectionProfiles.renderMerged(results, filter, upperCase(state), "SERVER", "SERVICE", "STATE");
+  }
+
+  private List<String[]> rows(Map<String, String> map) {
+    List<String[]> rows = new ArrayList<String[]>(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      rows.add(new String[]{entry.getKey(), entry.getValue()});
+    }
+    return rows;
+  }
+
+  private String query(ResourceQuery query, int column, String filter, int pageSize) {
+    try {
+      return query.render(console, column, filter, pageSize);
+    } catch (IOException e) {
+      return "Cannot query the Ambari Server: " + e.getMessage();
+    }
+  }
+
+  private String upperCase(String value) {
+    return value == null ? null : value.toUpperCase();
+  }
+
+  private int countRows(Map<String, Map<String, String>> rows) {
+    int count = 0;
+    for (Map<String, String> values : rows.values()) {
+      count += values == null ? 0 : values.size();
     }
-    return String.format("%s\n\n%s", message, servicesList());
+    return count;
   }
 }
@@ -17,6 +17,8 @@
  */
 package com.sequenceiq.ambari.shell.commands;
 
+import static com.sequenceiq.ambari.shell.support.BlueprintNameReader.readName;
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderMapValueMap;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderMultiValueMap;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderSingleMap;
 
@@ -24,7 +26,16 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,8 +47,10 @@ import org.springframework.stereotype.Component;
 
 import com.sequenceiq.ambari.client.AmbariClient;
 import com.sequenceiq.ambari.shell.completion.Blueprint;
+import com.sequenceiq.ambari.shell.flash.FlashService;
 import com.sequenceiq.ambari.shell.model.AmbariContext;
 import com.sequenceiq.ambari.shell.model.Hints;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
 
 /**
  * Blueprint related commands used in the shell.
@@ -50,12 +63,17 @@ public class BlueprintCommands implements CommandMarker {
   private AmbariClient client;
   private AmbariContext context;
   private ObjectMapper jsonMapper;
+  private FanOutExecutor fanOutExecutor;
+  private FlashService flashService;
 
   @Autowired
-  public BlueprintCommands(AmbariClient client, AmbariContext context, ObjectMapper jsonMapper) {
+  public BlueprintCommands(AmbariClient client, AmbariContext context, ObjectMapper jsonMapper,
+    FanOutExecutor fanOutExecutor, FlashService flashService) {
     this.client = client;
     this.context = context;
     this.jsonMapper = jsonMapper;
+    this.fanOutExecutor = fanOutExecutor;
+    this.flashService = flashService;
   }
 
   /**
@@ -112,16 +130,24 @@ public class BlueprintCommands implements CommandMarker {
 
   /**
    * Adds a blueprint to the Ambari server either through an URL or from a file.
-   * If both specified the file takes precedence.
+   * If both specified the file takes precedence. Many blueprints can be added at once
+   * from a directory or a manifest, these take precedence over the single blueprint.
    *
-   * @param url  -optional, URL containing the blueprint json
-   * @param file - optional, file containing the blueprint json
+   * @param url      -optional, URL containing the blueprint json
+   * @param file     - optional, file containing the blueprint json
+   * @param dir      - optional, directory containing blueprint json files
+   * @param manifest - optional, file listing the URLs or paths of the blueprints line by line
    * @return status message
    */
-  @CliCommand(value = "blueprint add", help = "Add a new blueprint with either --url or --file")
+  @CliCommand(value = "blueprint add", help = "Add new blueprints with either --url, --file, --dir or --manifest")
   public String addBlueprint(
     @CliOption(key = "url", mandatory = false, help = "URL of the blueprint to download from") String url,
-    @CliOption(key = "file", mandatory = false, help = "File which contains the blueprint") File file) {
+    @CliOption(key = "file", mandatory = false, help = "File which contains the blueprint") File file,
+    @CliOption(key = "dir", mandatory = false, help = "Directory of the blueprint json files") File dir,
+    @CliOption(key = "manifest", mandatory = false, help = "File which lists blueprint URLs or paths") File manifest) {
+    if (dir != null || manifest != null) {
+      return addBlueprints(dir, manifest);
+    }
     String message;
     try {
       String json = file == null ? readContent(url) : readContent(file);
@@ -167,6 +193,117 @@ public class BlueprintCommands implements CommandMarker {
     return message;
   }
 
+  /**
+   * Every source is read and validated first, only the valid ones with unique names
+   * are uploaded. Both phases run concurrently with the fan out's parallelism.
+   */
+  private String addBlueprints(File dir, File manifest) {
+    List<String> sources;
+    try {
+      sources = dir != null ? listBlueprintFiles(dir) : readManifest(manifest);
+    } catch (IOException e) {
+      return "Cannot read the blueprints: " + e.getMessage();
+    }
+    if (sources.isEmpty()) {
+      return "No blueprint specified";
+    }
+    final Map<String, String> contents = new ConcurrentHashMap<String, String>();
+    Map<String, FanOutExecutor.Result<String>> names = fanOutExecutor.execute(sources,
+      new FanOutExecutor.Task<String>() {
+        @Override
+        public String call(String source) throws IOException {
+          String json = readSource(source);
+          String name = readName(json);
+          contents.put(source, json);
+          return name;
+        }
+      }, flashService.createProgress("Reading blueprints"));
+    Map<String, Map<String, String>> rows = new LinkedHashMap<String, Map<String, String>>(sources.size());
+    Map<String, String> sourceByName = new HashMap<String, String>();
+    List<String> valid = new ArrayList<String>();
+    for (Map.Entry<String, FanOutExecutor.Result<String>> entry : names.entrySet()) {
+      String source = entry.getKey();
+      FanOutExecutor.Result<String> result = entry.getValue();
+      if (!result.isSuccess()) {
+        rows.put(source, Collections.singletonMap("-", "INVALID: " + result.getError()));
+      } else if (sourceByName.containsKey(result.getValue())) {
+        rows.put(source, Collections.singletonMap(result.getValue(),
+          "REJECTED: duplicate of " + sourceByName.get(result.getValue())));
+      } else {
+        sourceByName.put(result.getValue(), source);
+        valid.add(source);
+      }
+    }
+    Map<String, FanOutExecutor.Result<String>> uploads = fanOutExecutor.execute(valid,
+      new FanOutExecutor.Task<String>() {
+        @Override
+        public String call(String source) throws IOException {
+          client.addBlueprint(contents.get(source));
+          return "ADDED";
+        }
+      }, flashService.createProgress("Uploading blueprints"));
+    int added = 0;
+    for (Map.Entry<String, FanOutExecutor.Result<String>> entry : uploads.entrySet()) {
+      FanOutExecutor.Result<String> result = entry.getValue();
+      String name = names.get(entry.getKey()).getValue();
+      String status = result.isSuccess() ? "ADDED" : "FAILED: " + result.getError();
+      rows.put(entry.getKey(), Collections.singletonMap(name, status));
+      if (result.isSuccess()) {
+        added++;
+      }
+    }
+    if (added > 0) {
+      context.setHint(Hints.BUILD_CLUSTER);
+      context.setBlueprintsAvailable(true);
+    }
+    Map<String, Map<String, String>> ordered = new LinkedHashMap<String, Map<String, String>>(rows.size());
+    for (String source : sources) {
+      ordered.put(source, rows.get(source));
+    }
+    return String.format("%d blueprint(s) have been added, %d failed\n%s",
+      added, sources.size() - added, renderMapValueMap(ordered, "SOURCE", "BLUEPRINT", "RESULT"));
+  }
+
+  private List<String> listBlueprintFiles(File dir) throws IOException {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      throw new IOException(dir + " is not a directory");
+    }
+    Arrays.sort(files);
+    List<String> sources = new ArrayList<String>(files.length);
+    for (File file : files) {
+      if (file.isFile() && file.getName().endsWith(".json")) {
+        sources.add(file.getPath());
+      }
+    }
+    return sources;
+  }
+
+  /**
+   * Relative paths of the manifest are resolved against the manifest's directory.
+   */
+  private List<String> readManifest(File manifest) throws IOException {
+    List<String> sources = new ArrayList<String>();
+    for (String line : FileUtils.readLines(manifest)) {
+      String source = line.trim();
+      if (!source.isEmpty() && !source.startsWith("#") && !sources.contains(source)) {
+        if (!isUrl(source) && !new File(source).isAbsolute()) {
+          source = new File(manifest.getAbsoluteFile().getParentFile(), source).getPath();
+        }
+        sources.add(source);
+      }
+    }
+    return sources;
+  }
+
+  private String readSource(String source) throws IOException {
+    return isUrl(source) ? IOUtils.toString(new URL(source)) : FileUtils.readFileToString(new File(source));
+  }
+
+  private boolean isUrl(String source) {
+    return source.contains("://");
+  }
+
   private String readContent(File file) {
     String content = null;
     try {
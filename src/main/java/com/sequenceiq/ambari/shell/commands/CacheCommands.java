@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.commands;
+
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderSingleMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.shell.core.CommandMarker;
+import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
+import org.springframework.shell.core.annotation.CliCommand;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.ambari.shell.cache.MetadataCache;
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+
+/**
+ * Commands to inspect and clear the cluster metadata cache.
+ *
+ * @see com.sequenceiq.ambari.shell.cache.MetadataCache
+ */
+@Component
+public class CacheCommands implements CommandMarker {
+
+  private MetadataCache cache;
+  private TaskTracker taskTracker;
+
+  @Autowired
+  public CacheCommands(MetadataCache cache, TaskTracker taskTracker) {
+    this.cache = cache;
+    this.taskTracker = taskTracker;
+  }
+
+  /**
+   * Checks whether the cache stats command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("cache stats")
+  public boolean isCacheStatsCommandAvailable() {
+    return true;
+  }
+
+  /**
+   * Prints the hit and miss counts of the metadata cache.
+   *
+   * @return cache statistics
+   */
+  @CliCommand(value = "cache stats", help = "Shows the hit and miss counts of the metadata cache")
+  public String stats() {
+    long hits = cache.getHits();
+    long misses = cache.getMisses();
+    long total = hits + misses;
+    Map<String, String> stats = new LinkedHashMap<String, String>();
+    stats.put("hits", String.valueOf(hits));
+    stats.put("misses", String.valueOf(misses));
+    stats.put("hit ratio", total == 0 ? "-" : String.format("%.1f%%", hits * 100.0 / total));
+    stats.put("evictions", String.valueOf(cache.getEvictions()));
+    stats.put("entries", String.format("%d/%d", cache.size(), cache.getMaxSize()));
+    stats.put("ttl", String.format("%d ms", cache.getTtl()));
+    stats.put("fetched tasks", String.valueOf(taskTracker.getFetchedTasks()));
+    return renderSingleMap(stats, "STATISTIC", "VALUE");
+  }
+
+  /**
+   * Checks whether the cache clear command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("cache clear")
+  public boolean isCacheClearCommandAvailable() {
+    return true;
+  }
+
+  /**
+   * Removes every entry from the metadata cache and the tracked tasks, the next lookups go to the Ambari Server.
+   *
+   * @return status message
+   */
+  @CliCommand(value = "cache clear", help = "Clears the metadata cache")
+  public String clear() {
+    cache.invalidateAll();
+    taskTracker.clear();
+    return "Metadata cache cleared";
+  }
+}
@@ -19,12 +19,23 @@ package com.sequenceiq.ambari.shell.commands;
 
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderMultiValueMap;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderSingleMap;
+import static java.util.Collections.singleton;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.core.CommandMarker;
 import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
@@ -34,12 +45,19 @@ import org.springframework.stereotype.Component;
 
 import com.sequenceiq.ambari.client.AmbariClient;
 import com.sequenceiq.ambari.client.InvalidHostGroupHostAssociation;
+import com.sequenceiq.ambari.shell.cache.CachingAmbariClient;
 import com.sequenceiq.ambari.shell.completion.Blueprint;
 import com.sequenceiq.ambari.shell.completion.Host;
 import com.sequenceiq.ambari.shell.flash.FlashService;
 import com.sequenceiq.ambari.shell.model.AmbariContext;
 import com.sequenceiq.ambari.shell.model.FocusType;
 import com.sequenceiq.ambari.shell.model.Hints;
+import com.sequenceiq.ambari.shell.model.HostGroupAssignments;
+import com.sequenceiq.ambari.shell.model.HostResources;
+import com.sequenceiq.ambari.shell.support.AssignmentPlanner;
+import com.sequenceiq.ambari.shell.support.Cardinality;
+import com.sequenceiq.ambari.shell.support.HostPatterns;
+import com.sequenceiq.ambari.shell.support.ResourceQuery;
 
 import groovyx.net.http.HttpResponseException;
 
@@ -51,10 +69,15 @@ import groovyx.net.http.HttpResponseException;
 @Component
 public class ClusterCommands implements CommandMarker {
 
+  private static final String ACCEPTED = "ACCEPTED";
+  private static final String UNKNOWN_HOST = "REJECTED: unknown host";
+  private static final String ALREADY_ASSIGNED = "REJECTED: already assigned";
+  private static final String NO_MATCH = "REJECTED: no matching host";
+
   private AmbariClient client;
   private AmbariContext context;
   private FlashService flashService;
-  private Map<String, List<String>> hostGroups;
+  private HostGroupAssignments hostGroups;
 
   @Autowired
   public ClusterCommands(AmbariClient client, AmbariContext context, FlashService flashService) {
@@ -109,27 +132,44 @@ public class ClusterCommands implements CommandMarker {
   }
 
   /**
-   * Assign hosts to host groups provided in the blueprint.
+   * Assign hosts to host groups provided in the blueprint. Either a single host or
+   * a bulk selection of hosts can be assigned. In bulk mode every host is validated
+   * against the same host list snapshot and the accepted hosts are added in one step.
    *
    * @param host  host to assign
    * @param group which host group to
+   * @param hosts comma separated host names, globs or ranges to assign
+   * @param regex regular expression matching the host names to assign
+   * @param file  file containing a host name, glob or range per line
    * @return status message
    */
-  @CliCommand(value = "cluster assign", help = "Assign host to host group")
+  @CliCommand(value = "cluster assign", help = "Assign host(s) to host group")
   public String assign(
-    @CliOption(key = "host", mandatory = true, help = "Fully qualified host name") Host host,
-    @CliOption(key = "hostGroup", mandatory = true, help = "Host group which to assign the host") String group) {
+    @CliOption(key = "host", mandatory = false, help = "Fully qualified host name") Host host,
+    @CliOption(key = "hostGroup", mandatory = true, help = "Host group which to assign the host") String group,
+    @CliOption(key = "hosts", mandatory = false,
+      help = "Comma separated host names, globs (dn*.example.com) or ranges (dn[001-500].example.com)") String hosts,
+    @CliOption(key = "hostRegex", mandatory = false, help = "Regular expression matching the host names") String regex,
+    @CliOption(key = "hostFile", mandatory = false, help = "File containing a host name, glob or range per line") File file) {
     String message;
-    String hostName = host.getName();
-    if (client.getHostNames().keySet().contains(hostName)) {
-      if (addHostToGroup(hostName, group)) {
-        context.setHint(Hints.CREATE_CLUSTER);
-        message = String.format("%s has been added to %s", hostName, group);
+    if (hosts != null || regex != null || file != null) {
+      message = assignAll(group, hosts, regex, file);
+    } else if (host == null) {
+      message = "No host specified";
+    } else {
+      String hostName = host.getName();
+      if (client.getHostNames().keySet().contains(hostName)) {
+        if (!hostGroups.hasGroup(group)) {
+          message = String.format("%s is not a valid host group", group);
+        } else if (hostGroups.assign(hostName, group)) {
+          context.setHint(Hints.CREATE_CLUSTER);
+          message = String.format("%s has been added to %s", hostName, group);
+        } else {
+          message = String.format("%s is already assigned to %s", hostName, group);
+        }
       } else {
-        message = String.format("%s is not a valid host group", group);
+        message = String.format("%s is not a valid hostname", hostName);
       }
-    } else {
-      message = String.format("%s is not a valid hostname", hostName);
     }
     return message;
   }
@@ -145,15 +185,30 @@ public class ClusterCommands implements CommandMarker {
   }
 
   /**
-   * Tries to auto associate hosts to host groups.
+   * Tries to auto associate hosts to host groups. By default the assignments are recommended
+   * by the Ambari client, the balanced strategy plans them in the shell based on the resources
+   * and racks of the hosts and the cardinality of the host groups.
    *
+   * @param balanced    plans the assignments in the shell
+   * @param cardinality comma separated host group - cardinality pairs, implies balanced
+   * @param resources   file containing the resources of the hosts, implies balanced
    * @return prints the auto assignments
    */
   @CliCommand(value = "cluster autoAssign", help = "Automatically assigns hosts to different host groups base on the provided strategy")
-  public String autoAssign() throws InvalidHostGroupHostAssociation {
+  public String autoAssign(
+    @CliOption(key = "balanced", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Balances the hosts between the host groups by their resources and racks") boolean balanced,
+    @CliOption(key = "cardinality", mandatory = false,
+      help = "Number of hosts of the host groups, e.g. master=1,zookeeper=3,slave=5+ (default: 1+)") String cardinality,
+    @CliOption(key = "hostResources", mandatory = false,
+      help = "File containing a host per line: name cores=8 memory=<kB> disks=4 rack=/rack1") File resources)
+    throws InvalidHostGroupHostAssociation {
+    if (balanced || cardinality != null || resources != null) {
+      return planAssignments(cardinality, resources);
+    }
     Map<String, List<String>> assignments = client.recommendAssignments(context.getFocusValue());
     if (!assignments.isEmpty()) {
-      hostGroups = assignments;
+      hostGroups = HostGroupAssignments.from(assignments);
       context.setHint(Hints.CREATE_CLUSTER);
     }
     return showAssignments();
@@ -176,7 +231,7 @@ public class ClusterCommands implements CommandMarker {
    */
   @CliCommand(value = "cluster preview", help = "Shows the currently assigned hosts")
   public String showAssignments() {
-    return renderMultiValueMap(hostGroups, "HOSTGROUP", "HOST");
+    return renderMultiValueMap(hostGroups.toMap(), "HOSTGROUP", "HOST");
   }
 
   /**
@@ -201,7 +256,7 @@ public class ClusterCommands implements CommandMarker {
     String message = "Successfully created the cluster";
     String blueprint = context.getFocusValue();
     try {
-      client.createCluster(blueprint, blueprint, hostGroups);
+      client.createCluster(blueprint, blueprint, hostGroups.toMap());
       context.setCluster(blueprint);
       context.resetFocus();
       context.setHint(Hints.PROGRESS);
@@ -260,37 +315,169 @@ public class ClusterCommands implements CommandMarker {
     createNewHostGroups();
   }
 
-  private void deleteCluster(String id) throws HttpResponseException {
-    client.deleteCluster(id);
+  private String assignAll(String group, String hosts, String regex, File file) {
+    if (!hostGroups.hasGroup(group)) {
+      return String.format("%s is not a valid host group", group);
+    }
+    Map<String, String> result;
+    try {
+      List<String> expressions = new ArrayList<String>();
+      if (hosts != null) {
+        for (String expression : hosts.split(",")) {
+          expressions.add(expression.trim());
+        }
+      }
+      if (file != null) {
+        for (String line : FileUtils.readLines(file)) {
+          String expression = line.trim();
+          if (!expression.isEmpty() && !expression.startsWith("#")) {
+            expressions.add(expression);
+          }
+        }
+      }
+      result = selectHosts(client.getHostNames().keySet(), expressions,
+        regex == null ? null : Pattern.compile(regex), group);
+    } catch (IOException e) {
+      return "Cannot read the host file: " + e.getMessage();
+    } catch (PatternSyntaxException e) {
+      return "Invalid host regex: " + e.getDescription();
+    } catch (IllegalArgumentException e) {
+      return "Invalid host expression: " + e.getMessage();
+    }
+    int accepted = 0;
+    for (Map.Entry<String, String> entry : result.entrySet()) {
+      if (ACCEPTED.equals(entry.getValue())) {
+        hostGroups.assign(entry.getKey(), group);
+        accepted++;
+      }
+    }
+    if (accepted > 0) {
+      context.setHint(Hints.CREATE_CLUSTER);
+    }
+    return String.format("%d host(s) have been added to %s, %d rejected\n%s",
+      accepted, group, result.size() - accepted, renderSingleMap(result, "HOST", "RESULT"));
   }
 
-  private void createNewHostGroups() {
-    Map<String, List<String>> groups = new HashMap<String, List<String>>();
-    for (String hostGroup : client.getHostGroups(context.getFocusValue())) {
-      groups.put(hostGroup, new ArrayList<String>());
+  private Map<String, String> selectHosts(Set<String> knownHosts, List<String> expressions, Pattern regex,
+    String group) {
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    for (String expression : expressions) {
+      for (String name : HostPatterns.expand(expression)) {
+        if (HostPatterns.isGlob(name)) {
+          Set<String> matches = match(knownHosts, HostPatterns.globToPattern(name));
+          if (matches.isEmpty()) {
+            result.put(name, NO_MATCH);
+          }
+          addSelected(result, matches, group);
+        } else if (knownHosts.contains(name)) {
+          addSelected(result, singleton(name), group);
+        } else {
+          result.put(name, UNKNOWN_HOST);
+        }
+      }
     }
-    this.hostGroups = groups;
+    if (regex != null) {
+      Set<String> matches = match(knownHosts, regex);
+      if (matches.isEmpty()) {
+        result.put(regex.pattern(), NO_MATCH);
+      }
+      addSelected(result, matches, group);
+    }
+    return result;
   }
 
-  private boolean addHostToGroup(String host, String group) {
-    boolean result = true;
-    List<String> hosts = hostGroups.get(group);
-    if (hosts == null) {
-      result = false;
+  private Set<String> match(Set<String> knownHosts, Pattern pattern) {
+    Set<String> matches = new TreeSet<String>();
+    for (String host : knownHosts) {
+      if (pattern.matcher(host).matches()) {
+        matches.add(host);
+      }
+    }
+    return matches;
+  }
+
+  private void addSelected(Map<String, String> result, Set<String> hosts, String group) {
+    for (String host : hosts) {
+      if (!result.containsKey(host)) {
+        result.put(host, hostGroups.isAssigned(host, group) ? ALREADY_ASSIGNED : ACCEPTED);
+      }
+    }
+  }
+
+  private String planAssignments(String cardinality, File resources) {
+    Map<String, List<String>> assignments;
+    int hosts;
+    try {
+      AssignmentPlanner planner = new AssignmentPlanner(client.getBlueprintMap(context.getFocusValue()),
+        cardinality == null ? new HashMap<String, Cardinality>() : Cardinality.parseAll(cardinality));
+      Collection<HostResources> hostResources = collectHostResources(resources);
+      hosts = hostResources.size();
+      assignments = planner.plan(hostResources);
+    } catch (IOException e) {
+      return "Cannot read the host resources: " + e.getMessage();
+    } catch (IllegalArgumentException e) {
+      return "Cannot plan the assignments: " + e.getMessage();
+    }
+    hostGroups = HostGroupAssignments.from(assignments);
+    int assigned = hostGroups.size();
+    context.setHint(Hints.CREATE_CLUSTER);
+    String message = showAssignments();
+    return assigned < hosts ? String.format("%s\n%d host(s) left unassigned", message, hosts - assigned) : message;
+  }
+
+  /**
+   * Resources of the hosts known by the server. They're read from the file or queried from the
+   * server, the hosts without resources or the hosts of a snapshot are handled as equal.
+   */
+  private Collection<HostResources> collectHostResources(File file) throws IOException {
+    Map<String, HostResources> known;
+    if (file != null) {
+      known = AssignmentPlanner.readResources(file);
+    } else if (CachingAmbariClient.getSnapshot(client) != null) {
+      known = new HashMap<String, HostResources>();
     } else {
-      hosts.add(host);
+      known = queryHostResources();
+    }
+    List<HostResources> result = new ArrayList<HostResources>();
+    for (String host : new TreeSet<String>(client.getHostNames().keySet())) {
+      HostResources resources = known.get(host);
+      result.add(resources == null ? new HostResources(host, 1, 0, 1, null) : resources);
     }
     return result;
   }
 
-  private boolean isHostAssigned() {
-    boolean result = false;
-    for (String group : hostGroups.keySet()) {
-      if (!hostGroups.get(group).isEmpty()) {
-        result = true;
-        break;
-      }
+  private Map<String, HostResources> queryHostResources() throws IOException {
+    Map<String, HostResources> result = new HashMap<String, HostResources>();
+    Iterator<String[]> rows = new ResourceQuery(client, "hosts")
+      .field("Hosts/host_name", "HOSTNAME")
+      .field("Hosts/cpu_count", "CPU_COUNT")
+      .field("Hosts/total_mem", "TOTAL_MEM")
+      .field("Hosts/rack_info", "RACK_INFO")
+      .rows();
+    while (rows.hasNext()) {
+      String[] row = rows.next();
+      result.put(row[0], new HostResources(row[0], (int) parseLong(row[1], 1), parseLong(row[2], 0), 1, row[3]));
     }
     return result;
   }
+
+  private long parseLong(String value, long defaultValue) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private void deleteCluster(String id) throws HttpResponseException {
+    client.deleteCluster(id);
+  }
+
+  private void createNewHostGroups() {
+    this.hostGroups = new HostGroupAssignments(client.getHostGroups(context.getFocusValue()));
+  }
+
+  private boolean isHostAssigned() {
+    return !hostGroups.isEmpty();
+  }
 }
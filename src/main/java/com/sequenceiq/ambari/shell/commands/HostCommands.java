@@ -17,7 +17,17 @@
  */
 package com.sequenceiq.ambari.shell.commands;
 
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderMapValueMap;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderSingleMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.shell.core.CommandMarker;
@@ -28,8 +38,15 @@ import org.springframework.stereotype.Component;
 
 import com.sequenceiq.ambari.client.AmbariClient;
 import com.sequenceiq.ambari.shell.completion.Host;
+import com.sequenceiq.ambari.shell.flash.FlashService;
+import com.sequenceiq.ambari.shell.flash.TableWatcher;
 import com.sequenceiq.ambari.shell.model.AmbariContext;
 import com.sequenceiq.ambari.shell.model.FocusType;
+import com.sequenceiq.ambari.shell.support.ConnectionProfiles;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
+import com.sequenceiq.ambari.shell.support.HostPatterns;
+import com.sequenceiq.ambari.shell.support.ResourceQuery;
+import com.sequenceiq.ambari.shell.support.ShellConsole;
 
 /**
  * Host related commands used in the shell.
@@ -41,11 +58,20 @@ public class HostCommands implements CommandMarker {
 
   private AmbariClient client;
   private AmbariContext context;
+  private FanOutExecutor fanOutExecutor;
+  private FlashService flashService;
+  private ConnectionProfiles profiles;
+  private ShellConsole console;
 
   @Autowired
-  public HostCommands(AmbariClient client, AmbariContext context) {
+  public HostCommands(AmbariClient client, AmbariContext context, FanOutExecutor fanOutExecutor,
+    FlashService flashService, ConnectionProfiles profiles, ShellConsole console) {
     this.client = client;
     this.context = context;
+    this.fanOutExecutor = fanOutExecutor;
+    this.flashService = flashService;
+    this.profiles = profiles;
+    this.console = console;
   }
 
   /**
@@ -59,13 +85,45 @@ public class HostCommands implements CommandMarker {
   }
 
   /**
-   * Prints the available hosts of the Ambari Server.
+   * Prints the available hosts of the Ambari Server. The state and the fields are queried
+   * from the server, the filter is applied on the returned hosts.
    *
+   * @param filter     glob or substring the host name has to match
+   * @param state      status of the hosts to list
+   * @param fields     additional fields of the hosts to list
+   * @param allServers queries the hosts of every connection profile concurrently
    * @return host list
    */
   @CliCommand(value = "host list", help = "Lists the available hosts")
-  public String hosts() {
-    return client.showHostList();
+  public String hosts(
+    @CliOption(key = "filter", mandatory = false, help = "Lists the hosts matching the glob or substring") String filter,
+    @CliOption(key = "state", mandatory = false, help = "Lists the hosts with the given status, e.g. HEALTHY") String state,
+    @CliOption(key = "fields", mandatory = false, help = "Comma separated additional fields, e.g. Hosts/cpu_count,Hosts/os_type")
+    String fields,
+    @CliOption(key = "allServers", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Lists the hosts of every connection profile") boolean allServers) {
+    if (allServers) {
+      Map<String, FanOutExecutor.Result<Map<String, String>>> results = profiles.execute(
+        new ConnectionProfiles.ServerTask<Map<String, String>>() {
+          @Override
+          public Map<String, String> call(AmbariClient server) {
+            return server.getHostNames();
+          }
+        }, flashService.createProgress("Querying servers"));
+      return ConnectionProfiles.renderMerged(results, filter, state == null ? null : state.toUpperCase(),
+        "SERVER", "HOSTNAME", "STATE");
+    }
+    if (filter == null && state == null && fields == null) {
+      return client.showHostList();
+    }
+    try {
+      return new ResourceQuery(client, "hosts")
+        .field("Hosts/host_name", "HOSTNAME").field("Hosts/host_status", "STATE").fields(fields)
+        .where("Hosts/host_status", state == null ? null : state.toUpperCase())
+        .render(console, 0, filter, 0);
+    } catch (IOException e) {
+      return "Cannot query the Ambari Server: " + e.getMessage();
+    }
   }
 
   /**
@@ -105,16 +163,90 @@ public class HostCommands implements CommandMarker {
    */
   @CliAvailabilityIndicator("host components")
   public boolean isHostComponentsCommandAvailable() {
-    return context.isFocusOnHost();
+    return context.isFocusOnHost() || context.isConnectedToCluster();
   }
 
   /**
-   * Prints the components which belongs to the host being focused on.
+   * Prints the components which belongs to the host being focused on. With the all or
+   * hosts options the components of many hosts are queried in parallel and merged into one table.
    *
+   * @param all   query every host of the cluster
+   * @param hosts comma separated host names, globs or ranges to query
+   * @param watch polls the components with the given interval in seconds and prints the changes, 0 disables it
    * @return list of host components
    */
-  @CliCommand(value = "host components", help = "Lists the components assigned to the selected host")
-  public String hostComponents() {
-    return renderSingleMap(client.getHostComponentsMap(context.getFocusValue()), "COMPONENT", "STATE");
+  @CliCommand(value = "host components", help = "Lists the components assigned to the selected host or to many hosts")
+  public String hostComponents(
+    @CliOption(key = "all", mandatory = false, specifiedDefaultValue = "true", unspecifiedDefaultValue = "false",
+      help = "Lists the components of every host") boolean all,
+    @CliOption(key = "hosts", mandatory = false,
+      help = "Comma separated host names, globs (dn*.example.com) or ranges (dn[001-500].example.com)") String hosts,
+    @CliOption(key = "watch", mandatory = false, specifiedDefaultValue = "5", unspecifiedDefaultValue = "0",
+      help = "Polls the components with the given interval in seconds and prints the changes until a key is pressed")
+    int watch) {
+    String message;
+    if (all || hosts != null) {
+      Collection<String> knownHosts = client.getHostNames().keySet();
+      try {
+        Collection<String> selected = all ? HostPatterns.select(knownHosts, "*") : HostPatterns.select(knownHosts, hosts);
+        message = watch > 0 ? watchComponents(selected, watch) : renderComponents(selected);
+      } catch (IllegalArgumentException e) {
+        message = "Invalid host expression: " + e.getMessage();
+      }
+    } else if (context.isFocusOnHost() && watch > 0) {
+      message = watchComponents(singletonList(context.getFocusValue()), watch);
+    } else if (context.isFocusOnHost()) {
+      message = renderSingleMap(client.getHostComponentsMap(context.getFocusValue()), "COMPONENT", "STATE");
+    } else {
+      message = "Focus on a host or use the --all or --hosts options";
+    }
+    return message;
+  }
+
+  private String renderComponents(Collection<String> hosts) {
+    Map<String, FanOutExecutor.Result<Map<String, String>>> results = queryComponents(hosts);
+    Map<String, Map<String, String>> rows = new LinkedHashMap<String, Map<String, String>>(results.size());
+    int failed = 0;
+    for (Map.Entry<String, FanOutExecutor.Result<Map<String, String>>> entry : results.entrySet()) {
+      FanOutExecutor.Result<Map<String, String>> result = entry.getValue();
+      if (result.isSuccess()) {
+        rows.put(entry.getKey(), result.getValue());
+      } else {
+        rows.put(entry.getKey(), singletonMap("-", "FAILED: " + result.getError()));
+        failed++;
+      }
+    }
+    return String.format("%d host(s) queried, %d failed\n%s",
+      results.size(), failed, renderMapValueMap(rows, "HOST", "COMPONENT", "STATE"));
+  }
+
+  /**
+   * Hosts which cannot be queried are left out of the poll, their components show up as removed.
+   */
+  private String watchComponents(final Collection<String> hosts, int interval) {
+    return flashService.createWatcher(interval).watch("Watching host components", new TableWatcher.Source() {
+      @Override
+      public List<String[]> poll() {
+        List<String[]> rows = new ArrayList<String[]>();
+        for (Map.Entry<String, FanOutExecutor.Result<Map<String, String>>> entry : queryComponents(hosts).entrySet()) {
+          if (entry.getValue().isSuccess()) {
+            for (Map.Entry<String, String> component : entry.getValue().getValue().entrySet()) {
+              rows.add(new String[]{entry.getKey(), component.getKey(), component.getValue()});
+            }
+          }
+        }
+        return rows;
+      }
+    }, "HOST", "COMPONENT", "STATE");
+  }
+
+  private Map<String, FanOutExecutor.Result<Map<String, String>>> queryComponents(Collection<String> hosts) {
+    return fanOutExecutor.execute(hosts,
+      new FanOutExecutor.Task<Map<String, String>>() {
+        @Override
+        public Map<String, String> call(String host) {
+          return client.getHostComponentsMap(host);
+        }
+      }, flashService.createProgress("Querying host components"));
   }
 }
@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.commands;
+
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderRows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.shell.core.CommandMarker;
+import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
+import org.springframework.shell.core.annotation.CliCommand;
+import org.springframework.shell.core.annotation.CliOption;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.ambari.shell.support.JobScheduler;
+
+/**
+ * Commands to list and cancel the background jobs, e.g. the followed operations.
+ *
+ * @see com.sequenceiq.ambari.shell.support.JobScheduler
+ */
+@Component
+public class JobCommands implements CommandMarker {
+
+  private static final long SECONDS_IN_MINUTE = 60;
+
+  private JobScheduler jobScheduler;
+
+  @Autowired
+  public JobCommands(JobScheduler jobScheduler) {
+    this.jobScheduler = jobScheduler;
+  }
+
+  /**
+   * Checks whether the jobs command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("jobs")
+  public boolean isJobsCommandAvailable() {
+    return true;
+  }
+
+  /**
+   * Lists the running and queued background jobs with their runtime.
+   *
+   * @return job counts and the formatted job table
+   */
+  @CliCommand(value = "jobs", help = "Lists the running and queued background jobs")
+  public String jobs() {
+    List<String[]> rows = new ArrayList<String[]>();
+    int running = 0;
+    for (JobScheduler.Job job : jobScheduler.getJobs()) {
+      if (job.isRunning()) {
+        running++;
+      }
+      long seconds = job.getRuntime() / 1000;
+      rows.add(new String[]{String.valueOf(job.getId()), job.getName(), job.isRunning() ? "RUNNING" : "QUEUED",
+        String.format("%dm %02ds", seconds / SECONDS_IN_MINUTE, seconds % SECONDS_IN_MINUTE)});
+    }
+    return String.format("%d running, %d queued, %d finished, %d cancelled, %d rejected\n%s",
+      running, rows.size() - running, jobScheduler.getFinished(), jobScheduler.getCancelled(),
+      jobScheduler.getRejected(), renderRows(rows, "ID", "JOB", "STATE", "RUNTIME"));
+  }
+
+  /**
+   * Checks whether the jobs cancel command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("jobs cancel")
+  public boolean isJobsCancelCommandAvailable() {
+    return !jobScheduler.getJobs().isEmpty();
+  }
+
+  /**
+   * Cancels a running or queued job. Cancelling a followed operation only stops following
+   * it, the request keeps running on the Ambari Server.
+   *
+   * @param id id of the job
+   * @return status message
+   */
+  @CliCommand(value = "jobs cancel", help = "Cancels a background job")
+  public String cancel(
+    @CliOption(key = "id", mandatory = true, help = "Id of the job, use 'jobs' command to see the list") int id) {
+    if (jobScheduler.cancel(id)) {
+      return String.format("Job %d has been cancelled", id);
+    }
+    return String.format("%d is not a valid job id", id);
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.commands;
+
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderRows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.shell.core.CommandMarker;
+import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
+import org.springframework.shell.core.annotation.CliCommand;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.ambari.shell.metrics.LatencyHistogram;
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
+import com.sequenceiq.ambari.shell.metrics.OperationStats;
+
+/**
+ * Commands to inspect the latency of the shell commands and REST calls.
+ *
+ * @see com.sequenceiq.ambari.shell.metrics.MetricsRegistry
+ */
+@Component
+public class MetricsCommands implements CommandMarker {
+
+  private MetricsRegistry registry;
+
+  @Autowired
+  public MetricsCommands(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Checks whether the metrics show command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("metrics show")
+  public boolean isMetricsShowCommandAvailable() {
+    return true;
+  }
+
+  /**
+   * Prints the count, latency percentiles, bytes and errors of the commands and REST endpoints.
+   *
+   * @return metrics as formatted tables
+   */
+  @CliCommand(value = "metrics show", help = "Shows the latency of the commands and REST calls")
+  public String show() {
+    return String.format("%s\n%s",
+      render(registry.getStats(MetricsRegistry.COMMANDS), "COMMAND"),
+      render(registry.getStats(MetricsRegistry.ENDPOINTS), "ENDPOINT"));
+  }
+
+  /**
+   * Checks whether the metrics reset command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("metrics reset")
+  public boolean isMetricsResetCommandAvailable() {
+    return true;
+  }
+
+  /**
+   * Drops every recorded metric.
+   *
+   * @return status message
+   */
+  @CliCommand(value = "metrics reset", help = "Drops the recorded metrics")
+  public String reset() {
+    registry.reset();
+    return "Metrics have been reset";
+  }
+
+  private String render(Map<String, OperationStats> stats, String name) {
+    List<String[]> rows = new ArrayList<String[]>(stats.size());
+    for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+      OperationStats operation = entry.getValue();
+      LatencyHistogram latency = operation.getLatency();
+      rows.add(new String[]{entry.getKey(), String.valueOf(operation.getCount()),
+        formatMillis(latency.getPercentile(50)), formatMillis(latency.getPercentile(95)),
+        formatMillis(latency.getPercentile(99)), formatMillis(latency.getMax()),
+        String.valueOf(operation.getBytes()), String.valueOf(operation.getErrors())});
+    }
+    return renderRows(rows, name, "COUNT", "P50 MS", "P95 MS", "P99 MS", "MAX MS", "BYTES", "ERRORS");
+  }
+
+  private String formatMillis(long nanos) {
+    return String.format("%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+}
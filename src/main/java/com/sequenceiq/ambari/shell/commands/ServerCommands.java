@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.commands;
+
+import static com.sequenceiq.ambari.shell.support.TableRenderer.renderRows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.shell.core.CommandMarker;
+import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
+import org.springframework.shell.core.annotation.CliCommand;
+import org.springframework.shell.core.annotation.CliOption;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.model.AmbariContext;
+import com.sequenceiq.ambari.shell.model.ConnectionProfile;
+import com.sequenceiq.ambari.shell.support.ConnectionProfiles;
+import com.sequenceiq.ambari.shell.support.JobScheduler;
+import com.sequenceiq.ambari.shell.support.ShellConsole;
+import com.sequenceiq.ambari.shell.support.StartupProbe;
+
+/**
+ * Commands to manage the connection profiles and to switch between Ambari Servers.
+ *
+ * @see com.sequenceiq.ambari.shell.support.ConnectionProfiles
+ */
+@Component
+public class ServerCommands implements CommandMarker {
+
+  private AmbariClient client;
+  private AmbariContext context;
+  private ConnectionProfiles profiles;
+  private ShellConsole console;
+  private JobScheduler jobScheduler;
+
+  @Value("${ambari.connect.timeout:30}")
+  private long connectTimeout;
+
+  @Autowired
+  public ServerCommands(AmbariClient client, AmbariContext context, ConnectionProfiles profiles,
+    ShellConsole console, JobScheduler jobScheduler) {
+    this.client = client;
+    this.context = context;
+    this.profiles = profiles;
+    this.console = console;
+    this.jobScheduler = jobScheduler;
+  }
+
+  /**
+   * Checks whether the server list command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("server list")
+  public boolean isServerListCommandAvailable() {
+    return true;
+  }
+
+  /**
+   * Prints the connection profiles, the active one is marked.
+   *
+   * @return profile list
+   */
+  @CliCommand(value = "server list", help = "Lists the connection profiles")
+  public String list() {
+    String active = profiles.getActive();
+    List<String[]> rows = new ArrayList<String[]>();
+    for (ConnectionProfile profile : profiles.getProfiles()) {
+      rows.add(new String[]{profile.getName(), profile.getHost() + ":" + profile.getPort(), profile.getUser(),
+        profile.getName().equals(active) ? "*" : ""});
+    }
+    return renderRows(rows, "PROFILE", "SERVER", "USER", "ACTIVE");
+  }
+
+  /**
+   * Checks whether the server add command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("server add")
+  public boolean isServerAddCommandAvailable() {
+    return true;
+  }
+
+  /**
+   * Adds a connection profile or replaces the one with the same name. The password is not an
+   * option, otherwise it would be written to the history file. It's asked for on the terminal,
+   * without a terminal the profile has to be added to the --ambari.profiles file instead.
+   *
+   * @param name name of the profile
+   * @param host host of the Ambari Server
+   * @param port port of the Ambari Server
+   * @param user user of the Ambari Server
+   * @return status message
+   */
+  @CliCommand(value = "server add", help = "Adds a connection profile")
+  public String add(
+    @CliOption(key = "name", mandatory = true, help = "Name of the profile") String name,
+    @CliOption(key = "host", mandatory = true, help = "Hostname of the Ambari Server") String host,
+    @CliOption(key = "port", mandatory = false, unspecifiedDefaultValue = "8080", help = "Port of the Ambari Server")
+    String port,
+    @CliOption(key = "user", mandatory = false, unspecifiedDefaultValue = "admin", help = "Username of the Ambari admin")
+    String user) {
+    String password;
+    try {
+      password = console.readSecret(String.format("Password of %s@%s: ", user, host));
+    } catch (IOException e) {
+      return "Cannot read the password: " + e.getMessage();
+    }
+    if (password == null || password.isEmpty()) {
+      return "A password is required, enter it on the terminal or add the profile to the --ambari.profiles file";
+    }
+    try {
+      profiles.add(new ConnectionProfile(name, host, port, user, password));
+      return "Profile added: " + name;
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Checks whether the server remove command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("server remove")
+  public boolean isServerRemoveCommandAvailable() {
+    return profiles.getProfiles().size() > 1;
+  }
+
+  /**
+   * Removes a connection profile.
+   *
+   * @param name name of the profile
+   * @return status message
+   */
+  @CliCommand(value = "server remove", help = "Removes a connection profile")
+  public String remove(@CliOption(key = "name", mandatory = true, help = "Name of the profile") String name) {
+    try {
+      return profiles.remove(name) ? "Profile removed: " + name : "Unknown profile: " + name;
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Checks whether the server use command is available or not. The background jobs follow
+   * requests of the active server through the shared client, so it can't be switched under them.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("server use")
+  public boolean isServerUseCommandAvailable() {
+    return profiles.getProfiles().size() > 1 && !context.isOffline() && jobScheduler.getJobs().isEmpty();
+  }
+
+  /**
+   * Switches to the server of the profile. The focus and the cached metadata are dropped,
+   * the cluster of the server is looked up in the background.
+   *
+   * @param name name of the profile
+   * @return status message
+   */
+  @CliCommand(value = "server use", help = "Switches to the Ambari Server of the connection profile")
+  public String use(@CliOption(key = "name", mandatory = true, help = "Name of the profile") String name) {
+    try {
+      profiles.use(name);
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    }
+    context.resetFocus();
+    context.setCluster(null);
+    context.setBlueprintsAvailable(false);
+    new StartupProbe(client, context, TimeUnit.SECONDS.toMillis(connectTimeout)).start();
+    ConnectionProfile profile = profiles.get(name);
+    return String.format("Switched to %s (%s:%s)", name, profile.getHost(), profile.getPort());
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.shell.core.CommandMarker;
+import org.springframework.shell.core.annotation.CliAvailabilityIndicator;
+import org.springframework.shell.core.annotation.CliCommand;
+import org.springframework.shell.core.annotation.CliOption;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.cache.CachingAmbariClient;
+import com.sequenceiq.ambari.shell.cache.ClusterSnapshot;
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+import com.sequenceiq.ambari.shell.flash.FlashService;
+import com.sequenceiq.ambari.shell.model.AmbariContext;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
+import com.sequenceiq.ambari.shell.support.JobScheduler;
+import com.sequenceiq.ambari.shell.support.StartupProbe;
+
+/**
+ * Commands to save the cluster state to a file and to answer the read commands from it.
+ *
+ * @see com.sequenceiq.ambari.shell.cache.ClusterSnapshot
+ */
+@Component
+public class SnapshotCommands implements CommandMarker {
+
+  private AmbariClient client;
+  private AmbariContext context;
+  private TaskTracker taskTracker;
+  private FanOutExecutor fanOutExecutor;
+  private FlashService flashService;
+  private ObjectMapper jsonMapper;
+  private JobScheduler jobScheduler;
+
+  @Value("${ambari.connect.timeout:30}")
+  private long connectTimeout;
+
+  @Autowired
+  public SnapshotCommands(AmbariClient client, AmbariContext context, TaskTracker taskTracker,
+    FanOutExecutor fanOutExecutor, FlashService flashService, ObjectMapper jsonMapper, JobScheduler jobScheduler) {
+    this.client = client;
+    this.context = context;
+    this.taskTracker = taskTracker;
+    this.fanOutExecutor = fanOutExecutor;
+    this.flashService = flashService;
+    this.jsonMapper = jsonMapper;
+    this.jobScheduler = jobScheduler;
+  }
+
+  /**
+   * Checks whether the snapshot save command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("snapshot save")
+  public boolean isSnapshotSaveCommandAvailable() {
+    return !context.isOffline() && !context.isConnecting();
+  }
+
+  /**
+   * Queries the cluster state in parallel and saves it as gzip compressed json.
+   *
+   * @param file     where to save the snapshot
+   * @param requests number of the latest requests whose tasks are saved
+   * @return status message
+   */
+  @CliCommand(value = "snapshot save", help = "Saves the hosts, services, components, blueprints and tasks to a file")
+  public String save(
+    @CliOption(key = "file", mandatory = true, help = "File to save the snapshot to") File file,
+    @CliOption(key = "requests", mandatory = false, unspecifiedDefaultValue = "10",
+      help = "Number of the latest requests whose tasks are saved") int requests) {
+    try {
+      ClusterSnapshot snapshot = ClusterSnapshot.capture(client, taskTracker, fanOutExecutor,
+        flashService.createProgress("Saving snapshot"), requests);
+      snapshot.write(file, jsonMapper);
+      return String.format("Snapshot saved to %s: %d hosts, %d services, %d blueprints, %d requests (%d KB)",
+        file, snapshot.getHosts().size(), snapshot.getServices().size(), snapshot.getBlueprints().size(),
+        snapshot.getTasks().size(), file.length() / 1024);
+    } catch (IOException e) {
+      return "Cannot save the snapshot: " + e.getMessage();
+    }
+  }
+
+  /**
+   * Checks whether the snapshot load command is available or not. The background jobs would
+   * follow their requests in the snapshot instead of the server, so they have to finish first.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("snapshot load")
+  public boolean isSnapshotLoadCommandAvailable() {
+    return client instanceof CachingAmbariClient && jobScheduler.getJobs().isEmpty();
+  }
+
+  /**
+   * Loads a snapshot, the read commands are answered from it until it's unloaded.
+   *
+   * @param file file of the snapshot
+   * @return status message
+   */
+  @CliCommand(value = "snapshot load", help = "Answers the read commands from the snapshot instead of the Ambari Server")
+  public String load(@CliOption(key = "file", mandatory = true, help = "File of the snapshot") File file) {
+    ClusterSnapshot snapshot;
+    try {
+      snapshot = ClusterSnapshot.read(file, jsonMapper);
+    } catch (IOException e) {
+      return "Cannot load the snapshot: " + e.getMessage();
+    }
+    ((CachingAmbariClient) client).setSnapshot(snapshot);
+    context.setOffline(true);
+    context.resetFocus();
+    context.setCluster(snapshot.getCluster());
+    context.setBlueprintsAvailable(!snapshot.getBlueprints().isEmpty());
+    return String.format("Snapshot of %s taken at %s loaded, use snapshot unload to go back to the server",
+      snapshot.getServer(), new Date(snapshot.getCreated()));
+  }
+
+  /**
+   * Checks whether the snapshot unload command is available or not.
+   *
+   * @return true if available false otherwise
+   */
+  @CliAvailabilityIndicator("snapshot unload")
+  public boolean isSnapshotUnloadCommandAvailable() {
+    return context.isOffline();
+  }
+
+  /**
+   * Unloads the snapshot, the commands go to the Ambari Server again.
+   *
+   * @return status message
+   */
+  @CliCommand(value = "snapshot unload", help = "Sends the commands to the Ambari Server again")
+  public String unload() {
+    ((CachingAmbariClient) client).setSnapshot(null);
+    context.setOffline(false);
+    context.resetFocus();
+    context.setCluster(null);
+    new StartupProbe(client, context, TimeUnit.SECONDS.toMillis(connectTimeout)).start();
+    return "Snapshot unloaded";
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, sorted index of host names used for prefix lookups during completion.
+ * Lookups are binary searches, so they don't depend on the number of hosts, only
+ * on the number of requested matches.
+ */
+public final class HostNameIndex {
+
+  private final String[] names;
+
+  public HostNameIndex(Collection<String> hostNames) {
+    this.names = hostNames.toArray(new String[hostNames.size()]);
+    Arrays.sort(this.names);
+  }
+
+  /**
+   * Returns the host names starting with the given prefix in sorted order.
+   *
+   * @param prefix typed text, null or empty matches every host
+   * @param limit  maximum number of returned names
+   * @return matching host names, at most limit
+   */
+  public List<String> find(String prefix, int limit) {
+    int from = lowerBound(prefix);
+    int to = Math.min(upperBound(prefix), from + limit);
+    if (from >= to) {
+      return Collections.emptyList();
+    }
+    List<String> result = new ArrayList<String>(to - from);
+    for (int i = from; i < to; i++) {
+      result.add(names[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of host names starting with the given prefix.
+   *
+   * @param prefix typed text, null or empty matches every host
+   * @return number of matching host names
+   */
+  public int count(String prefix) {
+    return upperBound(prefix) - lowerBound(prefix);
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+  private int lowerBound(String prefix) {
+    if (prefix == null || prefix.isEmpty()) {
+      return 0;
+    }
+    int index = Arrays.binarySearch(names, prefix);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  private int upperBound(String prefix) {
+    if (prefix == null || prefix.isEmpty()) {
+      return names.length;
+    }
+    int index = Arrays.binarySearch(names, prefix + Character.MAX_VALUE);
+    return index < 0 ? -index - 1 : index;
+  }
+}
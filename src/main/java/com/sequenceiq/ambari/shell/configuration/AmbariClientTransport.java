@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.configuration;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.metrics.HttpMetricsInterceptor;
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
+
+import groovyx.net.http.RESTClient;
+
+/**
+ * Configures the HTTP transport of the Ambari client. By default the underlying
+ * REST client uses a single connection, which cannot serve concurrent requests.
+ */
+public final class AmbariClientTransport {
+
+  private AmbariClientTransport() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * Replaces the single connection of the client with a thread safe connection pool,
+   * so the same client can be used by parallel requests. The pooled connections are
+   * kept alive between the requests, which saves the TCP and TLS handshakes, and the
+   * responses are gzip compressed if the settings ask for it.
+   *
+   * @param client   client to configure
+   * @param settings settings of the transport
+   */
+  public static void configure(AmbariClient client, HttpSettings settings) {
+    RESTClient rest = client.getAmbari();
+    AbstractHttpClient current = rest.getClient();
+    HttpParams params = current.getParams();
+    HttpConnectionParams.setConnectionTimeout(params, (int) settings.getConnectTimeout());
+    HttpConnectionParams.setSoTimeout(params, (int) settings.getReadTimeout());
+    HttpConnectionParams.setTcpNoDelay(params, true);
+    PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+    connectionManager.setMaxTotal(settings.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(settings.getMaxConnections());
+    DefaultHttpClient pooled = new DefaultHttpClient(connectionManager, params);
+    if (settings.getKeepAlive() > 0) {
+      pooled.setKeepAliveStrategy(new KeepAliveStrategy(settings.getKeepAlive()));
+    } else {
+      pooled.setReuseStrategy(new NoConnectionReuseStrategy());
+    }
+    if (settings.isGzip()) {
+      pooled.addRequestInterceptor(new RequestAcceptEncoding());
+      pooled.addResponseInterceptor(new ResponseContentEncoding());
+    }
+    rest.setClient(pooled);
+    current.getConnectionManager().shutdown();
+  }
+
+  /**
+   * Records every REST call of the client in the registry.
+   *
+   * @param client   client to instrument
+   * @param registry where to record the calls
+   */
+  public static void instrument(AmbariClient client, MetricsRegistry registry) {
+    AbstractHttpClient httpClient = client.getAmbari().getClient();
+    HttpMetricsInterceptor interceptor = new HttpMetricsInterceptor(registry);
+    httpClient.addRequestInterceptor(interceptor);
+    httpClient.addResponseInterceptor(interceptor);
+  }
+
+  /**
+   * Keeps the idle connections for the configured time, or shorter if the server asks for it.
+   */
+  static final class KeepAliveStrategy extends DefaultConnectionKeepAliveStrategy {
+
+    private final long keepAlive;
+
+    KeepAliveStrategy(long keepAlive) {
+      this.keepAlive = keepAlive;
+    }
+
+    @Override
+    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+      long duration = super.getKeepAliveDuration(response, context);
+      return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+    }
+  }
+}
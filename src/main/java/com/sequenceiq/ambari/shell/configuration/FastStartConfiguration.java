@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.configuration;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.shell.converters.AvailableCommandsConverter;
+import org.springframework.shell.converters.BigDecimalConverter;
+import org.springframework.shell.converters.BigIntegerConverter;
+import org.springframework.shell.converters.BooleanConverter;
+import org.springframework.shell.converters.CharacterConverter;
+import org.springframework.shell.converters.DateConverter;
+import org.springframework.shell.converters.DoubleConverter;
+import org.springframework.shell.converters.EnumConverter;
+import org.springframework.shell.converters.FloatConverter;
+import org.springframework.shell.converters.IntegerConverter;
+import org.springframework.shell.converters.LocaleConverter;
+import org.springframework.shell.converters.LongConverter;
+import org.springframework.shell.converters.ShortConverter;
+import org.springframework.shell.converters.SimpleFileConverter;
+import org.springframework.shell.converters.StaticFieldConverterImpl;
+import org.springframework.shell.converters.StringConverter;
+import org.springframework.shell.core.Converter;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.AmbariShell;
+import com.sequenceiq.ambari.shell.commands.BasicCommands;
+import com.sequenceiq.ambari.shell.commands.BlueprintCommands;
+import com.sequenceiq.ambari.shell.commands.CacheCommands;
+import com.sequenceiq.ambari.shell.commands.ClusterCommands;
+import com.sequenceiq.ambari.shell.commands.ElephantCommand;
+import com.sequenceiq.ambari.shell.commands.HostCommands;
+import com.sequenceiq.ambari.shell.commands.JobCommands;
+import com.sequenceiq.ambari.shell.commands.MetricsCommands;
+import com.sequenceiq.ambari.shell.commands.ServerCommands;
+import com.sequenceiq.ambari.shell.commands.SnapshotCommands;
+import com.sequenceiq.ambari.shell.completion.Blueprint;
+import com.sequenceiq.ambari.shell.completion.Host;
+import com.sequenceiq.ambari.shell.converter.BlueprintConverter;
+import com.sequenceiq.ambari.shell.converter.HostConverter;
+import com.sequenceiq.ambari.shell.converter.LazyConverterChain;
+import com.sequenceiq.ambari.shell.customization.AmbariBanner;
+import com.sequenceiq.ambari.shell.customization.AmbariHistory;
+import com.sequenceiq.ambari.shell.customization.AmbariPrompt;
+import com.sequenceiq.ambari.shell.flash.FlashService;
+import com.sequenceiq.ambari.shell.model.AmbariContext;
+
+/**
+ * Bean definitions of the fast start mode. Every bean is registered explicitly instead of
+ * scanning the classpath, and the converters are created on first use behind a single bean.
+ * New components have to be added to the import list as well.
+ */
+@Configuration
+@Import({ShellConfiguration.class, AmbariContext.class, FlashService.class,
+  AmbariBanner.class, AmbariHistory.class, AmbariPrompt.class,
+  BasicCommands.class, BlueprintCommands.class, CacheCommands.class, ClusterCommands.class,
+  ElephantCommand.class, HostCommands.class, JobCommands.class, MetricsCommands.class, ServerCommands.class,
+  SnapshotCommands.class})
+public class FastStartConfiguration {
+
+  @Autowired
+  private AmbariClient client;
+
+  /**
+   * Registered through a factory method, importing it would process its component scan.
+   */
+  @Bean
+  AmbariShell ambariShell() {
+    return new AmbariShell();
+  }
+
+  @Bean
+  Converter converters() {
+    return new LazyConverterChain()
+      .register(SimpleFileConverter.class, File.class)
+      .register(StringConverter.class, String.class)
+      .register(AvailableCommandsConverter.class, String.class)
+      .register(BigDecimalConverter.class, BigDecimal.class)
+      .register(BigIntegerConverter.class, BigInteger.class)
+      .register(BooleanConverter.class, Boolean.class, boolean.class)
+      .register(CharacterConverter.class, Character.class, char.class)
+      .register(DateConverter.class, Date.class)
+      .register(DoubleConverter.class, Double.class, double.class)
+      .register(EnumConverter.class, Enum.class)
+      .register(FloatConverter.class, Float.class, float.class)
+      .register(IntegerConverter.class, Integer.class, int.class)
+      .register(LocaleConverter.class, Locale.class)
+      .register(LongConverter.class, Long.class, long.class)
+      .register(ShortConverter.class, Short.class, short.class)
+      .register(StaticFieldConverterImpl.class, Object.class)
+      .register(new BlueprintConverter(client), Blueprint.class)
+      .register(new HostConverter(client), Host.class);
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.configuration;
+
+/**
+ * Settings of the HTTP transport of the Ambari clients.
+ */
+public class HttpSettings {
+
+  private final int maxConnections;
+  private final long connectTimeout;
+  private final long readTimeout;
+  private final long keepAlive;
+  private final boolean gzip;
+
+  /**
+   * @param maxConnections maximum number of pooled connections to a server
+   * @param connectTimeout timeout of opening a connection in milliseconds, 0 waits forever
+   * @param readTimeout    timeout of waiting for data in milliseconds, 0 waits forever
+   * @param keepAlive      how long an idle connection is kept for reuse in milliseconds, 0 disables the reuse
+   * @param gzip           whether to ask for gzip compressed responses
+   */
+  public HttpSettings(int maxConnections, long connectTimeout, long readTimeout, long keepAlive, boolean gzip) {
+    this.maxConnections = maxConnections;
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+    this.keepAlive = keepAlive;
+    this.gzip = gzip;
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public long getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public long getReadTimeout() {
+    return readTimeout;
+  }
+
+  public long getKeepAlive() {
+    return keepAlive;
+  }
+
+  public boolean isGzip() {
+    return gzip;
+  }
+}
@@ -17,12 +17,17 @@
  */
 package com.sequenceiq.ambari.shell.configuration;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
 import org.codehaus.jackson.map.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
-import org.springframework.scheduling.concurrent.ThreadPoolExecutorFactoryBean;
 import org.springframework.shell.CommandLine;
 import org.springframework.shell.SimpleShellCommandLineOptions;
 import org.springframework.shell.commands.ExitCommands;
@@ -30,11 +35,21 @@ import org.springframework.shell.commands.HelpCommands;
 import org.springframework.shell.commands.ScriptCommands;
 import org.springframework.shell.commands.VersionCommands;
 import org.springframework.shell.core.CommandMarker;
-import org.springframework.shell.core.JLineShellComponent;
 import org.springframework.shell.plugin.HistoryFileNameProvider;
 import org.springframework.shell.plugin.support.DefaultHistoryFileNameProvider;
 
 import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.cache.CachingAmbariClient;
+import com.sequenceiq.ambari.shell.cache.MetadataCache;
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+import com.sequenceiq.ambari.shell.flash.FlashMultiplexer;
+import com.sequenceiq.ambari.shell.metrics.InstrumentedShellComponent;
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
+import com.sequenceiq.ambari.shell.model.ConnectionProfile;
+import com.sequenceiq.ambari.shell.support.ConnectionProfiles;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
+import com.sequenceiq.ambari.shell.support.JobScheduler;
+import com.sequenceiq.ambari.shell.support.ShellConsole;
 
 /**
  * Spring bean definitions.
@@ -57,9 +72,92 @@ public class ShellConfiguration {
   @Value("${cmdfile:}")
   private String cmdFile;
 
+  @Value("${ambari.cache.ttl:30}")
+  private long cacheTtl;
+
+  @Value("${ambari.cache.size:256}")
+  private int cacheSize;
+
+  @Value("${ambari.fanout.parallelism:16}")
+  private int fanOutParallelism;
+
+  @Value("${ambari.fanout.timeout:30}")
+  private long fanOutTimeout;
+
+  @Value("${ambari.metrics.file:}")
+  private String metricsFile;
+
+  @Value("${ambari.profiles:}")
+  private String profilesFile;
+
+  @Value("${ambari.jobs.threads:4}")
+  private int jobThreads;
+
+  @Value("${ambari.jobs.queue:16}")
+  private int jobQueue;
+
+  @Value("${ambari.flash.frameRate:4}")
+  private int flashFrameRate;
+
+  @Value("${ambari.http.maxConnections:0}")
+  private int httpMaxConnections;
+
+  @Value("${ambari.http.connectTimeout:10}")
+  private long httpConnectTimeout;
+
+  @Value("${ambari.http.readTimeout:60}")
+  private long httpReadTimeout;
+
+  @Value("${ambari.http.keepAlive:60}")
+  private long httpKeepAlive;
+
+  @Value("${ambari.http.gzip:true}")
+  private boolean httpGzip;
+
+  @Bean
+  MetadataCache metadataCache() {
+    return new MetadataCache(TimeUnit.SECONDS.toMillis(cacheTtl), cacheSize);
+  }
+
   @Bean
   AmbariClient createAmbariClient() {
-    return new AmbariClient(host, port, user, password);
+    AmbariClient client = new CachingAmbariClient(host, port, user, password, metadataCache());
+    AmbariClientTransport.configure(client, httpSettings());
+    AmbariClientTransport.instrument(client, metricsRegistry());
+    return client;
+  }
+
+  @Bean
+  HttpSettings httpSettings() {
+    int maxConnections = httpMaxConnections > 0 ? httpMaxConnections : fanOutParallelism + jobThreads + 1;
+    return new HttpSettings(maxConnections, TimeUnit.SECONDS.toMillis(httpConnectTimeout),
+      TimeUnit.SECONDS.toMillis(httpReadTimeout), TimeUnit.SECONDS.toMillis(httpKeepAlive), httpGzip);
+  }
+
+  @Bean
+  TaskTracker taskTracker() {
+    return new TaskTracker(createAmbariClient(), TaskTracker.DEFAULT_MAX_REQUESTS);
+  }
+
+  @Bean
+  ConnectionProfiles connectionProfiles() throws IOException {
+    ConnectionProfiles profiles = new ConnectionProfiles(createAmbariClient(),
+      new ConnectionProfile(ConnectionProfiles.DEFAULT, host, port, user, password),
+      metadataCache(), taskTracker(), fanOutExecutor(), metricsRegistry(), httpSettings());
+    if (profilesFile.length() > 0) {
+      profiles.load(new File(profilesFile));
+    }
+    return profiles;
+  }
+
+  @Bean
+  MetricsRegistry metricsRegistry() {
+    return new MetricsRegistry();
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  FanOutExecutor fanOutExecutor() {
+    return new FanOutExecutor(fanOutParallelism, TimeUnit.SECONDS.toMillis(fanOutTimeout));
   }
 
   @Bean
@@ -73,8 +171,25 @@ public class ShellConfiguration {
   }
 
   @Bean(name = "shell")
-  JLineShellComponent shell() {
-    return new JLineShellComponent();
+  InstrumentedShellComponent shell() {
+    return new InstrumentedShellComponent(metricsRegistry());
+  }
+
+  @Bean
+  ShellConsole shellConsole() {
+    return new ShellConsole(shell());
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  FlashMultiplexer flashMultiplexer() {
+    return new FlashMultiplexer(shell(), shellConsole(), flashFrameRate);
+  }
+
+  @PreDestroy
+  void dumpMetrics() throws IOException {
+    if (metricsFile.length() > 0) {
+      metricsRegistry().writeJson(new File(metricsFile));
+    }
   }
 
   @Bean
@@ -83,9 +198,9 @@ public class ShellConfiguration {
     return SimpleShellCommandLineOptions.parseCommandLine(args);
   }
 
-  @Bean
-  ThreadPoolExecutorFactoryBean getThreadPoolExecutorFactoryBean() {
-    return new ThreadPoolExecutorFactoryBean();
+  @Bean(destroyMethod = "shutdown")
+  JobScheduler jobScheduler() {
+    return new JobScheduler(jobThreads, jobQueue);
   }
 
   @Bean
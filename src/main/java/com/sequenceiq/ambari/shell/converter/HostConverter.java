@@ -18,7 +18,7 @@
 package com.sequenceiq.ambari.shell.converter;
 
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import org.springframework.shell.core.Completion;
 import org.springframework.shell.core.Converter;
@@ -26,10 +26,15 @@ import org.springframework.shell.core.MethodTarget;
 
 import com.sequenceiq.ambari.client.AmbariClient;
 import com.sequenceiq.ambari.shell.completion.Host;
+import com.sequenceiq.ambari.shell.completion.HostNameIndex;
 
 public class HostConverter implements Converter<Host> {
 
+  private static final int MAX_COMPLETIONS = 50;
+
   private AmbariClient client;
+  private Map<String, String> indexedHosts;
+  private HostNameIndex index;
 
   public HostConverter(AmbariClient client) {
     this.client = client;
@@ -47,10 +52,28 @@ public class HostConverter implements Converter<Host> {
 
   @Override
   public boolean getAllPossibleValues(List<Completion> completions, Class<?> targetType, String existingData, String optionContext, MethodTarget target) {
-    Set<String> hosts = client.getHostNames().keySet();
-    for (String host : hosts) {
+    HostNameIndex hosts = getIndex();
+    for (String host : hosts.find(existingData, MAX_COMPLETIONS)) {
       completions.add(new Completion(host));
     }
+    int more = hosts.count(existingData) - MAX_COMPLETIONS;
+    if (more > 0) {
+      String typed = existingData == null ? "" : existingData;
+      completions.add(new Completion(typed, String.format("(+%d more)", more), null, Integer.MAX_VALUE));
+    }
     return true;
   }
+
+  /**
+   * Rebuilds the index only if the client returned a new host map, e.g. the cached
+   * host names expired.
+   */
+  private synchronized HostNameIndex getIndex() {
+    Map<String, String> hosts = client.getHostNames();
+    if (index == null || hosts != indexedHosts) {
+      index = new HostNameIndex(hosts.keySet());
+      indexedHosts = hosts;
+    }
+    return index;
+  }
 }
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.shell.core.Completion;
+import org.springframework.shell.core.Converter;
+import org.springframework.shell.core.MethodTarget;
+
+/**
+ * Single converter bean in front of many converters which are only instantiated when an
+ * option of their target type is parsed or completed the first time. The converters are
+ * asked in registration order, just as the shell asks the individual converter beans.
+ */
+public class LazyConverterChain implements Converter<Object> {
+
+  private final List<Entry> entries = new ArrayList<Entry>();
+
+  /**
+   * Registers a converter which is instantiated through its default constructor on first use.
+   *
+   * @param converterClass class of the converter
+   * @param targetTypes    types the converter may support, it's only asked for these types
+   * @return this chain
+   */
+  public LazyConverterChain register(Class<? extends Converter> converterClass, Class<?>... targetTypes) {
+    entries.add(new Entry(converterClass, null, targetTypes));
+    return this;
+  }
+
+  /**
+   * Registers an already created converter.
+   *
+   * @param converter   converter
+   * @param targetTypes types the converter may support, it's only asked for these types
+   * @return this chain
+   */
+  public LazyConverterChain register(Converter<?> converter, Class<?>... targetTypes) {
+    entries.add(new Entry(null, converter, targetTypes));
+    return this;
+  }
+
+  @Override
+  public boolean supports(Class<?> type, String optionContext) {
+    return find(type, optionContext) != null;
+  }
+
+  @Override
+  public Object convertFromText(String value, Class<?> targetType, String optionContext) {
+    Converter<?> converter = find(targetType, optionContext);
+    return converter == null ? null : converter.convertFromText(value, targetType, optionContext);
+  }
+
+  @Override
+  public boolean getAllPossibleValues(List<Completion> completions, Class<?> targetType, String existingData,
+    String optionContext, MethodTarget target) {
+    Converter<?> converter = find(targetType, optionContext);
+    return converter != null
+      && converter.getAllPossibleValues(completions, targetType, existingData, optionContext, target);
+  }
+
+  /**
+   * Returns the number of instantiated converters.
+   *
+   * @return number of converters created so far
+   */
+  public int getCreatedCount() {
+    int count = 0;
+    for (Entry entry : entries) {
+      if (entry.isCreated()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private Converter<?> find(Class<?> type, String optionContext) {
+    for (Entry entry : entries) {
+      if (entry.accepts(type)) {
+        Converter<?> converter = entry.get();
+        if (converter.supports(type, optionContext)) {
+          return converter;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static final class Entry {
+
+    private final Class<? extends Converter> converterClass;
+    private final Class<?>[] targetTypes;
+    private volatile Converter<?> converter;
+
+    private Entry(Class<? extends Converter> converterClass, Converter<?> converter, Class<?>[] targetTypes) {
+      this.converterClass = converterClass;
+      this.converter = converter;
+      this.targetTypes = targetTypes;
+    }
+
+    boolean accepts(Class<?> type) {
+      for (Class<?> targetType : targetTypes) {
+        if (targetType.isAssignableFrom(type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    boolean isCreated() {
+      return converter != null;
+    }
+
+    Converter<?> get() {
+      if (converter == null) {
+        synchronized (this) {
+          if (converter == null) {
+            converter = BeanUtils.instantiate(converterClass);
+          }
+        }
+      }
+      return converter;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.daemon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Thin client of the {@link ShellDaemon}, it only depends on the JDK so it starts in a
+ * fraction of the time the shell does. The command lines are taken from the arguments
+ * or from the standard input, the output is streamed back as it's produced.
+ * <p/>
+ * Usage: java -cp ambari-shell.jar com.sequenceiq.ambari.shell.daemon.DaemonClient PORT [COMMAND]...
+ */
+public final class DaemonClient {
+
+  public static final int NOT_CONNECTED = 3;
+
+  private DaemonClient() {
+    throw new IllegalStateException();
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: DaemonClient PORT [COMMAND]...");
+      System.exit(NOT_CONNECTED);
+    }
+    int port = Integer.parseInt(args[0]);
+    List<String> commands = new ArrayList<String>(Arrays.asList(args).subList(1, args.length));
+    if (commands.isEmpty()) {
+      BufferedReader in = new BufferedReader(new InputStreamReader(System.in, ShellDaemon.UTF_8));
+      String line;
+      while ((line = in.readLine()) != null) {
+        commands.add(line);
+      }
+    }
+    System.exit(execute(port, ShellDaemon.getDefaultTokenFile(port), commands, System.out));
+  }
+
+  /**
+   * Sends the commands to the daemon and writes its output.
+   *
+   * @param port      port of the daemon
+   * @param tokenFile token file written by the daemon
+   * @param commands  command lines to execute
+   * @param out       where to write the output
+   * @return exit code of the daemon or {@link #NOT_CONNECTED}
+   */
+  public static int execute(int port, File tokenFile, List<String> commands, PrintStream out) {
+    try {
+      String token = new String(Files.readAllBytes(tokenFile.toPath()), ShellDaemon.UTF_8).trim();
+      Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+      try {
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), ShellDaemon.UTF_8);
+        writer.write(token + "\n");
+        for (String command : commands) {
+          if (!command.trim().isEmpty()) {
+            writer.write(command.replace('\n', ' ') + "\n");
+          }
+        }
+        writer.write("\n");
+        writer.flush();
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), ShellDaemon.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+          if (line.startsWith(ShellDaemon.EXIT_MARKER)) {
+            return Integer.parseInt(line.substring(ShellDaemon.EXIT_MARKER.length()));
+          }
+          out.println(line);
+        }
+      } finally {
+        socket.close();
+      }
+    } catch (IOException e) {
+      out.println(String.format("Cannot connect to the shell daemon on port %d: %s", port, e.getMessage()));
+    }
+    return NOT_CONNECTED;
+  }
+}
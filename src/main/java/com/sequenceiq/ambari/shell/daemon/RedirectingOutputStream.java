@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Standard output which can be redirected per thread, so the output commands print
+ * straight to the console reaches the daemon client which executes them.
+ */
+class RedirectingOutputStream extends OutputStream {
+
+  private final OutputStream original;
+  private final ThreadLocal<OutputStream> target = new ThreadLocal<OutputStream>();
+
+  RedirectingOutputStream(OutputStream original) {
+    this.original = original;
+  }
+
+  /**
+   * Replaces the standard output with a redirecting one.
+   *
+   * @return the installed stream
+   */
+  static synchronized RedirectingOutputStream install() {
+    if (System.out instanceof RedirectedPrintStream) {
+      return ((RedirectedPrintStream) System.out).redirecting;
+    }
+    RedirectingOutputStream redirecting = new RedirectingOutputStream(System.out);
+    System.setOut(new RedirectedPrintStream(redirecting));
+    return redirecting;
+  }
+
+  void redirect(OutputStream out) {
+    target.set(out);
+  }
+
+  void reset() {
+    System.out.flush();
+    target.remove();
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    current().write(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    current().write(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    current().flush();
+  }
+
+  private OutputStream current() {
+    OutputStream out = target.get();
+    return out == null ? original : out;
+  }
+
+  private static class RedirectedPrintStream extends PrintStream {
+
+    private final RedirectingOutputStream redirecting;
+
+    RedirectedPrintStream(RedirectingOutputStream redirecting) {
+      super(redirecting, true);
+      this.redirecting = redirecting;
+    }
+  }
+}
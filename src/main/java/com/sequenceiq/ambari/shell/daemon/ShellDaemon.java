@@ -0,0 +1,311 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.shell.core.JLineShellComponent;
+import org.springframework.shell.event.ParseResult;
+
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
+import com.sequenceiq.ambari.shell.support.CommandInvoker;
+
+/**
+ * Keeps the shell with its context, caches and pooled connections alive and executes the
+ * command lines sent by {@link DaemonClient}s on a loopback port. Only clients which can
+ * read the token file of the daemon's user are served.
+ * <p/>
+ * Protocol: the client sends the token, the command lines and an empty line. The daemon
+ * streams back the output and a closing {@value #EXIT_MARKER} line with the exit code.
+ * Commands are executed one at a time and share the same context, a failing command
+ * ends the request.
+ */
+public class ShellDaemon {
+
+  public static final String EXIT_MARKER = "__EXIT__ ";
+  public static final int SUCCESS = 0;
+  public static final int FAILURE = 1;
+  public static final int UNAUTHORIZED = 2;
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /**
+   * Longest accepted token line in bytes, the token itself is the hex form of {@link #TOKEN_BYTES}.
+   */
+  static final int MAX_TOKEN_LINE = 256;
+
+  /**
+   * Longest accepted command line in bytes.
+   */
+  static final int MAX_COMMAND_LINE = 64 * 1024;
+
+  private static final int TOKEN_BYTES = 16;
+  private static final int BACKLOG = 50;
+
+  private final CommandInvoker invoker;
+  private final int port;
+  private final int threads;
+  private final File tokenFile;
+  private final Object executionLock = new Object();
+  private ServerSocket serverSocket;
+  private ExecutorService workers;
+  private RedirectingOutputStream redirectingOut;
+  private String token;
+
+  /**
+   * @param shell     shell to parse the commands with
+   * @param registry  where to record the commands, can be null
+   * @param port      loopback port to listen on, 0 picks a free one; the shell itself only starts a
+   *                  daemon for a positive --ambari.daemon.port, the token file is named after it
+   * @param threads   maximum number of concurrently served clients
+   * @param tokenFile where to write the token the clients have to send
+   */
+  public ShellDaemon(JLineShellComponent shell, MetricsRegistry registry, int port, int threads, File tokenFile) {
+    this.invoker = new CommandInvoker(shell, registry);
+    this.port = port;
+    this.threads = threads;
+    this.tokenFile = tokenFile;
+  }
+
+  /**
+   * Returns the default token file of the daemon listening on the port.
+   *
+   * @param port port of the daemon
+   * @return token file in the user's home
+   */
+  public static File getDefaultTokenFile(int port) {
+    return new File(System.getProperty("user.home"), String.format(".ambari-shell/daemon-%d.token", port));
+  }
+
+  /**
+   * Binds the port and writes the token file.
+   *
+   * @throws IOException if the port or the token file is not available
+   */
+  public synchronized void start() throws IOException {
+    serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getByName("127.0.0.1"));
+    token = createToken();
+    writeToken(token);
+    redirectingOut = RedirectingOutputStream.install();
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("daemon-");
+    threadFactory.setDaemon(true);
+    workers = Executors.newFixedThreadPool(threads, threadFactory);
+  }
+
+  /**
+   * Serves the clients until the daemon is stopped.
+   */
+  public void serve() {
+    while (!serverSocket.isClosed()) {
+      try {
+        final Socket socket = serverSocket.accept();
+        workers.execute(new Runnable() {
+          @Override
+          public void run() {
+            handle(socket);
+          }
+        });
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          System.err.println("Cannot accept connection: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes the port and deletes the token file.
+   */
+  public synchronized void stop() {
+    try {
+      if (serverSocket != null) {
+        serverSocket.close();
+      }
+    } catch (IOException e) {
+      // not important
+    }
+    if (workers != null) {
+      workers.shutdownNow();
+    }
+    tokenFile.delete();
+  }
+
+  /**
+   * Returns the port the daemon listens on.
+   *
+   * @return port
+   */
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  void handle(Socket socket) {
+    try {
+      InputStream in = new BufferedInputStream(socket.getInputStream());
+      PrintStream out = new PrintStream(socket.getOutputStream(), true, UTF_8.name());
+      int status = isValidToken(readToken(in)) ? SUCCESS : UNAUTHORIZED;
+      if (status == UNAUTHORIZED) {
+        out.println("Invalid token");
+      }
+      try {
+        String line;
+        while (status == SUCCESS && (line = readLine(in, MAX_COMMAND_LINE)) != null && !line.isEmpty()) {
+          status = execute(line.trim(), out) ? SUCCESS : FAILURE;
+        }
+      } catch (LineTooLongException e) {
+        out.println(e.getMessage());
+        status = FAILURE;
+      }
+      out.println(EXIT_MARKER + status);
+    } catch (IOException e) {
+      // the client went away
+    } finally {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        // not important
+      }
+    }
+  }
+
+  /**
+   * Reads a line without the line terminator. At most the given number of bytes are buffered,
+   * so a client cannot exhaust the memory with an endless line.
+   *
+   * @param in       input of the client
+   * @param maxBytes maximum length of the line in bytes
+   * @return the line or null at the end of the input
+   * @throws IOException if the input cannot be read or the line is too long
+   */
+  static String readLine(InputStream in, int maxBytes) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != -1 && b != '\n') {
+      if (line.size() == maxBytes) {
+        throw new LineTooLongException(maxBytes);
+      }
+      line.write(b);
+    }
+    if (b == -1 && line.size() == 0) {
+      return null;
+    }
+    String result = line.toString(UTF_8.name());
+    return result.endsWith("\r") ? result.substring(0, result.length() - 1) : result;
+  }
+
+  /**
+   * The token is read before the client is authorized, only a short line is accepted.
+   */
+  private String readToken(InputStream in) throws IOException {
+    try {
+      return readLine(in, MAX_TOKEN_LINE);
+    } catch (LineTooLongException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Compares the tokens in constant time, so the response time does not leak how much of the token matched.
+   */
+  private boolean isValidToken(String line) {
+    return line != null && MessageDigest.isEqual(token.getBytes(UTF_8), line.getBytes(UTF_8));
+  }
+
+  /**
+   * Comments and the exit commands are skipped, exiting would stop the daemon.
+   */
+  private boolean execute(String line, PrintStream out) {
+    if (line.isEmpty() || line.startsWith("//") || line.startsWith("#") || "exit".equals(line) || "quit".equals(line)) {
+      return true;
+    }
+    synchronized (executionLock) {
+      redirectingOut.redirect(out);
+      try {
+        ParseResult parseResult = invoker.parse(line);
+        if (parseResult == null) {
+          out.println("Unknown command or invalid options: " + line);
+          return false;
+        }
+        CommandInvoker.print(invoker.invoke(parseResult), out);
+        return true;
+      } catch (RuntimeException e) {
+        out.println(CommandInvoker.describeFailure(e));
+        return false;
+      } finally {
+        redirectingOut.reset();
+      }
+    }
+  }
+
+  private String createToken() {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    new SecureRandom().nextBytes(bytes);
+    StringBuilder sb = new StringBuilder();
+    for (byte b : bytes) {
+      sb.append(String.format("%02x", b));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The token file is only readable by the owner where the file system supports it.
+   */
+  private void writeToken(String value) throws IOException {
+    Path path = tokenFile.toPath();
+    Files.createDirectories(path.toAbsolutePath().getParent());
+    Files.deleteIfExists(path);
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } else {
+      Files.createFile(path);
+    }
+    OutputStream out = Files.newOutputStream(path);
+    try {
+      out.write(value.getBytes(UTF_8));
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Thrown if a client sends a line longer than the accepted maximum.
+   */
+  static class LineTooLongException extends IOException {
+    LineTooLongException(int maxBytes) {
+      super(String.format("Line too long, at most %d bytes are accepted", maxBytes));
+    }
+  }
+}
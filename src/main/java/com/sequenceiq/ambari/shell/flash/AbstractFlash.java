@@ -19,43 +19,70 @@ package com.sequenceiq.ambari.shell.flash;
 
 import static java.lang.Thread.sleep;
 
-import java.util.logging.Level;
-
-import org.springframework.shell.core.JLineShellComponent;
+import com.sequenceiq.ambari.shell.support.JobScheduler;
 
 /**
- * Base class for showing flash messages.
+ * Base class for showing flash messages. The polling interval adapts to the
+ * progress, it backs off while the progress is flat and speeds up when it moves.
  */
-public abstract class AbstractFlash implements Runnable {
+public abstract class AbstractFlash implements Runnable, JobScheduler.Cancellable {
 
-  private static final int SLEEP_TIME = 1500;
   private volatile boolean stop;
   private FlashType flashType;
-  private JLineShellComponent shell;
+  private FlashMultiplexer flash;
+  private AdaptivePollInterval interval;
+  private Object lastState;
 
-  protected AbstractFlash(JLineShellComponent shell, FlashType flashType) {
-    this.shell = shell;
+  protected AbstractFlash(FlashMultiplexer flash, FlashType flashType, AdaptivePollInterval interval) {
+    this.flash = flash;
     this.flashType = flashType;
+    this.interval = interval;
   }
 
   @Override
   public void run() {
     while (!stop) {
       String text = null;
+      boolean changed = false;
       try {
         text = getText();
         if (text.isEmpty()) {
           stop = true;
         }
-        sleep(SLEEP_TIME);
+        Object state = getProgressState(text);
+        changed = lastState == null ? state != null : !lastState.equals(state);
+        lastState = state;
       } catch (Exception e) {
         // ignore
       } finally {
-        shell.flash(Level.SEVERE, text == null ? "" : text, flashType.getName());
+        flash.publish(getFlashName(), text == null || stop ? "" : text);
+      }
+      if (!stop) {
+        try {
+          sleep(interval.next(changed));
+        } catch (InterruptedException e) {
+          stop = true;
+        }
       }
     }
   }
 
+  /**
+   * Stops the polling and removes the flash.
+   */
+  @Override
+  public void cancel() {
+    stop = true;
+    flash.clear(getFlashName());
+    onCancel();
+  }
+
+  /**
+   * Called when the flash is cancelled, by default it does nothing.
+   */
+  protected void onCancel() {
+  }
+
   /**
    * Returns the actual text of the flash messages. To remove the flash
    * return an empty string.
@@ -63,4 +90,33 @@ public abstract class AbstractFlash implements Runnable {
    * @return message
    */
   public abstract String getText();
+
+  /**
+   * Returns the state used to detect whether the progress moved since the previous poll.
+   * By default it's the text of the flash.
+   *
+   * @param text the actual text of the flash
+   * @return progress state
+   */
+  protected Object getProgressState(String text) {
+    return text;
+  }
+
+  /**
+   * Returns the unique name of the flash. Flashes shown at the same time need different names.
+   *
+   * @return name of the flash, by default the name of its type
+   */
+  protected String getFlashName() {
+    return flashType.getName();
+  }
+
+  /**
+   * Returns the polling statistics which can be shown in the flash message.
+   *
+   * @return formatted polling interval and request count
+   */
+  protected String getPollingStats() {
+    return String.format("poll %.1fs, %d requests", interval.getCurrent() / 1000.0, interval.getRequests());
+  }
 }
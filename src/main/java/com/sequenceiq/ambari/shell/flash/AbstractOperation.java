@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of the flashes following long running operations on the Ambari Server. The
+ * flash polls the server in the background, others can wait for the result without
+ * polling the server themselves.
+ */
+public abstract class AbstractOperation extends AbstractFlash {
+
+  /**
+   * Result of the operation if its state cannot be queried anymore.
+   */
+  static final String UNKNOWN = "UNKNOWN";
+
+  /**
+   * Result of the operation if it's no longer followed. The request keeps running on the server.
+   */
+  static final String CANCELLED = "CANCELLED";
+
+  private final String title;
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private volatile String result;
+
+  protected AbstractOperation(FlashMultiplexer flash, FlashType flashType, String title,
+    AdaptivePollInterval interval) {
+    super(flash, flashType, interval);
+    this.title = title;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the result of the operation.
+   *
+   * @return COMPLETED, FAILED with the details, UNKNOWN or null if it's still running
+   */
+  public String getResult() {
+    return result;
+  }
+
+  /**
+   * Waits until the operation finishes.
+   *
+   * @return result of the operation
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public String await() throws InterruptedException {
+    finished.await();
+    return result;
+  }
+
+  /**
+   * Waits until the operation finishes or the timeout elapses.
+   *
+   * @param timeout maximum time to wait
+   * @param unit    unit of the timeout
+   * @return result of the operation or null if it did not finish in time
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public String await(long timeout, TimeUnit unit) throws InterruptedException {
+    finished.await(timeout, unit);
+    return result;
+  }
+
+  @Override
+  protected void onCancel() {
+    if (result == null) {
+      finish(CANCELLED);
+    }
+  }
+
+  /**
+   * Sets the result of the operation and releases the waiting threads.
+   *
+   * @param text result of the operation
+   */
+  protected void finish(String text) {
+    result = text;
+    finished.countDown();
+  }
+}
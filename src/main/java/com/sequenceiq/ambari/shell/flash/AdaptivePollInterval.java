@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import java.util.Random;
+
+/**
+ * Calculates the time to wait between two polls. The interval is reset to the minimum
+ * when the polled state changes and grows exponentially up to the maximum while it's flat.
+ * A random jitter is applied so pollers started together don't hit the server at once.
+ */
+public class AdaptivePollInterval {
+
+  private static final double BACKOFF = 1.5;
+  private static final double JITTER = 0.2;
+
+  private final long min;
+  private final long max;
+  private final Random random = new Random();
+  private long current;
+  private long requests;
+
+  /**
+   * @param min minimum interval in milliseconds
+   * @param max maximum interval in milliseconds
+   */
+  public AdaptivePollInterval(long min, long max) {
+    this.min = min;
+    this.max = Math.max(min, max);
+    this.current = min;
+  }
+
+  /**
+   * Registers a poll and returns how long to wait before the next one.
+   *
+   * @param changed whether the polled state changed since the previous poll
+   * @return interval in milliseconds
+   */
+  public synchronized long next(boolean changed) {
+    requests++;
+    current = changed ? min : Math.min(max, (long) (current * BACKOFF));
+    long jitter = (long) (current * JITTER * (2 * random.nextDouble() - 1));
+    return Math.max(0, current + jitter);
+  }
+
+  /**
+   * Returns the current interval without jitter.
+   *
+   * @return interval in milliseconds
+   */
+  public synchronized long getCurrent() {
+    return current;
+  }
+
+  /**
+   * Returns the number of polls so far.
+   *
+   * @return number of polls
+   */
+  public synchronized long getRequests() {
+    return requests;
+  }
+}
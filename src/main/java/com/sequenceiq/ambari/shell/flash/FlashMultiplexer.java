@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.shell.core.JLineShellComponent;
+
+import com.sequenceiq.ambari.shell.support.ShellConsole;
+
+/**
+ * Shows the flash messages of the background trackers in a single flash line. The trackers
+ * publish their actual text into named slots, one render loop joins the slots in the order
+ * they appeared and refreshes the terminal at a fixed frame rate if any of them changed.
+ * The render loop runs only while there is something to show. A line wider than the terminal
+ * shows the first slots that fit and the number of the remaining ones.
+ */
+public class FlashMultiplexer {
+
+  /**
+   * Name of the flash the slots are rendered into.
+   */
+  static final String FLASH_NAME = "status";
+
+  /**
+   * Separates the slots in the flash line.
+   */
+  static final String SEPARATOR = " | ";
+
+  /**
+   * Replaces the slots which don't fit on the terminal.
+   */
+  static final String MORE = " (+%d more)";
+
+  private static final String ELLIPSIS = "...";
+
+  private static final String THREAD_PREFIX = "flash-";
+
+  private final JLineShellComponent shell;
+  private final ShellConsole console;
+  private final long frameInterval;
+  private final Map<String, String> slots = new LinkedHashMap<String, String>();
+  private final ScheduledExecutorService renderer;
+  private ScheduledFuture<?> renderLoop;
+  private boolean dirty;
+  private long frames;
+
+  /**
+   * @param shell     shell to show the flash line on
+   * @param console   terminal of the shell, the flash line is cut to its width
+   * @param frameRate maximum number of terminal refreshes per second
+   */
+  public FlashMultiplexer(JLineShellComponent shell, ShellConsole console, int frameRate) {
+    this.shell = shell;
+    this.console = console;
+    this.frameInterval = TimeUnit.SECONDS.toMillis(1) / Math.max(1, frameRate);
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(THREAD_PREFIX);
+    threadFactory.setDaemon(true);
+    this.renderer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+  }
+
+  /**
+   * Sets the text of a slot. It's shown with the next frame, texts published in between
+   * replace each other. An empty text removes the slot.
+   *
+   * @param slot name of the slot, e.g. the name of the flash
+   * @param text actual text of the slot
+   */
+  public synchronized void publish(String slot, String text) {
+    if (text == null || text.isEmpty()) {
+      dirty |= slots.remove(slot) != null;
+    } else {
+      dirty |= !text.equals(slots.put(slot, text));
+    }
+    if (dirty && renderLoop == null && !renderer.isShutdown()) {
+      renderLoop = renderer.scheduleAtFixedRate(new Runnable() {
+        @Override
+        public void run() {
+          render();
+        }
+      }, frameInterval, frameInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Removes a slot with the next frame.
+   *
+   * @param slot name of the slot
+   */
+  public void clear(String slot) {
+    publish(slot, "");
+  }
+
+  /**
+   * Returns the names of the shown slots.
+   *
+   * @return slot names in the order they appeared
+   */
+  public synchronized List<String> getSlots() {
+    return new ArrayList<String>(slots.keySet());
+  }
+
+  /**
+   * Returns the number of terminal refreshes so far.
+   *
+   * @return number of rendered frames
+   */
+  public synchronized long getFrames() {
+    return frames;
+  }
+
+  /**
+   * Stops the render loop and removes the flash line.
+   */
+  public void shutdown() {
+    synchronized (this) {
+      slots.clear();
+      stopRenderLoop();
+    }
+    renderer.shutdownNow();
+    shell.flash(Level.SEVERE, "", FLASH_NAME);
+  }
+
+  /**
+   * Renders a frame if any of the slots changed since the previous one. Stops the render
+   * loop once there is nothing to show.
+   */
+  void render() {
+    int width = console.getWidth();
+    String text;
+    synchronized (this) {
+      if (!dirty) {
+        if (slots.isEmpty()) {
+          stopRenderLoop();
+        }
+        return;
+      }
+      dirty = false;
+      frames++;
+      text = compose(width - 1);
+    }
+    shell.flash(Level.SEVERE, text, FLASH_NAME);
+  }
+
+  /**
+   * The last column is left empty, otherwise the terminal wraps the line. Without a terminal
+   * the line isn't cut.
+   */
+  private String compose(int width) {
+    List<String> texts = new ArrayList<String>(slots.values());
+    String line = join(texts, texts.size());
+    if (width <= 0 || line.length() <= width) {
+      return line;
+    }
+    for (int shown = texts.size() - 1; shown > 0; shown--) {
+      String cut = join(texts, shown) + String.format(MORE, texts.size() - shown);
+      if (cut.length() <= width) {
+        return cut;
+      }
+    }
+    String more = texts.size() > 1 ? String.format(MORE, texts.size() - 1) : "";
+    int room = width - ELLIPSIS.length() - more.length();
+    if (room <= 0) {
+      return line.substring(0, width);
+    }
+    return texts.get(0).substring(0, room) + ELLIPSIS + more;
+  }
+
+  private String join(List<String> texts, int count) {
+    StringBuilder sb = new StringBuilder();
+    for (String text : texts.subList(0, count)) {
+      if (sb.length() > 0) {
+        sb.append(SEPARATOR);
+      }
+      sb.append(text);
+    }
+    return sb.toString();
+  }
+
+  private void stopRenderLoop() {
+    if (renderLoop != null) {
+      renderLoop.cancel(false);
+      renderLoop = null;
+    }
+  }
+}
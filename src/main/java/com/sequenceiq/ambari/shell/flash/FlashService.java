@@ -17,13 +17,19 @@
  */
 package com.sequenceiq.ambari.shell.flash;
 
-import java.util.concurrent.ExecutorService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.shell.core.JLineShellComponent;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
+import com.sequenceiq.ambari.shell.support.JobScheduler;
+import com.sequenceiq.ambari.shell.support.ServiceControl;
+import com.sequenceiq.ambari.shell.support.ShellConsole;
 
 /**
  * Service for managing the flashes.
@@ -32,17 +38,96 @@ import com.sequenceiq.ambari.client.AmbariClient;
 public class FlashService {
 
   private AmbariClient client;
-  private JLineShellComponent shell;
-  private ExecutorService executorService;
+  private FlashMultiplexer flash;
+  private JobScheduler jobScheduler;
+  private TaskTracker taskTracker;
+  private ShellConsole console;
+
+  @Value("${ambari.poll.min:500}")
+  private long minPollInterval;
+
+  @Value("${ambari.poll.max:15000}")
+  private long maxPollInterval;
 
   @Autowired
-  public FlashService(AmbariClient client, JLineShellComponent shell, ExecutorService executorService) {
+  public FlashService(AmbariClient client, FlashMultiplexer flash, JobScheduler jobScheduler,
+    TaskTracker taskTracker, ShellConsole console) {
     this.client = client;
-    this.shell = shell;
-    this.executorService = executorService;
+    this.flash = flash;
+    this.jobScheduler = jobScheduler;
+    this.taskTracker = taskTracker;
+    this.console = console;
   }
 
   public void showInstallProgress(boolean exit) {
-    executorService.submit(new InstallProgress(shell, client, exit));
+    jobScheduler.submit("Install progress", new InstallProgress(flash, client, exit, createPollInterval()));
+  }
+
+  /**
+   * Follows the request of an operation in the background and shows its progress as a
+   * flash message until it finishes. Several operations can be followed at once.
+   *
+   * @param title     what the operation does, e.g. Starting all services
+   * @param requestId id of the request of the operation
+   * @return progress of the operation which can be waited for
+   * @throws java.util.concurrent.RejectedExecutionException if too many jobs are queued
+   */
+  public OperationProgress trackOperation(String title, String requestId) {
+    OperationProgress progress = new OperationProgress(flash, title, requestId, taskTracker, createPollInterval());
+    jobScheduler.submit(String.format("%s (request %s)", title, requestId), progress);
+    return progress;
+  }
+
+  /**
+   * Changes the state of the components host batch by host batch in the background and shows
+   * the progress as a flash message until every batch finished or one failed.
+   *
+   * @param title       what the operation does, e.g. Stopping HDFS
+   * @param control     sends the requests of the batches
+   * @param hosts       hosts to change the components of
+   * @param components  components to change
+   * @param state       target state of the components
+   * @param batchSize   number of hosts in a batch
+   * @param parallelism maximum number of batches in flight
+   * @return rolling operation which can be waited for
+   * @throws java.util.concurrent.RejectedExecutionException if too many jobs are queued
+   */
+  public RollingOperation startRolling(String title, ServiceControl control, List<String> hosts,
+    List<String> components, String state, int batchSize, int parallelism) {
+    RollingOperation operation = new RollingOperation(flash, title, control, taskTracker, hosts, components, state,
+      batchSize, parallelism, createPollInterval());
+    jobScheduler.submit(title, operation);
+    return operation;
+  }
+
+  /**
+   * Creates a progress listener which shows the number of finished requests as a flash
+   * message. The flash is removed once every request finished.
+   *
+   * @param title what the requests are doing, e.g. Querying hosts
+   * @return progress listener
+   */
+  public FanOutExecutor.ProgressListener createProgress(final String title) {
+    return new FanOutExecutor.ProgressListener() {
+      @Override
+      public void onProgress(int done, int total) {
+        String text = done < total ? String.format("%s: %d/%d", title, done, total) : "";
+        flash.publish(FlashType.PROGRESS.getName(), text);
+      }
+    };
+  }
+
+  /**
+   * Creates a watcher which polls a listing until a key is pressed on the console.
+   *
+   * @param interval time between the polls in seconds
+   * @return table watcher
+   */
+  public TableWatcher createWatcher(long interval) {
+    return new TableWatcher(flash, console, System.out, TimeUnit.SECONDS.toMillis(interval));
+  }
+
+  private AdaptivePollInterval createPollInterval() {
+    return new AdaptivePollInterval(minPollInterval, maxPollInterval);
   }
 }
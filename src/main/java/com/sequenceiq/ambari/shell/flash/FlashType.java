@@ -25,7 +25,28 @@ public enum FlashType {
   /**
    * Install progress percentage flash.
    */
-  INSTALL("install");
+  INSTALL("install"),
+
+  /**
+   * Progress of the parallel requests, e.g. querying every host.
+   */
+  PROGRESS("progress"),
+
+  /**
+   * Status of a watched listing.
+   */
+  WATCH("watch"),
+
+  /**
+   * Progress of a running operation, e.g. starting the services. Every operation
+   * has its own flash, the name is suffixed with the request id.
+   */
+  OPERATION("operation"),
+
+  /**
+   * Progress of a rolling operation, e.g. stopping the services host batch by host batch.
+   */
+  ROLLING("rolling");
 
   private String name;
 
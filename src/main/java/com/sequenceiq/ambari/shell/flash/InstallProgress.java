@@ -21,23 +21,25 @@ import static java.lang.Math.round;
 
 import java.math.BigDecimal;
 
-import org.springframework.shell.core.JLineShellComponent;
-
 import com.sequenceiq.ambari.client.AmbariClient;
 
 /**
- * Show the install progress in % value.
+ * Show the install progress in % value with the estimated time of completion.
  */
 public class InstallProgress extends AbstractFlash {
 
   private static final int SUCCESS = 100;
   private static final int FAILED = -1;
+  private static final long SECONDS_IN_MINUTE = 60;
   private final boolean exit;
   private AmbariClient client;
   private volatile boolean done;
+  private BigDecimal progress;
+  private BigDecimal firstProgress;
+  private long firstProgressTime;
 
-  public InstallProgress(JLineShellComponent shell, AmbariClient client, boolean exit) {
-    super(shell, FlashType.INSTALL);
+  public InstallProgress(FlashMultiplexer flash, AmbariClient client, boolean exit, AdaptivePollInterval interval) {
+    super(flash, FlashType.INSTALL, interval);
     this.client = client;
     this.exit = exit;
   }
@@ -46,7 +48,7 @@ public class InstallProgress extends AbstractFlash {
   public String getText() {
     StringBuilder sb = new StringBuilder();
     if (!done) {
-      BigDecimal progress = client.getInstallProgress();
+      progress = client.getInstallProgress();
       if (progress != null) {
         BigDecimal decimal = progress.setScale(2, BigDecimal.ROUND_HALF_UP);
         int intValue = decimal.intValue();
@@ -60,6 +62,7 @@ public class InstallProgress extends AbstractFlash {
               sb.append("-");
             }
           }
+          sb.append(getEta(progress)).append(" (").append(getPollingStats()).append(")");
         } else if (intValue == FAILED) {
           sb.append("Installation: FAILED");
           done = true;
@@ -68,7 +71,7 @@ public class InstallProgress extends AbstractFlash {
           done = true;
         }
       } else {
-        sb.append("Installation: WAITING..");
+        sb.append("Installation: WAITING.. (").append(getPollingStats()).append(")");
       }
     } else {
       if (exit) {
@@ -77,4 +80,28 @@ public class InstallProgress extends AbstractFlash {
     }
     return sb.toString();
   }
+
+  @Override
+  protected Object getProgressState(String text) {
+    return progress;
+  }
+
+  /**
+   * Estimates the remaining time from the average rate of the progress since it was first seen.
+   */
+  private String getEta(BigDecimal actual) {
+    long now = System.currentTimeMillis();
+    if (firstProgress == null) {
+      firstProgress = actual;
+      firstProgressTime = now;
+    }
+    double completed = actual.subtract(firstProgress).doubleValue();
+    long elapsed = now - firstProgressTime;
+    String eta = "";
+    if (completed > 0 && elapsed > 0) {
+      long remaining = (long) ((SUCCESS - actual.doubleValue()) / completed * elapsed / 1000);
+      eta = String.format(" ETA %dm %02ds", remaining / SECONDS_IN_MINUTE, remaining % SECONDS_IN_MINUTE);
+    }
+    return eta;
+  }
 }
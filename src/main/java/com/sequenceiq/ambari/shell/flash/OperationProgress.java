@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+
+/**
+ * Follows an Ambari request in the background and shows its progress by the number of
+ * finished tasks. The tasks are fetched through the task tracker, so every poll only
+ * queries the tasks which could have changed.
+ */
+public class OperationProgress extends AbstractOperation {
+
+  private static final int MAX_ERRORS = 10;
+  private static final int BAR_LENGTH = 10;
+
+  private final String requestId;
+  private final TaskTracker taskTracker;
+  private int finishedTasks;
+  private int errors;
+
+  /**
+   * @param flash       shows the flash of the operation
+   * @param title       what the operation does, e.g. Starting all services
+   * @param requestId   id of the request of the operation
+   * @param taskTracker tracker to fetch the tasks with
+   * @param interval    polling interval
+   */
+  public OperationProgress(FlashMultiplexer flash, String title, String requestId, TaskTracker taskTracker,
+    AdaptivePollInterval interval) {
+    super(flash, FlashType.OPERATION, title, interval);
+    this.requestId = requestId;
+    this.taskTracker = taskTracker;
+  }
+
+  @Override
+  public String getText() {
+    if (getResult() != null) {
+      return "";
+    }
+    List<String[]> tasks;
+    try {
+      tasks = taskTracker.getTasks(requestId);
+      errors = 0;
+    } catch (IOException e) {
+      if (++errors >= MAX_ERRORS) {
+        finish(UNKNOWN + ": " + e.getMessage());
+        return format(getResult());
+      }
+      return format("WAITING.. (" + getPollingStats() + ")");
+    }
+    int failed = 0;
+    int done = 0;
+    for (String[] task : tasks) {
+      if (TaskTracker.isFinal(task[2])) {
+        done++;
+        if (!"COMPLETED".equals(task[2])) {
+          failed++;
+        }
+      }
+    }
+    finishedTasks = done;
+    if (!tasks.isEmpty() && done == tasks.size()) {
+      finish(failed == 0 ? "COMPLETED" : String.format("FAILED (%d of %d tasks)", failed, tasks.size()));
+      return format(getResult());
+    }
+    return format(String.format("%d/%d tasks %s (%s)", done, tasks.size(), bar(done, tasks.size()), getPollingStats()));
+  }
+
+  @Override
+  protected Object getProgressState(String text) {
+    return finishedTasks;
+  }
+
+  @Override
+  protected String getFlashName() {
+    return FlashType.OPERATION.getName() + "-" + requestId;
+  }
+
+  public String getRequestId() {
+    return requestId;
+  }
+
+  private String format(String status) {
+    return String.format("%s (request %s): %s", getTitle(), requestId, status);
+  }
+
+  private String bar(int done, int total) {
+    int filled = total == 0 ? 0 : done * BAR_LENGTH / total;
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < BAR_LENGTH; i++) {
+      sb.append(i < filled ? "=" : "-");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+import com.sequenceiq.ambari.shell.support.ServiceControl;
+
+/**
+ * Changes the state of the components host batch by host batch. Every batch is a single
+ * request, at most the given number of batches are in flight at once and a new batch is
+ * only sent when one of them is done, so the load of the server and the agents stays
+ * bounded. With a single batch in flight a batch starts when the previous one finished,
+ * with more the server already has the next batch queued. The rolling stops sending new
+ * batches on the first failed batch.
+ */
+public class RollingOperation extends AbstractOperation {
+
+  private static final int MAX_ERRORS = 10;
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  private final ServiceControl control;
+  private final TaskTracker taskTracker;
+  private final List<List<String>> batches = new ArrayList<List<String>>();
+  private final List<String> components;
+  private final String state;
+  private final int parallelism;
+  private final Map<String, Integer> inFlight = new LinkedHashMap<String, Integer>();
+  private int next;
+  private int doneHosts;
+  private final int totalHosts;
+  private final int sequence = SEQUENCE.incrementAndGet();
+  private int errors;
+
+  /**
+   * @param flash       shows the flash of the operation
+   * @param title       what the operation does, e.g. Stopping HDFS
+   * @param control     sends the requests of the batches
+   * @param taskTracker tracker to follow the requests with
+   * @param hosts       hosts to change the components of
+   * @param components  components to change
+   * @param state       target state of the components
+   * @param batchSize   number of hosts in a batch
+   * @param parallelism maximum number of batches in flight
+   * @param interval    polling interval
+   */
+  public RollingOperation(FlashMultiplexer flash, String title, ServiceControl control, TaskTracker taskTracker,
+    List<String> hosts, List<String> components, String state, int batchSize, int parallelism,
+    AdaptivePollInterval interval) {
+    super(flash, FlashType.ROLLING, title, interval);
+    if (batchSize < 1 || parallelism < 1) {
+      throw new IllegalArgumentException("The batch size and the parallelism must be positive");
+    }
+    this.control = control;
+    this.taskTracker = taskTracker;
+    this.components = components;
+    this.state = state;
+    this.parallelism = parallelism;
+    for (int i = 0; i < hosts.size(); i += batchSize) {
+      batches.add(hosts.subList(i, Math.min(hosts.size(), i + batchSize)));
+    }
+    this.totalHosts = hosts.size();
+  }
+
+  @Override
+  public String getText() {
+    if (getResult() != null) {
+      return "";
+    }
+    try {
+      String failure = pollInFlight();
+      if (failure != null) {
+        finish(failure);
+        return format(getResult());
+      }
+      while (inFlight.size() < parallelism && next < batches.size()) {
+        int requestId = control.setHostComponentState(batches.get(next), components, state);
+        if (requestId > 0) {
+          inFlight.put(String.valueOf(requestId), next);
+        } else {
+          doneHosts += batches.get(next).size();
+        }
+        next++;
+      }
+      errors = 0;
+    } catch (IOException e) {
+      if (++errors >= MAX_ERRORS) {
+        finish(String.format("%s in batch %d/%d: %s", UNKNOWN, next, batches.size(), e.getMessage()));
+        return format(getResult());
+      }
+    }
+    if (inFlight.isEmpty() && next == batches.size()) {
+      finish(String.format("COMPLETED (%d host(s) in %d batches)", totalHosts, batches.size()));
+      return format(getResult());
+    }
+    return format(String.format("%d/%d hosts, %d/%d batches sent (%s)",
+      doneHosts, totalHosts, next, batches.size(), getPollingStats()));
+  }
+
+  @Override
+  protected Object getProgressState(String text) {
+    return doneHosts;
+  }
+
+  @Override
+  protected String getFlashName() {
+    return FlashType.ROLLING.getName() + "-" + sequence;
+  }
+
+  /**
+   * Removes the finished batches.
+   *
+   * @return result of the first failed batch or null if none failed
+   */
+  private String pollInFlight() throws IOException {
+    Iterator<Map.Entry<String, Integer>> iterator = inFlight.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Integer> entry = iterator.next();
+      List<String[]> tasks = taskTracker.getTasks(entry.getKey());
+      int failed = 0;
+      int done = 0;
+      for (String[] task : tasks) {
+        if (TaskTracker.isFinal(task[2])) {
+          done++;
+          if (!"COMPLETED".equals(task[2])) {
+            failed++;
+          }
+        }
+      }
+      if (!tasks.isEmpty() && done == tasks.size()) {
+        if (failed > 0) {
+          return String.format("FAILED in batch %d/%d, request %s (%d of %d tasks), %d host(s) done",
+            entry.getValue() + 1, batches.size(), entry.getKey(), failed, tasks.size(), doneHosts);
+        }
+        doneHosts += batches.get(entry.getValue()).size();
+        iterator.remove();
+      }
+    }
+    return null;
+  }
+
+  private String format(String status) {
+    return String.format("%s: %s", getTitle(), status);
+  }
+}
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sequenceiq.ambari.shell.support.ShellConsole;
+import com.sequenceiq.ambari.shell.support.TableRenderer;
+
+/**
+ * Polls a listing until a key is pressed. The whole table is printed once, after that
+ * only the rows whose state changed since the previous poll, with their previous state.
+ * The number of polls and changes is shown as a flash message.
+ */
+public class TableWatcher {
+
+  /**
+   * Value of the previous state column for new rows and of the state for removed rows.
+   */
+  public static final String NONE = "-";
+  public static final String REMOVED = "REMOVED";
+
+  private static final long KEY_CHECK_INTERVAL = 100;
+
+  private final FlashMultiplexer flash;
+  private final ShellConsole console;
+  private final PrintStream out;
+  private final long interval;
+
+  /**
+   * @param flash    shows the flash message, can be null
+   * @param console  stopped when a key is pressed on it
+   * @param out      where to print the table and the changes
+   * @param interval time between the polls in milliseconds
+   */
+  public TableWatcher(FlashMultiplexer flash, ShellConsole console, PrintStream out, long interval) {
+    this.flash = flash;
+    this.console = console;
+    this.out = out;
+    this.interval = interval;
+  }
+
+  /**
+   * Provides the actual rows of the watched listing.
+   */
+  public interface Source {
+
+    /**
+     * Returns the actual rows, the last column is the state, the others identify the row.
+     *
+     * @return rows of the listing
+     */
+    List<String[]> poll();
+  }
+
+  /**
+   * Polls the source until a key is pressed or the thread is interrupted. Without a terminal
+   * no key could stop it, so it's refused.
+   *
+   * @param title   shown in the flash message, e.g. Watching tasks
+   * @param source  provides the rows
+   * @param headers headers of the table
+   * @return summary message
+   */
+  public String watch(String title, Source source, String... headers) {
+    if (!console.isInteractive()) {
+      return "Watching needs an interactive terminal, it's not available with --cmdfile or through the daemon";
+    }
+    Map<String, String[]> previous = index(source.poll());
+    out.println(TableRenderer.renderRows(new ArrayList<String[]>(previous.values()), headers));
+    String[] changeHeaders = Arrays.copyOf(headers, headers.length + 1);
+    changeHeaders[headers.length] = "PREVIOUS";
+    SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+    int polls = 1;
+    int changes = 0;
+    try {
+      while (waitForNextPoll(title, polls, changes)) {
+        Map<String, String[]> current = index(source.poll());
+        polls++;
+        List<String[]> diff = diff(previous, current);
+        if (!diff.isEmpty()) {
+          changes += diff.size();
+          out.println(timeFormat.format(new Date()));
+          out.println(TableRenderer.renderRows(diff, changeHeaders));
+        }
+        previous = current;
+      }
+    } finally {
+      flash("");
+    }
+    return String.format("Stopped watching after %d poll(s), %d change(s)", polls, changes);
+  }
+
+  /**
+   * Compares the rows by their identifying columns.
+   *
+   * @param previous rows of the previous poll by their identifier
+   * @param current  rows of the actual poll by their identifier
+   * @return new, changed and removed rows with their previous state as an extra column
+   */
+  static List<String[]> diff(Map<String, String[]> previous, Map<String, String[]> current) {
+    List<String[]> result = new ArrayList<String[]>();
+    for (Map.Entry<String, String[]> entry : current.entrySet()) {
+      String[] row = entry.getValue();
+      String[] old = previous.get(entry.getKey());
+      String state = row[row.length - 1];
+      if (old == null || !old[old.length - 1].equals(state)) {
+        result.add(withPrevious(row, row[row.length - 1], old == null ? NONE : old[old.length - 1]));
+      }
+    }
+    for (Map.Entry<String, String[]> entry : previous.entrySet()) {
+      if (!current.containsKey(entry.getKey())) {
+        String[] row = entry.getValue();
+        result.add(withPrevious(row, REMOVED, row[row.length - 1]));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Indexes the rows by their identifying columns, every column except the last one.
+   *
+   * @param rows rows of the listing
+   * @return rows by their identifier in the original order
+   */
+  static Map<String, String[]> index(List<String[]> rows) {
+    Map<String, String[]> result = new LinkedHashMap<String, String[]>();
+    for (String[] row : rows) {
+      StringBuilder key = new StringBuilder();
+      for (int i = 0; i < row.length - 1; i++) {
+        key.append(row[i]).append('\0');
+      }
+      result.put(key.toString(), row);
+    }
+    return result;
+  }
+
+  private static String[] withPrevious(String[] row, String state, String previousState) {
+    String[] result = Arrays.copyOf(row, row.length + 1);
+    result[row.length - 1] = state;
+    result[row.length] = previousState;
+    return result;
+  }
+
+  /**
+   * Sleeps until the next poll while checking the keyboard.
+   *
+   * @return false if a key was pressed or the thread was interrupted
+   */
+  private boolean waitForNextPoll(String title, int polls, int changes) {
+    flash(String.format("%s every %ds: %d poll(s), %d change(s), press any key to stop",
+      title, interval / 1000, polls, changes));
+    long deadline = System.currentTimeMillis() + interval;
+    try {
+      do {
+        if (console.isKeyAvailable()) {
+          while (console.isKeyAvailable()) {
+            console.readKey();
+          }
+          return false;
+        }
+        Thread.sleep(Math.max(0, Math.min(KEY_CHECK_INTERVAL, deadline - System.currentTimeMillis())));
+      } while (System.currentTimeMillis() < deadline);
+      return true;
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void flash(String text) {
+    if (flash != null) {
+      flash.publish(FlashType.WATCH.getName(), text);
+    }
+  }
+}
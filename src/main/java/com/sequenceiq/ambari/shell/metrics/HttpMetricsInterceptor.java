@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Records the REST calls of the Ambari client per endpoint. The latency covers the
+ * whole response body, so it's recorded once the body is read or closed. Ids in the
+ * path are replaced with '*' to group the calls, e.g. GET /api/v1/clusters/&#42;/hosts.
+ */
+public class HttpMetricsInterceptor implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+  private static final String START = "ambari.metrics.start";
+  private static final String ENDPOINT = "ambari.metrics.endpoint";
+  private static final int ERROR_STATUS = 400;
+
+  private final MetricsRegistry registry;
+
+  public HttpMetricsInterceptor(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void process(HttpRequest request, HttpContext context) {
+    context.setAttribute(START, System.nanoTime());
+    context.setAttribute(ENDPOINT, getEndpoint(request.getRequestLine().getMethod(), request.getRequestLine().getUri()));
+  }
+
+  @Override
+  public void process(HttpResponse response, HttpContext context) {
+    Object start = context.getAttribute(START);
+    Object endpoint = context.getAttribute(ENDPOINT);
+    if (start == null || endpoint == null) {
+      return;
+    }
+    Recorder recorder = new Recorder((String) endpoint, (Long) start,
+      response.getStatusLine().getStatusCode() >= ERROR_STATUS);
+    HttpEntity entity = response.getEntity();
+    if (entity == null) {
+      recorder.record(0);
+    } else {
+      response.setEntity(new CountingEntity(entity, recorder));
+    }
+  }
+
+  /**
+   * Removes the scheme, host and query and replaces the ids of the Ambari resources.
+   * Ambari paths alternate between collections and ids after /api/v1.
+   */
+  static String getEndpoint(String method, String uri) {
+    String path = uri;
+    int schemeEnd = path.indexOf("://");
+    if (schemeEnd >= 0) {
+      int pathStart = path.indexOf('/', schemeEnd + 3);
+      path = pathStart < 0 ? "/" : path.substring(pathStart);
+    }
+    int queryStart = path.indexOf('?');
+    if (queryStart >= 0) {
+      path = path.substring(0, queryStart);
+    }
+    String[] segments = path.split("/");
+    StringBuilder sb = new StringBuilder(method).append(' ');
+    int api = -1;
+    for (int i = 1; i < segments.length; i++) {
+      if (api < 0 && "v1".equals(segments[i])) {
+        api = i;
+      }
+      boolean id = api > 0 && i > api && (i - api) % 2 == 0;
+      sb.append('/').append(id ? "*" : segments[i]);
+    }
+    return segments.length <= 1 ? sb.append('/').toString() : sb.toString();
+  }
+
+  private class Recorder {
+
+    private final String endpoint;
+    private final long start;
+    private final boolean error;
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    Recorder(String endpoint, long start, boolean error) {
+      this.endpoint = endpoint;
+      this.start = start;
+      this.error = error;
+    }
+
+    void record(long bytes) {
+      if (recorded.compareAndSet(false, true)) {
+        registry.record(MetricsRegistry.ENDPOINTS, endpoint, System.nanoTime() - start, bytes, error);
+      }
+    }
+  }
+
+  private static class CountingEntity extends HttpEntityWrapper {
+
+    private final Recorder recorder;
+
+    CountingEntity(HttpEntity entity, Recorder recorder) {
+      super(entity);
+      this.recorder = recorder;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+      return new FilterInputStream(super.getContent()) {
+        private long bytes;
+
+        @Override
+        public int read() throws IOException {
+          int b = super.read();
+          if (b < 0) {
+            recorder.record(bytes);
+          } else {
+            bytes++;
+          }
+          return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+          int n = super.read(buffer, offset, length);
+          if (n < 0) {
+            recorder.record(bytes);
+          } else {
+            bytes += n;
+          }
+          return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+          recorder.record(bytes);
+          super.close();
+        }
+      };
+    }
+  }
+}
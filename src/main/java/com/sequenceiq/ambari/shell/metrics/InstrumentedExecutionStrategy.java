@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+
+import org.springframework.shell.core.ExecutionStrategy;
+import org.springframework.shell.core.annotation.CliCommand;
+import org.springframework.shell.event.ParseResult;
+
+/**
+ * Records the latency, output size and failures of every executed command.
+ */
+public class InstrumentedExecutionStrategy implements ExecutionStrategy {
+
+  private final ExecutionStrategy delegate;
+  private final MetricsRegistry registry;
+
+  public InstrumentedExecutionStrategy(ExecutionStrategy delegate, MetricsRegistry registry) {
+    this.delegate = delegate;
+    this.registry = registry;
+  }
+
+  @Override
+  public Object execute(final ParseResult parseResult) throws RuntimeException {
+    return time(registry, parseResult, new Callable<Object>() {
+      @Override
+      public Object call() {
+        return delegate.execute(parseResult);
+      }
+    });
+  }
+
+  @Override
+  public boolean isReadyForCommands() {
+    return delegate.isReadyForCommands();
+  }
+
+  @Override
+  public void terminate() {
+    delegate.terminate();
+  }
+
+  /**
+   * Executes the command and records it under the name of the command.
+   *
+   * @param registry    where to record, can be null
+   * @param parseResult parsed command
+   * @param execution   executes the command
+   * @return result of the command
+   */
+  public static Object time(MetricsRegistry registry, ParseResult parseResult, Callable<Object> execution) {
+    if (registry == null) {
+      return call(execution);
+    }
+    String name = getCommandName(parseResult.getMethod());
+    long start = System.nanoTime();
+    boolean failed = true;
+    Object result = null;
+    try {
+      result = call(execution);
+      failed = false;
+      return result;
+    } finally {
+      long size = result == null ? 0 : result.toString().length();
+      registry.record(MetricsRegistry.COMMANDS, name, System.nanoTime() - start, size, failed);
+    }
+  }
+
+  private static Object call(Callable<Object> execution) {
+    try {
+      return execution.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String getCommandName(Method method) {
+    CliCommand command = method.getAnnotation(CliCommand.class);
+    return command == null || command.value().length == 0 ? method.getName() : command.value()[0];
+  }
+}
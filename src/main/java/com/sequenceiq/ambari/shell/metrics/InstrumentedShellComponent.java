@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import org.springframework.shell.core.ExecutionStrategy;
+import org.springframework.shell.core.JLineShellComponent;
+
+import jline.console.ConsoleReader;
+
+/**
+ * Shell which times every command through an {@link InstrumentedExecutionStrategy}.
+ */
+public class InstrumentedShellComponent extends JLineShellComponent {
+
+  private final MetricsRegistry registry;
+  private ExecutionStrategy executionStrategy;
+
+  public InstrumentedShellComponent(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected synchronized ExecutionStrategy getExecutionStrategy() {
+    if (executionStrategy == null) {
+      executionStrategy = new InstrumentedExecutionStrategy(super.getExecutionStrategy(), registry);
+    }
+    return executionStrategy;
+  }
+
+  /**
+   * Returns the console reader of the prompt loop, which owns the standard input.
+   *
+   * @return console reader or null if the prompt loop is not running, e.g. with --cmdfile
+   */
+  public ConsoleReader getConsoleReader() {
+    return reader;
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram with logarithmic buckets. Every bucket is 10% wider than the previous
+ * one, so the percentiles are accurate within 10% from 1 microsecond to about an hour
+ * using a fixed amount of memory.
+ */
+public class LatencyHistogram {
+
+  private static final double GROWTH = 1.1;
+  private static final int BUCKETS = 230;
+  private static final double LOG_GROWTH = Math.log(GROWTH);
+
+  private final long[] counts = new long[BUCKETS];
+  private long count;
+  private long max;
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos latency in nanoseconds
+   */
+  public synchronized void record(long nanos) {
+    counts[bucket(TimeUnit.NANOSECONDS.toMicros(nanos))]++;
+    count++;
+    max = Math.max(max, nanos);
+  }
+
+  /**
+   * Returns the upper bound of the bucket which contains the given percentile.
+   *
+   * @param percentile between 0 and 100
+   * @return latency in nanoseconds, 0 if nothing is recorded
+   */
+  public synchronized long getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile / 100 * count);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= Math.max(1, rank)) {
+        return Math.min(max, TimeUnit.MICROSECONDS.toNanos(upperBound(i)));
+      }
+    }
+    return max;
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  public synchronized long getMax() {
+    return max;
+  }
+
+  private static int bucket(long micros) {
+    return micros <= 1 ? 0 : Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(micros) / LOG_GROWTH));
+  }
+
+  private static long upperBound(int bucket) {
+    return (long) Math.ceil(Math.pow(GROWTH, bucket));
+  }
+}
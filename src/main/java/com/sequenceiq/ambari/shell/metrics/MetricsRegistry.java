@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Collects the count, latency, transferred bytes and errors of the shell commands and
+ * the REST calls of the Ambari client.
+ */
+public class MetricsRegistry {
+
+  public static final String COMMANDS = "commands";
+  public static final String ENDPOINTS = "endpoints";
+
+  private final ConcurrentMap<String, ConcurrentMap<String, OperationStats>> groups =
+    new ConcurrentHashMap<String, ConcurrentMap<String, OperationStats>>();
+
+  /**
+   * Records an operation.
+   *
+   * @param group name of the group, e.g. {@link #COMMANDS}
+   * @param name  name of the operation
+   * @param nanos latency in nanoseconds
+   * @param bytes transferred bytes, negative if unknown
+   * @param error whether the operation failed
+   */
+  public void record(String group, String name, long nanos, long bytes, boolean error) {
+    getStats(getGroup(group), name).record(nanos, bytes, error);
+  }
+
+  /**
+   * Returns the statistics of a group ordered by the name of the operations.
+   *
+   * @param group name of the group
+   * @return statistics by operation name
+   */
+  public SortedMap<String, OperationStats> getStats(String group) {
+    return new TreeMap<String, OperationStats>(getGroup(group));
+  }
+
+  /**
+   * Drops every recorded statistic.
+   */
+  public void reset() {
+    groups.clear();
+  }
+
+  /**
+   * Writes every statistic to the file as json, latencies are in milliseconds.
+   *
+   * @param file target file
+   * @throws IOException if the file cannot be written
+   */
+  public void writeJson(File file) throws IOException {
+    Map<String, Object> json = new LinkedHashMap<String, Object>();
+    for (String group : new TreeMap<String, Object>(groups).keySet()) {
+      Map<String, Object> operations = new LinkedHashMap<String, Object>();
+      for (Map.Entry<String, OperationStats> entry : getStats(group).entrySet()) {
+        operations.put(entry.getKey(), toMap(entry.getValue()));
+      }
+      json.put(group, operations);
+    }
+    new ObjectMapper().writeValue(file, json);
+  }
+
+  private Map<String, Object> toMap(OperationStats stats) {
+    LatencyHistogram latency = stats.getLatency();
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("count", stats.getCount());
+    map.put("errors", stats.getErrors());
+    map.put("bytes", stats.getBytes());
+    map.put("p50", toMillis(latency.getPercentile(50)));
+    map.put("p95", toMillis(latency.getPercentile(95)));
+    map.put("p99", toMillis(latency.getPercentile(99)));
+    map.put("max", toMillis(latency.getMax()));
+    return map;
+  }
+
+  private double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private ConcurrentMap<String, OperationStats> getGroup(String group) {
+    ConcurrentMap<String, OperationStats> stats = groups.get(group);
+    if (stats == null) {
+      groups.putIfAbsent(group, new ConcurrentHashMap<String, OperationStats>());
+      stats = groups.get(group);
+    }
+    return stats;
+  }
+
+  private OperationStats getStats(ConcurrentMap<String, OperationStats> group, String name) {
+    OperationStats stats = group.get(name);
+    if (stats == null) {
+      group.putIfAbsent(name, new OperationStats());
+      stats = group.get(name);
+    }
+    return stats;
+  }
+}
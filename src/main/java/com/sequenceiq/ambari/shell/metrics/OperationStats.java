@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a single command or REST endpoint.
+ */
+public class OperationStats {
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+
+  void record(long nanos, long size, boolean error) {
+    latency.record(nanos);
+    bytes.addAndGet(Math.max(0, size));
+    if (error) {
+      errors.incrementAndGet();
+    }
+  }
+
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  public long getErrors() {
+    return errors.get();
+  }
+
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+}
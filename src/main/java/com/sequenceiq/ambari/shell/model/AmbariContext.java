@@ -25,10 +25,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class AmbariContext {
 
-  private String cluster;
-  private boolean blueprintsAvailable;
-  private Focus focus;
-  private Hints hint;
+  private volatile String cluster;
+  private volatile boolean blueprintsAvailable;
+  private volatile boolean connecting;
+  private volatile boolean offline;
+  private volatile Focus focus;
+  private volatile Hints hint;
 
   public AmbariContext() {
     this.focus = getRootFocus();
@@ -92,10 +94,46 @@ public class AmbariContext {
    */
   public String getPrompt() {
     return focus.isType(FocusType.ROOT) ?
-      isConnectedToCluster() ? formatPrompt(focus.getPrefix(), cluster) : "ambari-shell>" :
+      isConnectedToCluster() ? formatPrompt(focus.getPrefix(), cluster) : getRootPrompt() :
       formatPrompt(focus.getPrefix(), focus.getValue());
   }
 
+  /**
+   * Sets whether the shell is still waiting for the Ambari Server to respond.
+   *
+   * @param connecting true while connecting false otherwise
+   */
+  public void setConnecting(boolean connecting) {
+    this.connecting = connecting;
+  }
+
+  /**
+   * Checks whether the shell is still waiting for the Ambari Server to respond.
+   *
+   * @return true while connecting false otherwise
+   */
+  public boolean isConnecting() {
+    return connecting;
+  }
+
+  /**
+   * Sets whether the commands are answered from a snapshot instead of the Ambari Server.
+   *
+   * @param offline true if a snapshot is loaded false otherwise
+   */
+  public void setOffline(boolean offline) {
+    this.offline = offline;
+  }
+
+  /**
+   * Checks whether the commands are answered from a snapshot instead of the Ambari Server.
+   *
+   * @return true if a snapshot is loaded false otherwise
+   */
+  public boolean isOffline() {
+    return offline;
+  }
+
   public boolean isConnectedToCluster() {
     return cluster != null;
   }
@@ -153,7 +191,11 @@ public class AmbariContext {
     return new Focus("root", FocusType.ROOT);
   }
 
+  private String getRootPrompt() {
+    return connecting ? "ambari-shell(connecting)>" : offline ? "ambari-shell(offline)>" : "ambari-shell>";
+  }
+
   private String formatPrompt(String prefix, String postfix) {
-    return String.format("%s:%s>", prefix, postfix);
+    return String.format("%s:%s%s>", prefix, postfix, offline ? "(offline)" : "");
   }
 }
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.model;
+
+/**
+ * Named connection details of an Ambari Server.
+ */
+public class ConnectionProfile {
+
+  private final String name;
+  private final String host;
+  private final String port;
+  private final String user;
+  private final String password;
+
+  public ConnectionProfile(String name, String host, String port, String user, String password) {
+    this.name = name;
+    this.host = host;
+    this.port = port;
+    this.user = user;
+    this.password = password;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public String getPort() {
+    return port;
+  }
+
+  public String getUser() {
+    return user;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  /**
+   * Returns the base URI of the REST API of the server.
+   *
+   * @return e.g. http://localhost:8080/api/v1/
+   */
+  public String getUri() {
+    return String.format("http://%s:%s/api/v1/", host, port);
+  }
+}
@@ -22,6 +22,11 @@ package com.sequenceiq.ambari.shell.model;
  */
 public enum Hints {
 
+  /**
+   * Hint while the shell is connecting to the Ambari Server.
+   */
+  CONNECTING("Connecting to the Ambari Server, the prompt changes once it responds."),
+
   /**
    * Hint for adding blueprints.
    */
@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Host - host group assignments of a cluster being built. Host names are interned to
+ * integer ids and every host group keeps its hosts in a bit set, so membership checks,
+ * assign, unassign and move are constant time and a host is never assigned twice to
+ * the same host group. The map the Ambari client expects is only created on demand.
+ */
+public class HostGroupAssignments {
+
+  private final Map<String, Integer> groupIds = new LinkedHashMap<String, Integer>();
+  private final BitSet[] members;
+  private final Map<String, Integer> hostIds = new HashMap<String, Integer>();
+  private final List<String> hostNames = new ArrayList<String>();
+  private int size;
+
+  /**
+   * @param groups names of the host groups
+   */
+  public HostGroupAssignments(Collection<String> groups) {
+    for (String group : groups) {
+      if (!groupIds.containsKey(group)) {
+        groupIds.put(group, groupIds.size());
+      }
+    }
+    members = new BitSet[groupIds.size()];
+    for (int i = 0; i < members.length; i++) {
+      members[i] = new BitSet();
+    }
+  }
+
+  /**
+   * Creates the assignments from the format of the Ambari client, duplicates are dropped.
+   *
+   * @param assignments host names by host group name
+   * @return assignments
+   */
+  public static HostGroupAssignments from(Map<String, List<String>> assignments) {
+    HostGroupAssignments result = new HostGroupAssignments(assignments.keySet());
+    for (Map.Entry<String, List<String>> entry : assignments.entrySet()) {
+      for (String host : entry.getValue()) {
+        result.assign(host, entry.getKey());
+      }
+    }
+    return result;
+  }
+
+  public boolean hasGroup(String group) {
+    return groupIds.containsKey(group);
+  }
+
+  /**
+   * Assigns a host to a host group.
+   *
+   * @param host  host name
+   * @param group host group name
+   * @return true if the host was assigned, false if it was already assigned to the host group
+   * @throws IllegalArgumentException if the host group does not exist
+   */
+  public boolean assign(String host, String group) {
+    BitSet hosts = members[groupId(group)];
+    Integer id = hostIds.get(host);
+    if (id == null) {
+      id = hostNames.size();
+      hostIds.put(host, id);
+      hostNames.add(host);
+    } else if (hosts.get(id)) {
+      return false;
+    }
+    hosts.set(id);
+    size++;
+    return true;
+  }
+
+  /**
+   * Removes a host from a host group.
+   *
+   * @param host  host name
+   * @param group host group name
+   * @return true if the host was assigned to the host group
+   * @throws IllegalArgumentException if the host group does not exist
+   */
+  public boolean unassign(String host, String group) {
+    BitSet hosts = members[groupId(group)];
+    Integer id = hostIds.get(host);
+    if (id == null || !hosts.get(id)) {
+      return false;
+    }
+    hosts.clear(id);
+    size--;
+    return true;
+  }
+
+  /**
+   * Removes a host from every host group.
+   *
+   * @param host host name
+   * @return number of host groups the host was removed from
+   */
+  public int unassign(String host) {
+    Integer id = hostIds.get(host);
+    int result = 0;
+    if (id != null) {
+      for (BitSet hosts : members) {
+        if (hosts.get(id)) {
+          hosts.clear(id);
+          result++;
+        }
+      }
+      size -= result;
+    }
+    return result;
+  }
+
+  /**
+   * Moves a host from one host group to another.
+   *
+   * @param host host name
+   * @param from host group the host is assigned to
+   * @param to   host group to assign the host to
+   * @return true if the host was moved, false if it was not assigned to the source host group
+   * @throws IllegalArgumentException if a host group does not exist
+   */
+  public boolean move(String host, String from, String to) {
+    groupId(to);
+    if (!unassign(host, from)) {
+      return false;
+    }
+    assign(host, to);
+    return true;
+  }
+
+  public boolean isAssigned(String host, String group) {
+    Integer id = hostIds.get(host);
+    Integer groupId = groupIds.get(group);
+    return id != null && groupId != null && members[groupId].get(id);
+  }
+
+  /**
+   * Returns the host groups of a host.
+   *
+   * @param host host name
+   * @return names of the host groups the host is assigned to
+   */
+  public List<String> getGroups(String host) {
+    List<String> result = new ArrayList<String>();
+    Integer id = hostIds.get(host);
+    if (id != null) {
+      for (Map.Entry<String, Integer> entry : groupIds.entrySet()) {
+        if (members[entry.getValue()].get(id)) {
+          result.add(entry.getKey());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the hosts of a host group in the order they were first assigned to any host group.
+   *
+   * @param group host group name
+   * @return host names
+   * @throws IllegalArgumentException if the host group does not exist
+   */
+  public List<String> getHosts(String group) {
+    BitSet hosts = members[groupId(group)];
+    List<String> result = new ArrayList<String>(hosts.cardinality());
+    for (int id = hosts.nextSetBit(0); id >= 0; id = hosts.nextSetBit(id + 1)) {
+      result.add(hostNames.get(id));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of host - host group assignments.
+   *
+   * @return number of assignments
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Creates the format the Ambari client expects.
+   *
+   * @return host names by host group name, including the empty host groups
+   */
+  public Map<String, List<String>> toMap() {
+    Map<String, List<String>> result = new LinkedHashMap<String, List<String>>();
+    for (String group : groupIds.keySet()) {
+      result.put(group, getHosts(group));
+    }
+    return result;
+  }
+
+  private int groupId(String group) {
+    Integer id = groupIds.get(group);
+    if (id == null) {
+      throw new IllegalArgumentException(group + " is not a valid host group");
+    }
+    return id;
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.model;
+
+/**
+ * Resources and rack of a host, used to plan the host - host group assignments.
+ */
+public class HostResources {
+
+  /**
+   * Rack of the hosts without rack information, the same as Ambari's default rack.
+   */
+  public static final String DEFAULT_RACK = "/default-rack";
+
+  private final String name;
+  private final int cores;
+  private final long memory;
+  private final int disks;
+  private final String rack;
+
+  /**
+   * @param name   host name
+   * @param cores  number of cpu cores
+   * @param memory memory in kB, the unit the Ambari Server reports
+   * @param disks  number of data disks
+   * @param rack   rack of the host, can be null
+   */
+  public HostResources(String name, int cores, long memory, int disks, String rack) {
+    this.name = name;
+    this.cores = cores;
+    this.memory = memory;
+    this.disks = disks;
+    this.rack = rack == null || rack.isEmpty() ? DEFAULT_RACK : rack;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getCores() {
+    return cores;
+  }
+
+  public long getMemory() {
+    return memory;
+  }
+
+  public int getDisks() {
+    return disks;
+  }
+
+  public String getRack() {
+    return rack;
+  }
+}
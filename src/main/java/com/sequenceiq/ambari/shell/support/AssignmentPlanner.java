@@ -0,0 +1,282 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+
+import com.sequenceiq.ambari.shell.model.HostResources;
+
+/**
+ * Plans the host - host group assignments of a blueprint. The plan respects the cardinality
+ * of the host groups, gives the strongest hosts to the host groups with bounded cardinality
+ * (usually the masters), spreads the hosts of every host group across the racks and balances
+ * the resources of the remaining hosts between the host groups by their number of components.
+ * The planner is greedy: every step picks the least served host group and the strongest host
+ * from the rack the host group has the fewest hosts in, so a plan takes O(hosts * (groups + racks)).
+ */
+public class AssignmentPlanner {
+
+  private final Map<String, List<String>> blueprint;
+  private final Map<String, Cardinality> cardinalities;
+
+  /**
+   * @param blueprint     components by host group name
+   * @param cardinalities cardinality by host group name, the other host groups require at least one host
+   * @throws IllegalArgumentException if a cardinality belongs to an unknown host group
+   */
+  public AssignmentPlanner(Map<String, List<String>> blueprint, Map<String, Cardinality> cardinalities) {
+    for (String group : cardinalities.keySet()) {
+      if (!blueprint.containsKey(group)) {
+        throw new IllegalArgumentException(group + " is not a valid host group");
+      }
+    }
+    this.blueprint = blueprint;
+    this.cardinalities = cardinalities;
+  }
+
+  /**
+   * Assigns the hosts to the host groups. Hosts are left unassigned only if every host group
+   * reached its maximum cardinality.
+   *
+   * @param hosts hosts to assign
+   * @return assigned host names by host group name
+   * @throws IllegalArgumentException if there are not enough hosts for the minimum cardinalities
+   */
+  public Map<String, List<String>> plan(Collection<HostResources> hosts) {
+    List<Group> groups = createGroups();
+    int required = 0;
+    for (Group group : groups) {
+      required += group.cardinality.getMin();
+    }
+    if (required > hosts.size()) {
+      throw new IllegalArgumentException(String.format(
+        "The host groups require at least %d hosts, only %d available", required, hosts.size()));
+    }
+    Racks racks = new Racks(hosts, groups.size());
+    for (Group group : groups) {
+      while (group.hosts.size() < group.cardinality.getMin()) {
+        racks.assign(group);
+      }
+    }
+    Group group = leastServed(groups);
+    while (group != null && !racks.isEmpty()) {
+      racks.assign(group);
+      group = leastServed(groups);
+    }
+    Map<String, List<String>> result = new LinkedHashMap<String, List<String>>();
+    for (Group assigned : groups) {
+      Collections.sort(assigned.hosts);
+      result.put(assigned.name, assigned.hosts);
+    }
+    return result;
+  }
+
+  /**
+   * Reads the resources of the hosts from a file. Every line describes a host with its name
+   * followed by whitespace separated key=value pairs: cores, memory (kB), disks and rack.
+   * Empty lines and lines starting with # are skipped.
+   *
+   * @param file resource file
+   * @return resources by host name
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a line is invalid
+   */
+  public static Map<String, HostResources> readResources(File file) throws IOException {
+    Map<String, HostResources> result = new LinkedHashMap<String, HostResources>();
+    for (String line : FileUtils.readLines(file)) {
+      String trimmed = line.trim();
+      if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+        HostResources resources = parseResources(trimmed);
+        result.put(resources.getName(), resources);
+      }
+    }
+    return result;
+  }
+
+  static HostResources parseResources(String line) {
+    String[] tokens = line.split("\\s+");
+    int cores = 1;
+    long memory = 0;
+    int disks = 1;
+    String rack = null;
+    try {
+      for (int i = 1; i < tokens.length; i++) {
+        int separator = tokens[i].indexOf('=');
+        String key = separator < 0 ? tokens[i] : tokens[i].substring(0, separator);
+        String value = tokens[i].substring(separator + 1);
+        if ("cores".equals(key)) {
+          cores = Integer.parseInt(value);
+        } else if ("memory".equals(key)) {
+          memory = Long.parseLong(value);
+        } else if ("disks".equals(key)) {
+          disks = Integer.parseInt(value);
+        } else if ("rack".equals(key)) {
+          rack = value;
+        } else {
+          throw new IllegalArgumentException("Unknown host resource: " + tokens[i]);
+        }
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid host resources: " + line);
+    }
+    return new HostResources(tokens[0], cores, memory, disks, rack);
+  }
+
+  /**
+   * The host groups with bounded cardinality come first, the ones with more components
+   * first among them, so they get the strongest hosts.
+   */
+  private List<Group> createGroups() {
+    List<Group> groups = new ArrayList<Group>();
+    int index = 0;
+    for (Map.Entry<String, List<String>> entry : blueprint.entrySet()) {
+      Cardinality cardinality = cardinalities.get(entry.getKey());
+      groups.add(new Group(index++, entry.getKey(), Math.max(1, entry.getValue().size()),
+        cardinality == null ? Cardinality.AT_LEAST_ONE : cardinality));
+    }
+    Collections.sort(groups, new Comparator<Group>() {
+      @Override
+      public int compare(Group o1, Group o2) {
+        if (o1.cardinality.isBounded() != o2.cardinality.isBounded()) {
+          return o1.cardinality.isBounded() ? -1 : 1;
+        }
+        if (o1.weight != o2.weight) {
+          return o1.weight > o2.weight ? -1 : 1;
+        }
+        return o1.name.compareTo(o2.name);
+      }
+    });
+    return groups;
+  }
+
+  private Group leastServed(List<Group> groups) {
+    Group result = null;
+    for (Group group : groups) {
+      if (group.hosts.size() < group.cardinality.getMax()
+        && (result == null || group.score / group.weight < result.score / result.weight)) {
+        result = group;
+      }
+    }
+    return result;
+  }
+
+  private static final class Group {
+    private final int index;
+    private final String name;
+    private final int weight;
+    private final Cardinality cardinality;
+    private final List<String> hosts = new ArrayList<String>();
+    private double score;
+
+    private Group(int index, String name, int weight, Cardinality cardinality) {
+      this.index = index;
+      this.name = name;
+      this.weight = weight;
+      this.cardinality = cardinality;
+    }
+  }
+
+  /**
+   * Unassigned hosts by rack, every rack is ordered by the score of its hosts descending.
+   */
+  private static final class Racks {
+    private final List<List<HostResources>> hosts = new ArrayList<List<HostResources>>();
+    private final List<double[]> scores = new ArrayList<double[]>();
+    private final int[] next;
+    private final int[][] assigned;
+    private int remaining;
+
+    private Racks(Collection<HostResources> all, int groups) {
+      double maxCores = 1;
+      double maxMemory = 1;
+      double maxDisks = 1;
+      for (HostResources host : all) {
+        maxCores = Math.max(maxCores, host.getCores());
+        maxMemory = Math.max(maxMemory, host.getMemory());
+        maxDisks = Math.max(maxDisks, host.getDisks());
+      }
+      final Map<HostResources, Double> score = new IdentityHashMap<HostResources, Double>();
+      for (HostResources host : all) {
+        score.put(host, host.getCores() / maxCores + host.getMemory() / maxMemory + host.getDisks() / maxDisks);
+      }
+      List<HostResources> sorted = new ArrayList<HostResources>(all);
+      Collections.sort(sorted, new Comparator<HostResources>() {
+        @Override
+        public int compare(HostResources o1, HostResources o2) {
+          int result = Double.compare(score.get(o2), score.get(o1));
+          return result == 0 ? o1.getName().compareTo(o2.getName()) : result;
+        }
+      });
+      Map<String, List<HostResources>> byRack = new TreeMap<String, List<HostResources>>();
+      for (HostResources host : sorted) {
+        List<HostResources> rack = byRack.get(host.getRack());
+        if (rack == null) {
+          rack = new ArrayList<HostResources>();
+          byRack.put(host.getRack(), rack);
+        }
+        rack.add(host);
+      }
+      for (List<HostResources> rack : byRack.values()) {
+        double[] rackScores = new double[rack.size()];
+        for (int i = 0; i < rackScores.length; i++) {
+          rackScores[i] = score.get(rack.get(i));
+        }
+        hosts.add(rack);
+        scores.add(rackScores);
+      }
+      next = new int[hosts.size()];
+      assigned = new int[groups][hosts.size()];
+      remaining = all.size();
+    }
+
+    private boolean isEmpty() {
+      return remaining == 0;
+    }
+
+    /**
+     * Assigns the strongest host of the rack with the fewest hosts of the group.
+     */
+    private void assign(Group group) {
+      int[] counts = assigned[group.index];
+      int best = -1;
+      for (int rack = 0; rack < hosts.size(); rack++) {
+        if (next[rack] < hosts.get(rack).size() && (best < 0 || counts[rack] < counts[best]
+          || counts[rack] == counts[best] && scores.get(rack)[next[rack]] > scores.get(best)[next[best]])) {
+          best = rack;
+        }
+      }
+      int position = next[best]++;
+      group.hosts.add(hosts.get(best).get(position).getName());
+      group.score += scores.get(best)[position];
+      counts[best]++;
+      remaining--;
+    }
+  }
+}
@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.shell.core.JLineShellComponent;
+import org.springframework.shell.event.ParseResult;
+
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
+
+/**
+ * Executes the commands of a script file. Consecutive commands which don't depend on each
+ * other (read only queries or blueprint uploads) are executed concurrently, everything else
+ * is a barrier and executed on its own through the shell. The output is printed in the
+ * original order and the execution stops at the first failing command.
+ */
+public class BatchScriptExecutor {
+
+  private static final List<String> READ_COMMANDS = Arrays.asList(
+    "blueprint list", "blueprint show", "cluster preview", "services list", "host list", "hint", "cache stats");
+  private static final List<String> INDEPENDENT_COMMANDS = Arrays.asList("blueprint add");
+
+  private final JLineShellComponent shell;
+  private final int parallelism;
+  private final CommandInvoker invoker;
+  private final PrintStream out;
+
+  /**
+   * @param shell       shell to parse and execute the commands with
+   * @param parallelism maximum number of concurrently executed commands
+   * @param registry    where to record the concurrently executed commands, can be null
+   */
+  public BatchScriptExecutor(JLineShellComponent shell, int parallelism, MetricsRegistry registry) {
+    this(shell, parallelism, registry, System.out);
+  }
+
+  BatchScriptExecutor(JLineShellComponent shell, int parallelism, MetricsRegistry registry, PrintStream out) {
+    this.shell = shell;
+    this.parallelism = parallelism;
+    this.invoker = new CommandInvoker(shell, registry);
+    this.out = out;
+  }
+
+  /**
+   * Executes the commands.
+   *
+   * @param lines commands to execute
+   * @return true if every command succeeded false otherwise
+   */
+  public boolean execute(String... lines) {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("batch-");
+    threadFactory.setDaemon(true);
+    ExecutorService workers = Executors.newFixedThreadPool(parallelism, threadFactory);
+    try {
+      int start = 0;
+      while (start < lines.length) {
+        Kind kind = classify(lines[start]);
+        int end = start + 1;
+        while (kind != Kind.SEQUENTIAL && end < lines.length && classify(lines[end]) == kind) {
+          end++;
+        }
+        boolean success = end - start == 1
+          ? shell.executeScriptLine(lines[start])
+          : executeConcurrently(workers, Arrays.asList(lines).subList(start, end));
+        if (!success) {
+          return false;
+        }
+        start = end;
+      }
+      return true;
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Determines whether the command can be executed together with its neighbours.
+   * Commands which print straight to the console (e.g. streamed tables) or change
+   * the state of the shell are always sequential.
+   *
+   * @param line command
+   * @return kind of the command
+   */
+  static Kind classify(String line) {
+    String command = line.trim().replaceAll("\\s+", " ");
+    if (startsWithAny(command, READ_COMMANDS)) {
+      return Kind.READ;
+    } else if (startsWithAny(command, INDEPENDENT_COMMANDS)) {
+      return Kind.INDEPENDENT;
+    }
+    return Kind.SEQUENTIAL;
+  }
+
+  private static boolean startsWithAny(String command, List<String> prefixes) {
+    for (String prefix : prefixes) {
+      if (command.equals(prefix) || command.startsWith(prefix + " ")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Commands are parsed upfront in order without reporting the errors. A parse error ends the
+   * group: the commands before it are finished and printed first, then the invalid line is
+   * handed to the shell, which reports the error, and nothing after it is executed.
+   */
+  private boolean executeConcurrently(ExecutorService workers, List<String> lines) {
+    List<Future<Object>> futures = new ArrayList<Future<Object>>(lines.size());
+    String invalidLine = null;
+    for (String line : lines) {
+      final ParseResult parseResult = invoker.parseQuietly(line);
+      if (parseResult == null) {
+        invalidLine = line;
+        break;
+      }
+      futures.add(workers.submit(new Callable<Object>() {
+        @Override
+        public Object call() {
+          return invoker.invoke(parseResult);
+        }
+      }));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        CommandInvoker.print(futures.get(i).get(), out);
+      } catch (ExecutionException e) {
+        out.println(CommandInvoker.describeFailure(e.getCause()));
+        cancel(futures.subList(i + 1, futures.size()));
+        return false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel(futures.subList(i + 1, futures.size()));
+        return false;
+      }
+    }
+    if (invalidLine != null) {
+      shell.executeScriptLine(invalidLine);
+      return false;
+    }
+    return true;
+  }
+
+  private void cancel(List<Future<Object>> futures) {
+    for (Future<Object> future : futures) {
+      future.cancel(true);
+    }
+  }
+
+  /**
+   * Dependency class of a command.
+   */
+  enum Kind {
+    READ, INDEPENDENT, SEQUENTIAL
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.IOException;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+/**
+ * Extracts the name of a blueprint with a streaming parser instead of building the whole
+ * tree. The entire document is still read so malformed json is rejected.
+ */
+public final class BlueprintNameReader {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String BLUEPRINTS = "Blueprints";
+  private static final String BLUEPRINT_NAME = "blueprint_name";
+
+  private BlueprintNameReader() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * Validates the blueprint json and returns its name.
+   *
+   * @param json blueprint json
+   * @return value of Blueprints.blueprint_name
+   * @throws IOException if the json is malformed or doesn't contain the name
+   */
+  public static String readName(String json) throws IOException {
+    JsonParser parser = JSON_FACTORY.createJsonParser(json);
+    try {
+      String name = null;
+      String field = null;
+      boolean inBlueprints = false;
+      int depth = 0;
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        switch (token) {
+          case START_OBJECT:
+            depth++;
+            if (depth == 2) {
+              inBlueprints = BLUEPRINTS.equals(field);
+            }
+            break;
+          case START_ARRAY:
+            depth++;
+            break;
+          case END_OBJECT:
+          case END_ARRAY:
+            if (depth == 2) {
+              inBlueprints = false;
+            }
+            depth--;
+            break;
+          case FIELD_NAME:
+            field = parser.getCurrentName();
+            break;
+          case VALUE_STRING:
+            if (inBlueprints && depth == 2 && BLUEPRINT_NAME.equals(field)) {
+              name = parser.getText();
+            }
+            break;
+          default:
+            break;
+        }
+      }
+      if (name == null || name.isEmpty()) {
+        throw new IOException("missing Blueprints.blueprint_name");
+      }
+      return name;
+    } finally {
+      parser.close();
+    }
+  }
+}
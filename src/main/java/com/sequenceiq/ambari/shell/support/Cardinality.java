@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Number of hosts a host group requires. Parsed from expressions like 1 (exactly one),
+ * 3+ (at least three), 2-5 (between two and five) or * (any number).
+ */
+public final class Cardinality {
+
+  /**
+   * Cardinality of the host groups without explicit cardinality.
+   */
+  public static final Cardinality AT_LEAST_ONE = new Cardinality(1, Integer.MAX_VALUE);
+
+  private final int min;
+  private final int max;
+
+  public Cardinality(int min, int max) {
+    if (min < 0 || max < min) {
+      throw new IllegalArgumentException(String.format("Invalid cardinality: %d-%d", min, max));
+    }
+    this.min = min;
+    this.max = max;
+  }
+
+  public int getMin() {
+    return min;
+  }
+
+  public int getMax() {
+    return max;
+  }
+
+  public boolean isBounded() {
+    return max != Integer.MAX_VALUE;
+  }
+
+  /**
+   * Parses a cardinality expression.
+   *
+   * @param expression e.g. 1, 3+, 2-5 or *
+   * @return cardinality
+   * @throws IllegalArgumentException if the expression is invalid
+   */
+  public static Cardinality parse(String expression) {
+    String value = expression.trim();
+    try {
+      if ("*".equals(value)) {
+        return new Cardinality(0, Integer.MAX_VALUE);
+      } else if (value.endsWith("+")) {
+        return new Cardinality(Integer.parseInt(value.substring(0, value.length() - 1)), Integer.MAX_VALUE);
+      } else if (value.indexOf('-') > 0) {
+        int separator = value.indexOf('-');
+        return new Cardinality(Integer.parseInt(value.substring(0, separator)),
+          Integer.parseInt(value.substring(separator + 1)));
+      }
+      int count = Integer.parseInt(value);
+      return new Cardinality(count, count);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cardinality: " + expression);
+    }
+  }
+
+  /**
+   * Parses the cardinality of several host groups.
+   *
+   * @param expressions comma separated host group - cardinality pairs, e.g. master=1,slave=3+
+   * @return cardinality by host group name
+   * @throws IllegalArgumentException if an expression is invalid
+   */
+  public static Map<String, Cardinality> parseAll(String expressions) {
+    Map<String, Cardinality> result = new LinkedHashMap<String, Cardinality>();
+    for (String expression : expressions.split(",")) {
+      if (!expression.trim().isEmpty()) {
+        int separator = expression.indexOf('=');
+        if (separator < 0) {
+          throw new IllegalArgumentException("Missing host group of cardinality: " + expression.trim());
+        }
+        result.put(expression.substring(0, separator).trim(), parse(expression.substring(separator + 1)));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    if (min == max) {
+      return String.valueOf(min);
+    }
+    return isBounded() ? min + "-" + max : min + "+";
+  }
+}
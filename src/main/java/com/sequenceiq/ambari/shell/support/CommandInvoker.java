@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.PrintStream;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.shell.core.JLineShellComponent;
+import org.springframework.shell.core.SimpleParser;
+import org.springframework.shell.event.ParseResult;
+import org.springframework.util.ReflectionUtils;
+
+import com.sequenceiq.ambari.shell.metrics.InstrumentedExecutionStrategy;
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
+
+/**
+ * Executes commands outside the prompt loop, for the concurrent script groups and the daemon.
+ * The execution strategy of the shell serializes every command, so the parsed commands are
+ * invoked directly, but they are timed like the ones of the instrumented strategy and their
+ * results are printed the same way the shell prints them.
+ */
+public class CommandInvoker {
+
+  private final JLineShellComponent shell;
+  private final MetricsRegistry registry;
+
+  /**
+   * @param shell    shell to parse the commands with
+   * @param registry where to record the commands, can be null
+   */
+  public CommandInvoker(JLineShellComponent shell, MetricsRegistry registry) {
+    this.shell = shell;
+    this.registry = registry;
+  }
+
+  /**
+   * Parses a command, errors are reported by the parser.
+   *
+   * @param line command line
+   * @return parsed command or null if it's invalid
+   */
+  public ParseResult parse(String line) {
+    return shell.getSimpleParser().parse(line);
+  }
+
+  /**
+   * Parses a command without reporting the errors, so they can be reported later in order.
+   *
+   * @param line command line
+   * @return parsed command or null if it's invalid
+   */
+  public ParseResult parseQuietly(String line) {
+    Logger logger = Logger.getLogger(SimpleParser.class.getName());
+    Level level = logger.getLevel();
+    logger.setLevel(Level.OFF);
+    try {
+      return parse(line);
+    } finally {
+      logger.setLevel(level);
+    }
+  }
+
+  /**
+   * Invokes a parsed command and records its execution time.
+   *
+   * @param parseResult parsed command
+   * @return result of the command
+   * @throws RuntimeException if the command fails
+   */
+  public Object invoke(final ParseResult parseResult) {
+    return InstrumentedExecutionStrategy.time(registry, parseResult, new Callable<Object>() {
+      @Override
+      public Object call() {
+        return ReflectionUtils.invokeMethod(
+          parseResult.getMethod(), parseResult.getInstance(), parseResult.getArguments());
+      }
+    });
+  }
+
+  /**
+   * Prints the result of a command, every element of an iterable result in its own line.
+   *
+   * @param result result of the command, nothing is printed for null
+   * @param out    where to print
+   */
+  public static void print(Object result, PrintStream out) {
+    if (result instanceof Iterable) {
+      for (Object line : (Iterable<?>) result) {
+        out.println(line);
+      }
+    } else if (result != null) {
+      out.println(result);
+    }
+  }
+
+  /**
+   * Returns the message of a failed command.
+   *
+   * @param e cause of the failure
+   * @return message printed for the failure
+   */
+  public static String describeFailure(Throwable e) {
+    return "Command failed " + (e.getMessage() == null ? e.toString() : e.getMessage());
+  }
+}
@@ -0,0 +1,336 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.cache.MetadataCache;
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+import com.sequenceiq.ambari.shell.configuration.AmbariClientTransport;
+import com.sequenceiq.ambari.shell.configuration.HttpSettings;
+import com.sequenceiq.ambari.shell.metrics.MetricsRegistry;
+import com.sequenceiq.ambari.shell.model.ConnectionProfile;
+
+import groovyx.net.http.RESTClient;
+
+/**
+ * Named connection profiles of Ambari Servers. The shell keeps using the same client,
+ * switching to a profile re-points its REST client to the other server and drops
+ * everything cached about the previous one. Fan-out queries use a separate client for
+ * every server and query them concurrently.
+ */
+public class ConnectionProfiles {
+
+  /**
+   * Name of the profile created from the ambari.host, ambari.port.. options.
+   */
+  public static final String DEFAULT = "default";
+
+  private static final String[] PROPERTIES = {"host", "port", "user", "password"};
+
+  private final AmbariClient client;
+  private final MetadataCache cache;
+  private final TaskTracker taskTracker;
+  private final FanOutExecutor fanOutExecutor;
+  private final MetricsRegistry registry;
+  private final HttpSettings httpSettings;
+  private final Map<String, ConnectionProfile> profiles = new TreeMap<String, ConnectionProfile>();
+  private final Map<String, AmbariClient> fanOutClients = new HashMap<String, AmbariClient>();
+  private String active;
+
+  /**
+   * @param client         client of the shell, connected to the default profile
+   * @param defaultProfile profile of the client
+   * @param cache          metadata cache of the client
+   * @param taskTracker    task tracker of the client
+   * @param fanOutExecutor executes the fan-out queries
+   * @param registry       where to record the REST calls of the fan-out clients, can be null
+   * @param httpSettings   transport settings of the fan-out clients, can be null
+   */
+  public ConnectionProfiles(AmbariClient client, ConnectionProfile defaultProfile, MetadataCache cache,
+    TaskTracker taskTracker, FanOutExecutor fanOutExecutor, MetricsRegistry registry, HttpSettings httpSettings) {
+    this.client = client;
+    this.cache = cache;
+    this.taskTracker = taskTracker;
+    this.fanOutExecutor = fanOutExecutor;
+    this.registry = registry;
+    this.httpSettings = httpSettings;
+    this.profiles.put(defaultProfile.getName(), defaultProfile);
+    this.active = defaultProfile.getName();
+  }
+
+  /**
+   * Loads the profiles from a properties file, the keys are prefixed by the name of the
+   * profile: prod1.host, prod1.port, prod1.user, prod1.password. The port, the user and the
+   * password fall back to the ones of the default profile.
+   *
+   * @param file properties file
+   * @return number of loaded profiles
+   * @throws IOException if the file cannot be read
+   */
+  public int load(File file) throws IOException {
+    Properties properties = new Properties();
+    InputStream in = new FileInputStream(file);
+    try {
+      properties.load(in);
+    } finally {
+      in.close();
+    }
+    ConnectionProfile defaults = get(DEFAULT);
+    Map<String, String[]> values = new LinkedHashMap<String, String[]>();
+    for (String key : properties.stringPropertyNames()) {
+      int dot = key.lastIndexOf('.');
+      int index = dot < 0 ? -1 : indexOf(key.substring(dot + 1));
+      if (index < 0) {
+        throw new IOException("Invalid profile property: " + key);
+      }
+      String name = key.substring(0, dot);
+      if (!values.containsKey(name)) {
+        values.put(name, new String[]{null, defaults.getPort(), defaults.getUser(), defaults.getPassword()});
+      }
+      values.get(name)[index] = properties.getProperty(key).trim();
+    }
+    for (Map.Entry<String, String[]> entry : values.entrySet()) {
+      String[] value = entry.getValue();
+      if (value[0] == null) {
+        throw new IOException("Missing host of profile: " + entry.getKey());
+      }
+      add(new ConnectionProfile(entry.getKey(), value[0], value[1], value[2], value[3]));
+    }
+    return values.size();
+  }
+
+  /**
+   * Adds or replaces a profile. The active profile cannot be replaced.
+   *
+   * @param profile profile to add
+   * @throws IllegalArgumentException if the profile is active
+   */
+  public synchronized void add(ConnectionProfile profile) {
+    if (profile.getName().equals(active)) {
+      throw new IllegalArgumentException("Cannot replace the active profile: " + active);
+    }
+    profiles.put(profile.getName(), profile);
+    fanOutClients.remove(profile.getName());
+  }
+
+  /**
+   * Removes a profile. The active profile cannot be removed.
+   *
+   * @param name name of the profile
+   * @return true if it was removed false if it does not exist
+   * @throws IllegalArgumentException if the profile is active
+   */
+  public synchronized boolean remove(String name) {
+    if (name.equals(active)) {
+      throw new IllegalArgumentException("Cannot remove the active profile: " + active);
+    }
+    fanOutClients.remove(name);
+    return profiles.remove(name) != null;
+  }
+
+  /**
+   * Returns the profile with the given name.
+   *
+   * @param name name of the profile
+   * @return profile or null if it does not exist
+   */
+  public synchronized ConnectionProfile get(String name) {
+    return profiles.get(name);
+  }
+
+  /**
+   * Returns every profile ordered by name.
+   *
+   * @return profiles
+   */
+  public synchronized List<ConnectionProfile> getProfiles() {
+    return new ArrayList<ConnectionProfile>(profiles.values());
+  }
+
+  public synchronized String getActive() {
+    return active;
+  }
+
+  /**
+   * Points the client of the shell to the server of the profile and drops the cached
+   * metadata and tasks of the previous server.
+   *
+   * @param name name of the profile
+   * @throws IllegalArgumentException if the profile does not exist
+   */
+  public synchronized void use(String name) {
+    ConnectionProfile profile = profiles.get(name);
+    if (profile == null) {
+      throw new IllegalArgumentException("Unknown profile: " + name);
+    }
+    connect(client, profile);
+    cache.invalidateAll();
+    taskTracker.clear();
+    active = name;
+  }
+
+  /**
+   * Executes the task against every server concurrently, each request has the timeout
+   * of the fan-out executor.
+   *
+   * @param task     executed with the client of every server
+   * @param listener notified about the progress
+   * @param <T>      type of the result
+   * @return result by profile name
+   */
+  public <T> Map<String, FanOutExecutor.Result<T>> execute(final ServerTask<T> task,
+    FanOutExecutor.ProgressListener listener) {
+    return fanOutExecutor.execute(getNames(), new FanOutExecutor.Task<T>() {
+      @Override
+      public T call(String name) throws Exception {
+        return task.call(getFanOutClient(name));
+      }
+    }, listener);
+  }
+
+  /**
+   * Renders the results of a fan-out query as one table with the name of the profile as
+   * the first column. The filter and the state are applied on the merged rows, the failed
+   * servers are always listed.
+   *
+   * @param results result of the fan-out query by profile name
+   * @param filter  glob or substring the second column has to match, can be null
+   * @param state   glob or substring the third column has to match, can be null
+   * @param headers headers of the 3 columns
+   * @return rendered table with the number of queried and failed servers
+   */
+  public static String renderMerged(Map<String, FanOutExecutor.Result<Map<String, String>>> results,
+    String filter, String state, String... headers) {
+    List<String[]> rows = new ArrayList<String[]>();
+    List<String[]> failures = new ArrayList<String[]>();
+    for (Map.Entry<String, FanOutExecutor.Result<Map<String, String>>> entry : results.entrySet()) {
+      FanOutExecutor.Result<Map<String, String>> result = entry.getValue();
+      if (result.isSuccess()) {
+        for (Map.Entry<String, String> row : result.getValue().entrySet()) {
+          rows.add(new String[]{entry.getKey(), row.getKey(), row.getValue()});
+        }
+      } else {
+        failures.add(new String[]{entry.getKey(), "-", "FAILED: " + result.getError()});
+      }
+    }
+    Iterator<String[]> filtered = RowFilter.matching(RowFilter.matching(rows.iterator(), 1, filter), 2, state);
+    List<String[]> result = new ArrayList<String[]>();
+    while (filtered.hasNext()) {
+      result.add(filtered.next());
+    }
+    result.addAll(failures);
+    return String.format("%d server(s) queried, %d failed\n%s",
+      results.size(), failures.size(), TableRenderer.renderRows(result, headers));
+  }
+
+  /**
+   * Points the REST client of the Ambari client to the server of the profile.
+   *
+   * @param target  client to re-point
+   * @param profile where to point it
+   */
+  static void connect(AmbariClient target, ConnectionProfile profile) {
+    RESTClient rest = target.getAmbari();
+    Map<Object, Object> headers = new HashMap<Object, Object>(rest.getHeaders());
+    headers.put("Authorization", authorization(profile));
+    try {
+      rest.setUri(profile.getUri());
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException("Invalid server address: " + profile.getHost() + ":" + profile.getPort(), e);
+    }
+    rest.setHeaders(headers);
+  }
+
+  static String authorization(ConnectionProfile profile) {
+    try {
+      String credentials = profile.getUser() + ":" + profile.getPassword();
+      return "Basic " + new String(Base64.encodeBase64(credentials.getBytes("ISO-8859-1")), "ISO-8859-1");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Creates the client of a server used by the fan-out queries.
+   *
+   * @param profile profile of the server
+   * @return new client
+   */
+  protected AmbariClient createClient(ConnectionProfile profile) {
+    AmbariClient result = new AmbariClient(profile.getHost(), profile.getPort(), profile.getUser(), profile.getPassword());
+    if (httpSettings != null) {
+      AmbariClientTransport.configure(result, httpSettings);
+    }
+    if (registry != null) {
+      AmbariClientTransport.instrument(result, registry);
+    }
+    return result;
+  }
+
+  private synchronized List<String> getNames() {
+    return new ArrayList<String>(profiles.keySet());
+  }
+
+  private synchronized AmbariClient getFanOutClient(String name) {
+    AmbariClient result = fanOutClients.get(name);
+    if (result == null) {
+      ConnectionProfile profile = profiles.get(name);
+      if (profile == null) {
+        throw new IllegalArgumentException("Unknown profile: " + name);
+      }
+      result = createClient(profile);
+      fanOutClients.put(name, result);
+    }
+    return result;
+  }
+
+  private int indexOf(String property) {
+    for (int i = 0; i < PROPERTIES.length; i++) {
+      if (PROPERTIES[i].equals(property)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Executed against every server by the fan-out queries.
+   *
+   * @param <T> type of the result
+   */
+  public interface ServerTask<T> {
+    T call(AmbariClient client) throws Exception;
+  }
+}
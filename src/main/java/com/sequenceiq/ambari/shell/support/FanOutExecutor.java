@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Executes the same request for many keys (e.g. hosts) in parallel with a bounded
+ * number of concurrent requests. Every request has its own timeout measured from
+ * its start, failures and timeouts are reported per key instead of failing the whole run.
+ */
+public class FanOutExecutor {
+
+  private final int parallelism;
+  private final long timeout;
+  private ExecutorService workers;
+  private ScheduledExecutorService timer;
+
+  /**
+   * @param parallelism maximum number of concurrent requests
+   * @param timeout     timeout of a single request in milliseconds
+   */
+  public FanOutExecutor(int parallelism, long timeout) {
+    this.parallelism = parallelism;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Executes the task for every key and waits until all of them finish or time out.
+   *
+   * @param keys     keys to execute the task for
+   * @param task     task to execute
+   * @param listener notified after every finished request, can be null
+   * @param <T>      type of the result
+   * @return results in the iteration order of the keys
+   */
+  public <T> Map<String, Result<T>> execute(Collection<String> keys, final Task<T> task, ProgressListener listener) {
+    CompletionService<T> completionService = new ExecutorCompletionService<T>(getWorkers());
+    Map<Future<T>, String> futures = new HashMap<Future<T>, String>(keys.size());
+    for (final String key : keys) {
+      final AtomicLong started = new AtomicLong();
+      final Future<T> future = completionService.submit(new Callable<T>() {
+        @Override
+        public T call() throws Exception {
+          started.set(System.currentTimeMillis());
+          return task.call(key);
+        }
+      });
+      futures.put(future, key);
+      scheduleTimeout(future, started);
+    }
+    Map<String, Result<T>> results = new HashMap<String, Result<T>>(keys.size());
+    int total = keys.size();
+    for (int done = 1; done <= total; done++) {
+      Future<T> future = take(completionService);
+      results.put(futures.get(future), getResult(future));
+      if (listener != null) {
+        listener.onProgress(done, total);
+      }
+    }
+    Map<String, Result<T>> ordered = new LinkedHashMap<String, Result<T>>(total);
+    for (String key : keys) {
+      ordered.put(key, results.get(key));
+    }
+    return ordered;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public long getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Stops the worker threads.
+   */
+  public synchronized void shutdown() {
+    if (workers != null) {
+      workers.shutdownNow();
+      timer.shutdownNow();
+      workers = null;
+      timer = null;
+    }
+  }
+
+  private synchronized ExecutorService getWorkers() {
+    if (workers == null) {
+      CustomizableThreadFactory workerFactory = new CustomizableThreadFactory("fanout-");
+      workerFactory.setDaemon(true);
+      workers = Executors.newFixedThreadPool(parallelism, workerFactory);
+      CustomizableThreadFactory timerFactory = new CustomizableThreadFactory("fanout-timer-");
+      timerFactory.setDaemon(true);
+      timer = Executors.newSingleThreadScheduledExecutor(timerFactory);
+    }
+    return workers;
+  }
+
+  /**
+   * The timeout only counts from the moment the request actually started, queued
+   * requests are checked again later.
+   */
+  private void scheduleTimeout(final Future<?> future, final AtomicLong started) {
+    final ScheduledExecutorService scheduler = timer;
+    scheduler.schedule(new Runnable() {
+      @Override
+      public void run() {
+        if (!future.isDone()) {
+          long start = started.get();
+          long remaining = start == 0 ? timeout : start + timeout - System.currentTimeMillis();
+          if (remaining <= 0) {
+            future.cancel(true);
+          } else {
+            scheduler.schedule(this, remaining, TimeUnit.MILLISECONDS);
+          }
+        }
+      }
+    }, timeout, TimeUnit.MILLISECONDS);
+  }
+
+  private <T> Future<T> take(CompletionService<T> completionService) {
+    try {
+      return completionService.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the results", e);
+    }
+  }
+
+  private <T> Result<T> getResult(Future<T> future) {
+    Result<T> result;
+    try {
+      result = Result.success(future.get());
+    } catch (CancellationException e) {
+      result = Result.failure("timed out");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      result = Result.failure(cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result = Result.failure("interrupted");
+    }
+    return result;
+  }
+
+  /**
+   * Request executed for every key.
+   *
+   * @param <T> type of the result
+   */
+  public interface Task<T> {
+    T call(String key) throws Exception;
+  }
+
+  /**
+   * Notified about the progress of the execution.
+   */
+  public interface ProgressListener {
+    void onProgress(int done, int total);
+  }
+
+  /**
+   * Result of a single request, either the value or the error message.
+   *
+   * @param <T> type of the value
+   */
+  public static final class Result<T> {
+
+    private final T value;
+    private final String error;
+
+    private Result(T value, String error) {
+      this.value = value;
+      this.error = error;
+    }
+
+    static <T> Result<T> success(T value) {
+      return new Result<T>(value, null);
+    }
+
+    static <T> Result<T> failure(String error) {
+      return new Result<T>(null, error);
+    }
+
+    public boolean isSuccess() {
+      return error == null;
+    }
+
+    public T getValue() {
+      return value;
+    }
+
+    public String getError() {
+      return error;
+    }
+  }
+}
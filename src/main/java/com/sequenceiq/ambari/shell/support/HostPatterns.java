@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class to expand host name expressions. Supports numeric ranges like
+ * dn[001-500].example.com and globs like dn*.example.com.
+ */
+public final class HostPatterns {
+
+  /**
+   * Upper limit of the host names a single expression can expand to.
+   */
+  public static final int MAX_EXPANSION = 100000;
+
+  private static final Pattern RANGE = Pattern.compile("\\[(\\d+)-(\\d+)\\]");
+
+  private HostPatterns() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * Expands the numeric ranges of the expression. Ranges starting with a leading zero
+   * are zero padded to the width of their lower bound. Expressions without ranges
+   * are returned as they are.
+   *
+   * @param expression host name expression, e.g. dn[001-500].example.com
+   * @return expanded host names (or globs)
+   * @throws IllegalArgumentException if a range is reversed or too large
+   */
+  public static List<String> expand(String expression) {
+    Matcher matcher = RANGE.matcher(expression);
+    if (!matcher.find()) {
+      return Collections.singletonList(expression);
+    }
+    String lowerBound = matcher.group(1);
+    long from = Long.parseLong(lowerBound);
+    long to = Long.parseLong(matcher.group(2));
+    if (from > to) {
+      throw new IllegalArgumentException("Invalid range: " + matcher.group());
+    }
+    if (to - from >= MAX_EXPANSION) {
+      throw new IllegalArgumentException("Range is too large: " + matcher.group());
+    }
+    String format = lowerBound.startsWith("0") ? "%0" + lowerBound.length() + "d" : "%d";
+    String prefix = expression.substring(0, matcher.start());
+    List<String> tails = expand(expression.substring(matcher.end()));
+    List<String> result = new ArrayList<String>();
+    for (long i = from; i <= to; i++) {
+      String head = prefix + String.format(format, i);
+      for (String tail : tails) {
+        result.add(head + tail);
+        if (result.size() > MAX_EXPANSION) {
+          throw new IllegalArgumentException("Expression expands to too many hosts: " + expression);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Selects the known hosts matching any of the comma separated expressions
+   * (host names, globs or ranges). Names not known are ignored.
+   *
+   * @param knownHosts  host names to select from
+   * @param expressions comma separated host names, globs or ranges
+   * @return sorted set of the selected host names
+   * @throws IllegalArgumentException if a range is invalid
+   */
+  public static Set<String> select(Collection<String> knownHosts, String expressions) {
+    Set<String> result = new TreeSet<String>();
+    for (String expression : expressions.split(",")) {
+      for (String name : expand(expression.trim())) {
+        if (isGlob(name)) {
+          Pattern pattern = globToPattern(name);
+          for (String host : knownHosts) {
+            if (pattern.matcher(host).matches()) {
+              result.add(host);
+            }
+          }
+        } else if (knownHosts.contains(name)) {
+          result.add(name);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether the expression contains glob wildcards (* or ?).
+   *
+   * @param expression host name expression
+   * @return true if it's a glob false otherwise
+   */
+  public static boolean isGlob(String expression) {
+    return expression.indexOf('*') >= 0 || expression.indexOf('?') >= 0;
+  }
+
+  /**
+   * Converts a glob to a regular expression.
+   *
+   * @param glob glob with * and ? wildcards
+   * @return compiled pattern matching the whole host name
+   */
+  public static Pattern globToPattern(String glob) {
+    StringBuilder regex = new StringBuilder();
+    StringBuilder literal = new StringBuilder();
+    for (char c : glob.toCharArray()) {
+      if (c == '*' || c == '?') {
+        if (literal.length() > 0) {
+          regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+        }
+        regex.append(c == '*' ? ".*" : ".");
+      } else {
+        literal.append(c);
+      }
+    }
+    if (literal.length() > 0) {
+      regex.append(Pattern.quote(literal.toString()));
+    }
+    return Pattern.compile(regex.toString());
+  }
+}
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Runs the background work of the shell, e.g. the progress flashes, on a fixed number of
+ * named daemon threads. The number of queued jobs is bounded, jobs above the limit are
+ * rejected. Every job has an id, the running and queued jobs can be listed and cancelled.
+ */
+public class JobScheduler {
+
+  /**
+   * Jobs which have to release their resources or waiters when they're cancelled.
+   */
+  public interface Cancellable {
+
+    /**
+     * Called when the job is cancelled, either running or queued.
+     */
+    void cancel();
+  }
+
+  private static final String THREAD_PREFIX = "job-";
+
+  private final ThreadPoolExecutor executor;
+  private final Map<Integer, Job> jobs = new TreeMap<Integer, Job>();
+  private final AtomicInteger ids = new AtomicInteger();
+  private final AtomicLong finished = new AtomicLong();
+  private final AtomicLong cancelled = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+
+  /**
+   * @param threads       number of jobs running at once
+   * @param queueCapacity maximum number of queued jobs
+   */
+  public JobScheduler(int threads, int queueCapacity) {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(THREAD_PREFIX);
+    threadFactory.setDaemon(true);
+    executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<Runnable>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Queues a job. While it runs its thread is named after the job, so it can be found in thread dumps.
+   *
+   * @param name what the job does
+   * @param task work of the job
+   * @return the queued job
+   * @throws RejectedExecutionException if the queue is full or the scheduler is shut down
+   */
+  public Job submit(String name, final Runnable task) {
+    final Job job = new Job(ids.incrementAndGet(), name, task);
+    synchronized (jobs) {
+      jobs.put(job.id, job);
+    }
+    try {
+      job.future = executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          Thread thread = Thread.currentThread();
+          String threadName = thread.getName();
+          thread.setName(threadName + " " + job.name);
+          job.started = System.currentTimeMillis();
+          try {
+            task.run();
+          } finally {
+            thread.setName(threadName);
+            if (remove(job.id) != null) {
+              finished.incrementAndGet();
+            }
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      remove(job.id);
+      rejected.incrementAndGet();
+      throw e;
+    }
+    return job;
+  }
+
+  /**
+   * Cancels a running or queued job. Running jobs are interrupted.
+   *
+   * @param id id of the job
+   * @return true if the job was cancelled, false if there is no such job
+   */
+  public boolean cancel(int id) {
+    Job job = remove(id);
+    if (job == null) {
+      return false;
+    }
+    Future<?> future = job.future;
+    if (future != null) {
+      future.cancel(true);
+    }
+    executor.purge();
+    if (job.task instanceof Cancellable) {
+      ((Cancellable) job.task).cancel();
+    }
+    cancelled.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Returns the running and queued jobs.
+   *
+   * @return jobs ordered by id
+   */
+  public List<Job> getJobs() {
+    synchronized (jobs) {
+      return new ArrayList<Job>(jobs.values());
+    }
+  }
+
+  public long getFinished() {
+    return finished.get();
+  }
+
+  public long getCancelled() {
+    return cancelled.get();
+  }
+
+  public long getRejected() {
+    return rejected.get();
+  }
+
+  /**
+   * Interrupts the running jobs and drops the queued ones.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private Job remove(int id) {
+    synchronized (jobs) {
+      return jobs.remove(id);
+    }
+  }
+
+  /**
+   * A running or queued job.
+   */
+  public static final class Job {
+
+    private final int id;
+    private final String name;
+    private final Runnable task;
+    private final long submitted = System.currentTimeMillis();
+    private volatile long started;
+    private volatile Future<?> future;
+
+    private Job(int id, String name, Runnable task) {
+      this.id = id;
+      this.name = name;
+      this.task = task;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isRunning() {
+      return started > 0;
+    }
+
+    /**
+     * Returns how long the job has been running, or waiting if it's still queued.
+     *
+     * @return runtime in milliseconds
+     */
+    public long getRuntime() {
+      long start = started;
+      return System.currentTimeMillis() - (start > 0 ? start : submitted);
+    }
+  }
+}
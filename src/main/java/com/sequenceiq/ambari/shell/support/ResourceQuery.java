@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.cache.CachingAmbariClient;
+
+import groovyx.net.http.HttpResponseDecorator;
+
+/**
+ * Queries a collection resource of the Ambari REST API through the REST client of the
+ * Ambari client. The predicates and the field projection are sent to the server, so only
+ * the matching items are returned, with only the requested fields.
+ */
+public class ResourceQuery {
+
+  private static final String ITEMS = "items";
+
+  private final AmbariClient client;
+  private final String path;
+  private final List<String> fields = new ArrayList<String>();
+  private final List<String> headers = new ArrayList<String>();
+  private final Map<String, String> predicates = new LinkedHashMap<String, String>();
+  private final List<String> rawPredicates = new ArrayList<String>();
+
+  /**
+   * @param client client to send the query with
+   * @param path   path of the resource relative to the API root, e.g. clusters/c1/services
+   */
+  public ResourceQuery(AmbariClient client, String path) {
+    this.client = client;
+    this.path = path;
+  }
+
+  /**
+   * Adds a field to the projection, the rows contain the fields in the same order.
+   *
+   * @param name   field name, e.g. Hosts/host_name
+   * @param header column header of the field
+   * @return this query
+   */
+  public ResourceQuery field(String name, String header) {
+    fields.add(name);
+    headers.add(header);
+    return this;
+  }
+
+  /**
+   * Adds comma separated fields to the projection, their headers are created from their names.
+   *
+   * @param names comma separated field names, e.g. Hosts/cpu_count,Hosts/os_type; can be null
+   * @return this query
+   */
+  public ResourceQuery fields(String names) {
+    if (names != null) {
+      for (String name : names.split(",")) {
+        if (!name.trim().isEmpty()) {
+          field(name.trim(), header(name.trim()));
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Adds an equality predicate. Predicates without value are ignored.
+   *
+   * @param field field name, e.g. Hosts/host_status
+   * @param value required value, can be null
+   * @return this query
+   */
+  public ResourceQuery where(String field, String value) {
+    if (value != null) {
+      predicates.put(field, value);
+    }
+    return this;
+  }
+
+  /**
+   * Adds a predicate in the syntax of the Ambari API, it's sent without encoding.
+   *
+   * @param predicate predicate, e.g. Tasks/id>=10
+   * @return this query
+   */
+  public ResourceQuery where(String predicate) {
+    rawPredicates.add(predicate);
+    return this;
+  }
+
+  /**
+   * Sends the query and iterates over the returned items.
+   *
+   * @return rows with the values of the fields, missing values are empty
+   * @throws IOException if the query fails or a snapshot is loaded
+   */
+  public Iterator<String[]> rows() throws IOException {
+    if (CachingAmbariClient.getSnapshot(client) != null) {
+      throw new IOException("server side queries are not available while a snapshot is loaded");
+    }
+    HttpResponseDecorator response;
+    try {
+      response = (HttpResponseDecorator) client.getAmbari().get(toRequest());
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException("Invalid resource path: " + path, e);
+    }
+    Object data = response.getData();
+    Object items = data instanceof Map ? ((Map<?, ?>) data).get(ITEMS) : null;
+    final Iterator<?> iterator = items instanceof List ? ((List<?>) items).iterator() : Collections.emptyList().iterator();
+    return new Iterator<String[]>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public String[] next() {
+        Object item = iterator.next();
+        String[] row = new String[fields.size()];
+        for (int i = 0; i < row.length; i++) {
+          row[i] = value(item, fields.get(i));
+        }
+        return row;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Sends the query, filters the rows lazily and renders them. At most
+   * {@link StreamingTableRenderer#DEFAULT_SAMPLE_SIZE} rows are collected, once the result grows
+   * beyond that, or if it's paged, the rows are streamed to the console if the shell runs on a terminal.
+   *
+   * @param console  console to stream the rows to
+   * @param column   index of the column to filter on
+   * @param filter   glob or substring the column has to match, can be null
+   * @param pageSize rows per page, 0 disables paging
+   * @return rendered table or null if it was streamed to the console
+   * @throws IOException if the query fails
+   */
+  public String render(ShellConsole console, int column, String filter, int pageSize) throws IOException {
+    String[] headerRow = headers.toArray(new String[headers.size()]);
+    Iterator<String[]> rows = RowFilter.matching(rows(), column, filter);
+    if (pageSize > 0) {
+      return console.renderTable(rows, pageSize, headerRow);
+    }
+    List<String[]> result = new ArrayList<String[]>();
+    while (rows.hasNext() && result.size() < StreamingTableRenderer.DEFAULT_SAMPLE_SIZE) {
+      result.add(rows.next());
+    }
+    if (rows.hasNext()) {
+      return console.renderTable(concat(result.iterator(), rows), 0, headerRow);
+    }
+    return TableRenderer.renderRows(result, headerRow);
+  }
+
+  /**
+   * The query is passed as a map unless it has raw predicates, which would be encoded,
+   * in that case the whole query string is built here.
+   */
+  Map<String, Object> toRequest() {
+    Map<String, Object> query = new LinkedHashMap<String, Object>(predicates);
+    if (!fields.isEmpty()) {
+      StringBuilder sb = new StringBuilder();
+      for (String field : fields) {
+        sb.append(sb.length() == 0 ? "" : ",").append(field);
+      }
+      query.put("fields", sb.toString());
+    }
+    Map<String, Object> request = new LinkedHashMap<String, Object>();
+    request.put("path", path);
+    if (rawPredicates.isEmpty()) {
+      request.put("query", query);
+    } else {
+      StringBuilder queryString = new StringBuilder();
+      for (String predicate : rawPredicates) {
+        queryString.append(queryString.length() == 0 ? "" : "&").append(predicate);
+      }
+      for (Map.Entry<String, Object> entry : query.entrySet()) {
+        queryString.append('&').append(encode(entry.getKey())).append('=').append(encode(entry.getValue().toString()));
+      }
+      request.put("queryString", queryString.toString());
+    }
+    return request;
+  }
+
+  private static Iterator<String[]> concat(final Iterator<String[]> head, final Iterator<String[]> tail) {
+    return new Iterator<String[]>() {
+      @Override
+      public boolean hasNext() {
+        return head.hasNext() || tail.hasNext();
+      }
+
+      @Override
+      public String[] next() {
+        return head.hasNext() ? head.next() : tail.next();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  private static String encode(String value) {
+    try {
+      return URLEncoder.encode(value, "UTF-8").replace("%2F", "/").replace("%2C", ",");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the value of a field of an item.
+   *
+   * @param item  item returned by the server
+   * @param field field name, the segments are separated by /
+   * @return value of the field or empty if the item does not have it
+   */
+  static String value(Object item, String field) {
+    Object current = item;
+    for (String segment : field.split("/")) {
+      if (!(current instanceof Map)) {
+        return "";
+      }
+      current = ((Map<?, ?>) current).get(segment);
+    }
+    return current == null ? "" : String.valueOf(current);
+  }
+
+  /**
+   * Creates the column header of a field from its last segment.
+   *
+   * @param field field name, e.g. Hosts/cpu_count
+   * @return header, e.g. CPU_COUNT
+   */
+  public static String header(String field) {
+    return field.substring(field.lastIndexOf('/') + 1).toUpperCase();
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+/**
+ * Filters table rows in a single streaming pass before they are rendered, for the
+ * conditions the Ambari API cannot evaluate.
+ */
+public final class RowFilter {
+
+  private RowFilter() {
+    throw new IllegalStateException();
+  }
+
+  /**
+   * Keeps the rows whose column matches the expression. Expressions with * or ? wildcards
+   * have to match the whole value, others are searched as a substring.
+   *
+   * @param rows       rows to filter
+   * @param column     index of the column to match
+   * @param expression glob or substring, null keeps every row
+   * @return lazily filtered rows
+   */
+  public static Iterator<String[]> matching(final Iterator<String[]> rows, final int column, String expression) {
+    if (expression == null || expression.isEmpty()) {
+      return rows;
+    }
+    final Pattern pattern = HostPatterns.isGlob(expression)
+      ? HostPatterns.globToPattern(expression) : Pattern.compile(".*" + Pattern.quote(expression) + ".*");
+    return new Iterator<String[]>() {
+      private String[] next;
+
+      @Override
+      public boolean hasNext() {
+        while (next == null && rows.hasNext()) {
+          String[] row = rows.next();
+          if (pattern.matcher(row[column]).matches()) {
+            next = row;
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public String[] next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        String[] row = next;
+        next = null;
+        return row;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+}
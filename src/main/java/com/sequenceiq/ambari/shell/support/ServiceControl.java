@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.cache.CachingAmbariClient;
+
+import groovyx.net.http.ContentType;
+import groovyx.net.http.HttpResponseDecorator;
+
+/**
+ * Changes the state of a single service or of the components of a set of hosts through
+ * the REST client of the Ambari client. The Ambari client can only start or stop every
+ * service at once.
+ */
+public class ServiceControl {
+
+  /**
+   * State of the started services and components.
+   */
+  public static final String STARTED = "STARTED";
+
+  /**
+   * State of the stopped services and components.
+   */
+  public static final String INSTALLED = "INSTALLED";
+
+  private final AmbariClient client;
+
+  /**
+   * @param client client to send the requests with
+   */
+  public ServiceControl(AmbariClient client) {
+    this.client = client;
+  }
+
+  /**
+   * Changes the state of a service.
+   *
+   * @param service name of the service, e.g. HDFS
+   * @param state   {@link #STARTED} or {@link #INSTALLED}
+   * @return id of the created request or 0 if the service is already in the state
+   * @throws IOException if the request fails
+   */
+  public int setServiceState(String service, String state) throws IOException {
+    return send(createRequest(String.format("clusters/%s/services/%s", client.getClusterName(), service), null,
+      String.format("%s %s", describe(state), service), "ServiceInfo", state));
+  }
+
+  /**
+   * Changes the state of the given components of the given hosts in a single request.
+   *
+   * @param hosts      host names
+   * @param components names of the components
+   * @param state      {@link #STARTED} or {@link #INSTALLED}
+   * @return id of the created request or 0 if every component is already in the state
+   * @throws IOException if the request fails
+   */
+  public int setHostComponentState(Collection<String> hosts, Collection<String> components, String state)
+    throws IOException {
+    String queryString = String.format("HostRoles/host_name.in(%s)&HostRoles/component_name.in(%s)",
+      join(hosts), join(components));
+    return send(createRequest(String.format("clusters/%s/host_components", client.getClusterName()), queryString,
+      String.format("%s components of %d host(s)", describe(state), hosts.size()), "HostRoles", state));
+  }
+
+  /**
+   * Returns the components which can be started and stopped, the clients can't.
+   *
+   * @param service name of the service or null for every service
+   * @return names of the components
+   * @throws IOException if the query fails
+   */
+  public List<String> getControllableComponents(String service) throws IOException {
+    ResourceQuery query = new ResourceQuery(client, String.format("clusters/%s/components", client.getClusterName()))
+      .field("ServiceComponentInfo/component_name", "COMPONENT")
+      .where("ServiceComponentInfo/category!=CLIENT");
+    if (service != null) {
+      query.where("ServiceComponentInfo/service_name=" + service);
+    }
+    List<String> result = new ArrayList<String>();
+    Iterator<String[]> rows = query.rows();
+    while (rows.hasNext()) {
+      result.add(rows.next()[0]);
+    }
+    return result;
+  }
+
+  static Map<String, Object> createRequest(String path, String queryString, String context, String resource,
+    String state) {
+    Map<String, Object> body = new LinkedHashMap<String, Object>();
+    body.put("RequestInfo", Collections.singletonMap("context", context));
+    body.put("Body", Collections.singletonMap(resource, Collections.singletonMap("state", state)));
+    Map<String, Object> request = new LinkedHashMap<String, Object>();
+    request.put("path", path);
+    if (queryString != null) {
+      request.put("queryString", queryString);
+    }
+    request.put("body", body);
+    request.put("requestContentType", ContentType.JSON);
+    return request;
+  }
+
+  /**
+   * The server answers with the created request, or without body if there is nothing to do.
+   */
+  private int send(Map<String, Object> request) throws IOException {
+    if (CachingAmbariClient.getSnapshot(client) != null) {
+      throw new IOException("state changes are not available while a snapshot is loaded");
+    }
+    HttpResponseDecorator response;
+    try {
+      response = (HttpResponseDecorator) client.getAmbari().put(request);
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException("Invalid resource path: " + request.get("path"), e);
+    } finally {
+      CachingAmbariClient.invalidateServices(client);
+    }
+    String id = ResourceQuery.value(response.getData(), "Requests/id");
+    return id.isEmpty() ? 0 : Integer.parseInt(id);
+  }
+
+  private static String describe(String state) {
+    return STARTED.equals(state) ? "Start" : "Stop";
+  }
+
+  private static String join(Collection<String> values) {
+    StringBuilder sb = new StringBuilder();
+    for (String value : values) {
+      sb.append(sb.length() == 0 ? "" : ",").append(value);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Iterator;
+
+import com.sequenceiq.ambari.shell.metrics.InstrumentedShellComponent;
+
+import jline.console.ConsoleReader;
+
+/**
+ * Terminal of the interactive shell. The key presses are read through the console reader of
+ * the shell, which owns the standard input. Without a terminal, e.g. when the commands come
+ * from a --cmdfile or a daemon client, nothing is read and the output is returned as the
+ * result of the command.
+ */
+public class ShellConsole {
+
+  private static final Character MASK = '*';
+
+  private final InstrumentedShellComponent shell;
+
+  public ShellConsole(InstrumentedShellComponent shell) {
+    this.shell = shell;
+  }
+
+  /**
+   * Checks whether the prompt loop is reading from a terminal.
+   *
+   * @return true if keys can be read false otherwise
+   */
+  public boolean isInteractive() {
+    return System.console() != null && shell.getConsoleReader() != null;
+  }
+
+  /**
+   * Waits for a key press.
+   *
+   * @return the pressed key or -1 if the input is closed
+   * @throws IOException if the input cannot be read
+   */
+  public int readKey() throws IOException {
+    ConsoleReader reader = getReader();
+    return reader == null ? -1 : reader.readCharacter();
+  }
+
+  /**
+   * Checks whether a key was pressed without waiting for it.
+   *
+   * @return true if a key can be read without blocking
+   * @throws IOException if the input cannot be read
+   */
+  public boolean isKeyAvailable() throws IOException {
+    ConsoleReader reader = getReader();
+    return reader != null && reader.getInput().available() > 0;
+  }
+
+  /**
+   * Reads a secret without echoing it, the line is not added to the history.
+   *
+   * @param prompt shown before the input
+   * @return the entered text or null if there is no terminal or the input is closed
+   * @throws IOException if the input cannot be read
+   */
+  public String readSecret(String prompt) throws IOException {
+    ConsoleReader reader = getReader();
+    return reader == null ? null : reader.readLine(prompt, MASK);
+  }
+
+  /**
+   * Returns the width of the terminal.
+   *
+   * @return number of columns or 0 if there is no terminal
+   */
+  public int getWidth() {
+    ConsoleReader reader = getReader();
+    return reader == null ? 0 : reader.getTerminal().getWidth();
+  }
+
+  /**
+   * Renders a table. On a terminal the rows are streamed to the console and paged if a page size
+   * is given, otherwise the whole table is rendered without paging and returned.
+   *
+   * @param rows     rows of the table
+   * @param pageSize rows per page, 0 disables paging
+   * @param headers  headers of the table
+   * @return the rendered table or null if it was streamed to the console
+   */
+  public String renderTable(Iterator<String[]> rows, int pageSize, String... headers) {
+    try {
+      if (isInteractive()) {
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out));
+        new StreamingTableRenderer(out, StreamingTableRenderer.DEFAULT_SAMPLE_SIZE, pageSize,
+          new StreamingTableRenderer.KeyPressPager(this, out)).render(rows, headers);
+        return null;
+      }
+      StringWriter out = new StringWriter();
+      new StreamingTableRenderer(out, StreamingTableRenderer.DEFAULT_SAMPLE_SIZE, 0, null).render(rows, headers);
+      return out.toString();
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot render the table", e);
+    }
+  }
+
+  private ConsoleReader getReader() {
+    return isInteractive() ? shell.getConsoleReader() : null;
+  }
+}
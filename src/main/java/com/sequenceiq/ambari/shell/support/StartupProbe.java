@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.shell.support.logging.HandlerUtils;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.model.AmbariContext;
+import com.sequenceiq.ambari.shell.model.Hints;
+
+/**
+ * Asks the Ambari Server for the cluster and the blueprints in the background when the
+ * shell starts. Both requests are sent at the same time and share the same timeout,
+ * the context is in connecting state until they return.
+ */
+public class StartupProbe {
+
+  private static final Logger LOGGER = HandlerUtils.getLogger(StartupProbe.class);
+
+  private final AmbariClient client;
+  private final AmbariContext context;
+  private final long timeout;
+
+  /**
+   * @param client  client to probe the server with
+   * @param context context to fill with the results
+   * @param timeout timeout of the probes in milliseconds
+   */
+  public StartupProbe(AmbariClient client, AmbariContext context, long timeout) {
+    this.client = client;
+    this.context = context;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Puts the context in connecting state and starts probing the server in the background.
+   * If the server cannot be reached the failure is logged through the shell, which keeps
+   * the prompt intact, and the context leaves the connecting state.
+   */
+  public void start() {
+    start(new FailureListener() {
+      @Override
+      public void onFailure(String message) {
+        context.setConnecting(false);
+        LOGGER.severe(message);
+      }
+    });
+  }
+
+  /**
+   * Puts the context in connecting state and starts probing the server in the background.
+   *
+   * @param listener notified if the server cannot be reached
+   */
+  public void start(final FailureListener listener) {
+    context.setConnecting(true);
+    context.setHint(Hints.CONNECTING);
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          probe();
+        } catch (Exception e) {
+          listener.onFailure(e.getMessage());
+        }
+      }
+    }, "ambari-connect");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Probes the server and fills the context.
+   *
+   * @throws Exception if any of the probes failed or timed out
+   */
+  void probe() throws Exception {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("probe-");
+    threadFactory.setDaemon(true);
+    ExecutorService probes = Executors.newFixedThreadPool(2, threadFactory);
+    try {
+      Future<String> cluster = probes.submit(new Callable<String>() {
+        @Override
+        public String call() {
+          return client.getClusterName();
+        }
+      });
+      Future<Boolean> available = probes.submit(new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          return client.isBlueprintAvailable();
+        }
+      });
+      long deadline = System.currentTimeMillis() + timeout;
+      fill(get(cluster, deadline), get(available, deadline));
+    } finally {
+      probes.shutdownNow();
+    }
+  }
+
+  private void fill(String cluster, boolean available) {
+    if (cluster == null) {
+      context.setHint(available ? Hints.BUILD_CLUSTER : Hints.ADD_BLUEPRINT);
+    } else {
+      context.setHint(Hints.PROGRESS);
+    }
+    context.setCluster(cluster);
+    context.setBlueprintsAvailable(available);
+    context.setConnecting(false);
+  }
+
+  private <T> T get(Future<T> future, long deadline) throws Exception {
+    try {
+      return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new TimeoutException(String.format("The Ambari Server did not respond in %d ms", timeout));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof Exception ? (Exception) cause : e;
+    }
+  }
+
+  /**
+   * Notified if the server cannot be reached.
+   */
+  public interface FailureListener {
+    void onFailure(String message);
+  }
+}
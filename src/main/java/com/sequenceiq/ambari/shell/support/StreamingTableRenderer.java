@@ -0,0 +1,291 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Renders tables row by row straight to a writer instead of building the whole table
+ * in memory. The column widths are calculated from the headers and a bounded sample of
+ * the first rows, later rows wider than the sample are not truncated, only misaligned.
+ * The output is identical to {@link TableRenderer} if every row fits into the sample.
+ */
+public class StreamingTableRenderer {
+
+  /**
+   * Default number of rows used to calculate the column widths.
+   */
+  public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+  private static final int FLUSH_INTERVAL = 256;
+  private static final String INDENT = "  ";
+  private static final String SEPARATOR = "  ";
+
+  private final Writer writer;
+  private final int sampleSize;
+  private final int pageSize;
+  private final Pager pager;
+
+  /**
+   * @param writer     where to write the rows
+   * @param sampleSize number of rows used to calculate the column widths
+   * @param pageSize   rows per page, 0 disables paging
+   * @param pager      asked whether to continue after every page, can be null if paging is disabled
+   */
+  public StreamingTableRenderer(Writer writer, int sampleSize, int pageSize, Pager pager) {
+    this.writer = writer;
+    this.sampleSize = sampleSize;
+    this.pageSize = pageSize;
+    this.pager = pager;
+  }
+
+  /**
+   * Renders the headers and the rows.
+   *
+   * @param rows    rows of the table, each row must have as many columns as headers
+   * @param headers headers of the table
+   * @return number of rendered rows
+   * @throws IOException if the writer fails
+   */
+  public int render(Iterator<String[]> rows, String... headers) throws IOException {
+    List<String[]> sample = new ArrayList<String[]>();
+    while (sample.size() < sampleSize && rows.hasNext()) {
+      sample.add(rows.next());
+    }
+    int[] widths = calculateWidths(headers, sample);
+    writeRow(headers, widths);
+    String[] dashes = new String[headers.length];
+    for (int i = 0; i < headers.length; i++) {
+      dashes[i] = repeat('-', widths[i]);
+    }
+    writeRow(dashes, widths);
+    int count = 0;
+    Iterator<String[]> sampleRows = sample.iterator();
+    while (sampleRows.hasNext() || rows.hasNext()) {
+      writeRow(sampleRows.hasNext() ? sampleRows.next() : rows.next(), widths);
+      count++;
+      if (count % FLUSH_INTERVAL == 0) {
+        writer.flush();
+      }
+      if (pageSize > 0 && count % pageSize == 0 && (sampleRows.hasNext() || rows.hasNext())) {
+        writer.flush();
+        if (!pager.next()) {
+          break;
+        }
+      }
+    }
+    writer.flush();
+    return count;
+  }
+
+  /**
+   * Lazily iterates over the rows of a 2 columns wide table.
+   *
+   * @param rows key - value pairs
+   * @return row iterator
+   */
+  public static Iterator<String[]> singleMapRows(final Map<String, String> rows) {
+    final Iterator<Map.Entry<String, String>> entries = entries(rows);
+    return new Iterator<String[]>() {
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public String[] next() {
+        Map.Entry<String, String> entry = entries.next();
+        return new String[]{entry.getKey(), entry.getValue()};
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Lazily iterates over the rows of a 2 columns wide table, each value is a new row with the same key.
+   *
+   * @param rows key - values pairs
+   * @return row iterator
+   */
+  public static Iterator<String[]> multiValueMapRows(Map<String, List<String>> rows) {
+    Iterator<Map.Entry<String, List<String>>> entries = entries(rows);
+    return new NestedIterator<List<String>, String>(entries) {
+      @Override
+      protected Iterator<String> children(List<String> values) {
+        return values.iterator();
+      }
+
+      @Override
+      protected String[] row(String key, String value) {
+        return new String[]{key, value};
+      }
+    };
+  }
+
+  /**
+   * Lazily iterates over the rows of a 3 columns wide table, the value map is added as the last 2 columns.
+   *
+   * @param rows key - value map pairs
+   * @return row iterator
+   */
+  public static Iterator<String[]> mapValueMapRows(Map<String, Map<String, String>> rows) {
+    Iterator<Map.Entry<String, Map<String, String>>> entries = entries(rows);
+    return new NestedIterator<Map<String, String>, Map.Entry<String, String>>(entries) {
+      @Override
+      protected Iterator<Map.Entry<String, String>> children(Map<String, String> values) {
+        return values.entrySet().iterator();
+      }
+
+      @Override
+      protected String[] row(String key, Map.Entry<String, String> value) {
+        return new String[]{key, value.getKey(), value.getValue()};
+      }
+    };
+  }
+
+  private static <V> Iterator<Map.Entry<String, V>> entries(Map<String, V> rows) {
+    return rows == null ? Collections.<Map.Entry<String, V>>emptyList().iterator() : rows.entrySet().iterator();
+  }
+
+  private int[] calculateWidths(String[] headers, List<String[]> sample) {
+    int[] widths = new int[headers.length];
+    for (int i = 0; i < headers.length; i++) {
+      widths[i] = headers[i].length();
+    }
+    for (String[] row : sample) {
+      for (int i = 0; i < headers.length && i < row.length; i++) {
+        widths[i] = Math.max(widths[i], length(row[i]));
+      }
+    }
+    return widths;
+  }
+
+  private void writeRow(String[] row, int[] widths) throws IOException {
+    writer.write(INDENT);
+    for (int i = 0; i < widths.length; i++) {
+      String value = i < row.length && row[i] != null ? row[i] : "";
+      writer.write(value);
+      if (i < widths.length - 1) {
+        for (int pad = value.length(); pad < widths[i]; pad++) {
+          writer.write(' ');
+        }
+        writer.write(SEPARATOR);
+      }
+    }
+    writer.write('\n');
+  }
+
+  private static int length(String value) {
+    return value == null ? 0 : value.length();
+  }
+
+  private static String repeat(char c, int times) {
+    StringBuilder sb = new StringBuilder(times);
+    for (int i = 0; i < times; i++) {
+      sb.append(c);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Decides whether to continue the rendering after a page.
+   */
+  public interface Pager {
+    boolean next() throws IOException;
+  }
+
+  /**
+   * Waits for a key press after every page, 'q' stops the rendering.
+   */
+  public static class KeyPressPager implements Pager {
+
+    private final ShellConsole console;
+    private final Writer out;
+
+    public KeyPressPager(ShellConsole console, Writer out) {
+      this.console = console;
+      this.out = out;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      out.write("-- more (press any key to continue, q to quit) --");
+      out.flush();
+      int key = console.readKey();
+      out.write('\r');
+      out.write(repeat(' ', 50));
+      out.write('\r');
+      out.flush();
+      return key != -1 && key != 'q' && key != 'Q';
+    }
+  }
+
+  /**
+   * Flattens a map of collections into rows without copying them.
+   */
+  private abstract static class NestedIterator<V, C> implements Iterator<String[]> {
+
+    private final Iterator<Map.Entry<String, V>> entries;
+    private String key;
+    private Iterator<C> current = Collections.<C>emptyList().iterator();
+
+    NestedIterator(Iterator<Map.Entry<String, V>> entries) {
+      this.entries = entries;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (!current.hasNext() && entries.hasNext()) {
+        Map.Entry<String, V> entry = entries.next();
+        if (entry.getValue() != null) {
+          key = entry.getKey();
+          current = children(entry.getValue());
+        }
+      }
+      return current.hasNext();
+    }
+
+    @Override
+    public String[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return row(key, current.next());
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    protected abstract Iterator<C> children(V value);
+
+    protected abstract String[] row(String key, C child);
+  }
+}
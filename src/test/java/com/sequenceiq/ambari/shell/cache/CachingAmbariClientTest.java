@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.client.InvalidHostGroupHostAssociation;
+
+public class CachingAmbariClientTest {
+
+  private final CachingAmbariClient client =
+    new CachingAmbariClient("localhost", "8080", "admin", "admin", new MetadataCache(60000, 10));
+
+  @Test
+  public void testReadCallsForLoadedSnapshot() {
+    client.setSnapshot(ClusterSnapshotTest.createSnapshot());
+
+    assertEquals("c1", client.getClusterName());
+    assertEquals("HEALTHY", client.getHostNames().get("host1"));
+    assertEquals("STARTED", client.getHostComponentsMap("host1").get("DATANODE"));
+    assertEquals(asList("host_group_1"), client.getHostGroups("single-node"));
+    assertNull(client.getHostGroups("multi-node"));
+    assertEquals("QUEUED", client.getTaskMap("1").get("DATANODE START"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStateChangingCallForLoadedSnapshot() {
+    client.setSnapshot(ClusterSnapshotTest.createSnapshot());
+
+    client.startAllServices();
+  }
+
+  @Test
+  public void testRecommendAssignmentsForLoadedSnapshot() throws InvalidHostGroupHostAssociation {
+    client.setSnapshot(ClusterSnapshotTest.createSnapshot());
+
+    assertEquals(asList("host1"), client.recommendAssignments("single-node").get("host_group_1"));
+    assertTrue(client.recommendAssignments("multi-node").isEmpty());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetInstallProgressForLoadedSnapshot() {
+    client.setSnapshot(ClusterSnapshotTest.createSnapshot());
+
+    client.getInstallProgress();
+  }
+
+  @Test
+  public void testGetSnapshot() {
+    client.setSnapshot(ClusterSnapshotTest.createSnapshot());
+
+    assertEquals("c1", CachingAmbariClient.getSnapshot(client).getCluster());
+    assertNull(CachingAmbariClient.getSnapshot(new AmbariClient()));
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+
+public class ClusterSnapshotTest {
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    ClusterSnapshot snapshot = createSnapshot();
+    File file = File.createTempFile("snapshot", ".json.gz");
+
+    snapshot.write(file, new ObjectMapper());
+    ClusterSnapshot result = ClusterSnapshot.read(file, new ObjectMapper());
+
+    assertEquals("c1", result.getCluster());
+    assertEquals(snapshot.getHosts(), result.getHosts());
+    assertEquals(snapshot.getHostComponents(), result.getHostComponents());
+    assertEquals(snapshot.getBlueprintHostGroups(), result.getBlueprintHostGroups());
+    assertEquals(snapshot.getTasks(), result.getTasks());
+  }
+
+  @Test
+  public void testGetTaskRows() {
+    List<String[]> result = createSnapshot().getTaskRows("1");
+
+    assertEquals(2, result.size());
+    assertArrayEquals(new String[]{"2", "DATANODE START", "QUEUED"}, result.get(1));
+  }
+
+  @Test
+  public void testGetTaskRowsForUnknownRequest() {
+    List<String[]> result = createSnapshot().getTaskRows("2");
+
+    assertEquals(0, result.size());
+  }
+
+  @Test
+  public void testGetTaskMap() {
+    Map<String, String> result = createSnapshot().getTaskMap("1");
+
+    assertEquals("QUEUED", result.get("DATANODE START"));
+  }
+
+  static ClusterSnapshot createSnapshot() {
+    ClusterSnapshot snapshot = new ClusterSnapshot();
+    snapshot.setCreated(1L);
+    snapshot.setServer("http://localhost:8080/api/v1/");
+    snapshot.setCluster("c1");
+    snapshot.setHosts(singletonMap("host1", "HEALTHY"));
+    snapshot.setHostComponents(singletonMap("host1", singletonMap("DATANODE", "STARTED")));
+    snapshot.setServices(singletonMap("HDFS", "STARTED"));
+    snapshot.setBlueprints(singletonMap("single-node", "HDP"));
+    snapshot.setBlueprintHostGroups(singletonMap("single-node",
+      singletonMap("host_group_1", asList("NAMENODE", "DATANODE"))));
+    snapshot.setTasks(singletonMap("1", asList(
+      asList("1", "NAMENODE START", "COMPLETED"), asList("2", "DATANODE START", "QUEUED"))));
+    return snapshot;
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class MetadataCacheTest {
+
+  @Test
+  public void testGetForCachedValue() {
+    MetadataCache cache = new MetadataCache(60000, 10);
+    CountingLoader loader = new CountingLoader();
+
+    cache.get(MetadataKey.HOSTS.key(), loader);
+    String result = cache.get(MetadataKey.HOSTS.key(), loader);
+
+    assertEquals("value1", result);
+    assertEquals(1, loader.calls.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testGetForExpiredValue() throws InterruptedException {
+    MetadataCache cache = new MetadataCache(1, 10);
+    CountingLoader loader = new CountingLoader();
+
+    cache.get(MetadataKey.HOSTS.key(), loader);
+    Thread.sleep(20);
+    String result = cache.get(MetadataKey.HOSTS.key(), loader);
+
+    assertEquals("value2", result);
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  public void testGetForDisabledCache() {
+    MetadataCache cache = new MetadataCache(0, 10);
+    CountingLoader loader = new CountingLoader();
+
+    cache.get(MetadataKey.HOSTS.key(), loader);
+    cache.get(MetadataKey.HOSTS.key(), loader);
+
+    assertEquals(2, loader.calls.get());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testGetForEviction() {
+    MetadataCache cache = new MetadataCache(60000, 2);
+    CountingLoader loader = new CountingLoader();
+
+    cache.get(MetadataKey.BLUEPRINT.key("bp1"), loader);
+    cache.get(MetadataKey.BLUEPRINT.key("bp2"), loader);
+    cache.get(MetadataKey.BLUEPRINT.key("bp1"), loader);
+    cache.get(MetadataKey.BLUEPRINT.key("bp3"), loader);
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictions());
+    assertEquals("value1", cache.get(MetadataKey.BLUEPRINT.key("bp1"), loader));
+  }
+
+  @Test
+  public void testInvalidateForParameterizedKeys() {
+    MetadataCache cache = new MetadataCache(60000, 10);
+    CountingLoader loader = new CountingLoader();
+    cache.get(MetadataKey.BLUEPRINT.key("bp1"), loader);
+    cache.get(MetadataKey.BLUEPRINT.key("bp2"), loader);
+    cache.get(MetadataKey.BLUEPRINTS.key(), loader);
+
+    cache.invalidate(MetadataKey.BLUEPRINT);
+
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testGetForValueInvalidatedWhileLoading() {
+    final MetadataCache cache = new MetadataCache(60000, 10);
+    final CountingLoader loader = new CountingLoader();
+
+    String stale = cache.get(MetadataKey.SERVICES.key(), new Callable<String>() {
+      @Override
+      public String call() {
+        String value = loader.call();
+        cache.invalidate(MetadataKey.SERVICES);
+        return value;
+      }
+    });
+    String result = cache.get(MetadataKey.SERVICES.key(), loader);
+
+    assertEquals("value1", stale);
+    assertEquals("value2", result);
+    assertEquals(2, cache.getMisses());
+  }
+
+  private static class CountingLoader implements Callable<String> {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public String call() {
+      return "value" + calls.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+
+import groovyx.net.http.HttpResponseDecorator;
+import groovyx.net.http.RESTClient;
+
+public class TaskTrackerTest {
+
+  private final RecordingRestClient rest = new RecordingRestClient();
+  private final AmbariClient client = mock(AmbariClient.class);
+  private TaskTracker tracker;
+
+  @Before
+  public void setUp() {
+    when(client.getAmbari()).thenReturn(rest);
+    when(client.getClusterName()).thenReturn("c1");
+    tracker = new TaskTracker(client, 2);
+  }
+
+  @Test
+  public void testGetTasksFetchesFromTheFirstUnfinishedTask() throws Exception {
+    rest.respond(task(1, "COMPLETED"), task(2, "IN_PROGRESS"), task(3, "QUEUED"));
+    rest.respond(task(2, "COMPLETED"), task(3, "IN_PROGRESS"));
+
+    tracker.getTasks("1");
+    List<String[]> result = tracker.getTasks("1");
+
+    assertEquals("Tasks/id>=2&fields=Tasks/id,Tasks/command_detail,Tasks/status", rest.queryStrings.get(1));
+    assertEquals(Arrays.asList("COMPLETED", "COMPLETED", "IN_PROGRESS"), states(result));
+    assertEquals(5, tracker.getFetchedTasks());
+  }
+
+  @Test
+  public void testGetTasksFetchesOnlyNewTasksOfFinishedRequest() throws Exception {
+    rest.respond(task(1, "COMPLETED"), task(2, "FAILED"));
+    rest.respond();
+
+    tracker.getTasks("1");
+    List<String[]> result = tracker.getTasks("1");
+
+    assertEquals("Tasks/id>2&fields=Tasks/id,Tasks/command_detail,Tasks/status", rest.queryStrings.get(1));
+    assertEquals(Arrays.asList("COMPLETED", "FAILED"), states(result));
+    assertEquals(2, tracker.getFetchedTasks());
+  }
+
+  @Test
+  public void testGetTasksResolvesTheClusterOnce() throws Exception {
+    rest.respond(task(1, "IN_PROGRESS"));
+    rest.respond(task(1, "COMPLETED"));
+
+    tracker.getTasks("1");
+    tracker.getTasks("1");
+
+    verify(client, times(1)).getClusterName();
+    assertEquals("clusters/c1/requests/1/tasks", rest.paths.get(1));
+  }
+
+  @Test
+  public void testGetTasksForEvictedRequest() throws Exception {
+    rest.respond(task(1, "COMPLETED"));
+    rest.respond(task(2, "COMPLETED"));
+    rest.respond(task(3, "COMPLETED"));
+    rest.respond(task(1, "COMPLETED"));
+
+    tracker.getTasks("1");
+    tracker.getTasks("2");
+    tracker.getTasks("3");
+    tracker.getTasks("1");
+
+    assertEquals(null, rest.queryStrings.get(3));
+    assertEquals("clusters/c1/requests/1/tasks", rest.paths.get(3));
+  }
+
+  private Map<String, Object> task(long id, String status) {
+    Map<String, Object> tasks = new HashMap<String, Object>();
+    tasks.put("id", id);
+    tasks.put("command_detail", "DATANODE START");
+    tasks.put("status", status);
+    Map<String, Object> item = new HashMap<String, Object>();
+    item.put("Tasks", tasks);
+    return item;
+  }
+
+  private List<String> states(List<String[]> rows) {
+    List<String> result = new ArrayList<String>();
+    for (String[] row : rows) {
+      result.add(row[2]);
+    }
+    return result;
+  }
+
+  private static class RecordingRestClient extends RESTClient {
+
+    private final List<String> paths = new ArrayList<String>();
+    private final List<String> queryStrings = new ArrayList<String>();
+    private final LinkedList<Object> responses = new LinkedList<Object>();
+
+    void respond(Object... items) {
+      Map<String, Object> data = new HashMap<String, Object>();
+      data.put("items", Arrays.asList(items));
+      responses.add(data);
+    }
+
+    @Override
+    public HttpResponseDecorator get(Map<String, ?> args) {
+      paths.add((String) args.get("path"));
+      queryStrings.add((String) args.get("queryString"));
+      HttpResponseDecorator response = mock(HttpResponseDecorator.class);
+      when(response.getData()).thenReturn(responses.removeFirst());
+      return response;
+    }
+  }
+}
@@ -18,6 +18,7 @@
 package com.sequenceiq.ambari.shell.commands;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -36,10 +37,13 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.flash.FlashService;
 import com.sequenceiq.ambari.shell.model.AmbariContext;
 import com.sequenceiq.ambari.shell.model.Hints;
+import com.sequenceiq.ambari.shell.support.FanOutExecutor;
 
 import groovyx.net.http.HttpResponseException;
 
@@ -57,6 +61,8 @@ public class BlueprintCommandsTest {
   private AmbariContext context;
   @Mock
   private ObjectMapper objectMapper;
+  @Mock
+  private FlashService flashService;
 
   @Test
   public void testAddBlueprintForFileReadPrecedence() throws IOException {
@@ -68,7 +74,7 @@ public class BlueprintCommandsTest {
     when(jsonNode.get("blueprint_name")).thenReturn(jsonNode);
     when(jsonNode.asText()).thenReturn("blueprintName");
 
-    String result = blueprintCommands.addBlueprint("url", file);
+    String result = blueprintCommands.addBlueprint("url", file, null, null);
 
     verify(ambariClient).addBlueprint(json);
     verify(context).setHint(Hints.BUILD_CLUSTER);
@@ -83,7 +89,7 @@ public class BlueprintCommandsTest {
     doThrow(responseException).when(ambariClient).addBlueprint(json);
     when(responseException.getMessage()).thenReturn("error");
 
-    String result = blueprintCommands.addBlueprint("url", file);
+    String result = blueprintCommands.addBlueprint("url", file, null, null);
 
     verify(ambariClient).addBlueprint(json);
     verify(responseException).getMessage();
@@ -100,7 +106,7 @@ public class BlueprintCommandsTest {
 
   @Test
   public void testAddBlueprintForUnspecifiedValue() throws HttpResponseException {
-    String response = blueprintCommands.addBlueprint(null, null);
+    String response = blueprintCommands.addBlueprint(null, null, null, null);
 
     assertEquals("No blueprint specified", response);
     verify(ambariClient, times(0)).addBlueprint(null);
@@ -126,4 +132,20 @@ public class BlueprintCommandsTest {
 
     assertEquals("Failed to add the default blueprints: Connection refused", result);
   }
+
+  @Test
+  public void testAddBlueprintForDirectory() throws IOException {
+    File dir = new File("src/test/resources/blueprints");
+    String json = IOUtils.toString(new FileInputStream(new File(dir, "duplicate.json")));
+    ReflectionTestUtils.setField(blueprintCommands, "fanOutExecutor", new FanOutExecutor(2, 10000));
+
+    String result = blueprintCommands.addBlueprint(null, null, dir, null);
+
+    verify(ambariClient).addBlueprint(json);
+    verify(context).setHint(Hints.BUILD_CLUSTER);
+    verify(context).setBlueprintsAvailable(true);
+    assertTrue(result.startsWith("1 blueprint(s) have been added, 2 failed\n"));
+    assertTrue(result.contains("REJECTED: duplicate of " + new File(dir, "duplicate.json").getPath()));
+    assertTrue(result.contains("INVALID: "));
+  }
 }
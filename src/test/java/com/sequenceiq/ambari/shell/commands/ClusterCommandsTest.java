@@ -20,7 +20,6 @@ package com.sequenceiq.ambari.shell.commands;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderMultiValueMap;
 import static com.sequenceiq.ambari.shell.support.TableRenderer.renderSingleMap;
 import static java.util.Arrays.asList;
-import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -29,6 +28,8 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -48,6 +49,7 @@ import com.sequenceiq.ambari.shell.completion.Host;
 import com.sequenceiq.ambari.shell.flash.FlashService;
 import com.sequenceiq.ambari.shell.model.AmbariContext;
 import com.sequenceiq.ambari.shell.model.Hints;
+import com.sequenceiq.ambari.shell.model.HostGroupAssignments;
 
 import groovyx.net.http.HttpResponseException;
 
@@ -130,10 +132,10 @@ public class ClusterCommandsTest {
   @Test
   public void testAssignForInvalidHostGroup() {
     Map<String, List<String>> map = singletonMap("group1", asList("host", "host2"));
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", map);
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(map));
     when(client.getHostNames()).thenReturn(singletonMap("host3", "HEALTHY"));
 
-    String result = clusterCommands.assign(new Host("host3"), "group0");
+    String result = clusterCommands.assign(new Host("host3"), "group0", null, null, null);
 
     assertEquals("group0 is not a valid host group", result);
   }
@@ -142,31 +144,89 @@ public class ClusterCommandsTest {
   public void testAssignForValidHostGroup() {
     Map<String, List<String>> map = new HashMap<String, List<String>>();
     map.put("group1", new ArrayList<String>());
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", map);
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(map));
     when(client.getHostNames()).thenReturn(singletonMap("host3", "HEALTHY"));
 
-    String result = clusterCommands.assign(new Host("host3"), "group1");
+    String result = clusterCommands.assign(new Host("host3"), "group1", null, null, null);
 
     assertEquals("host3 has been added to group1", result);
   }
 
+  @Test
+  public void testAssignForAlreadyAssignedHost() {
+    HostGroupAssignments assignments = HostGroupAssignments.from(singletonMap("group1", asList("host3")));
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", assignments);
+    when(client.getHostNames()).thenReturn(singletonMap("host3", "HEALTHY"));
+
+    String result = clusterCommands.assign(new Host("host3"), "group1", null, null, null);
+
+    assertEquals("host3 is already assigned to group1", result);
+    assertEquals(asList("host3"), assignments.getHosts("group1"));
+  }
+
   @Test
   public void testAssignForInvalidHost() {
     Map<String, List<String>> map = new HashMap<String, List<String>>();
     map.put("group1", new ArrayList<String>());
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", map);
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(map));
     when(client.getHostNames()).thenReturn(singletonMap("host2", "HEALTHY"));
 
-    String result = clusterCommands.assign(new Host("host3"), "group1");
+    String result = clusterCommands.assign(new Host("host3"), "group1", null, null, null);
 
     assertEquals("host3 is not a valid hostname", result);
   }
 
+  @Test
+  public void testAssignForHostExpressions() {
+    HostGroupAssignments assignments = HostGroupAssignments.from(singletonMap("group1", asList("dn01")));
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", assignments);
+    Map<String, String> hosts = new HashMap<String, String>();
+    hosts.put("dn01", "HEALTHY");
+    hosts.put("dn02", "HEALTHY");
+    hosts.put("dn03", "HEALTHY");
+    hosts.put("edge1", "HEALTHY");
+    hosts.put("edge2", "HEALTHY");
+    when(client.getHostNames()).thenReturn(hosts);
+
+    String result = clusterCommands.assign(null, "group1", "dn[01-04],edge*,nn*", null, null);
+
+    assertEquals(asList("dn01", "dn02", "dn03", "edge1", "edge2"), assignments.getHosts("group1"));
+    assertTrue(result.startsWith("4 host(s) have been added to group1, 3 rejected"));
+    verify(client).getHostNames();
+  }
+
+  @Test
+  public void testAssignForHostRegex() {
+    HostGroupAssignments assignments = new HostGroupAssignments(asList("group1"));
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", assignments);
+    Map<String, String> hosts = new HashMap<String, String>();
+    hosts.put("dn1", "HEALTHY");
+    hosts.put("dn2", "HEALTHY");
+    hosts.put("nn1", "HEALTHY");
+    when(client.getHostNames()).thenReturn(hosts);
+
+    String result = clusterCommands.assign(null, "group1", null, "dn\\d", null);
+
+    assertEquals(asList("dn1", "dn2"), assignments.getHosts("group1"));
+    assertTrue(result.startsWith("2 host(s) have been added to group1, 0 rejected"));
+  }
+
+  @Test
+  public void testAssignForInvalidHostGroupInBulkMode() {
+    Map<String, List<String>> map = new HashMap<String, List<String>>();
+    map.put("group1", new ArrayList<String>());
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(map));
+
+    String result = clusterCommands.assign(null, "group0", "dn*", null, null);
+
+    assertEquals("group0 is not a valid host group", result);
+  }
+
   @Test
   public void testCreateClusterForException() throws HttpResponseException {
     String blueprint = "blueprint";
     Map<String, List<String>> map = singletonMap("group1", asList("host", "host2"));
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", map);
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(map));
     when(context.getFocusValue()).thenReturn(blueprint);
     doThrow(responseException).when(client).createCluster(blueprint, blueprint, map);
     doThrow(responseException).when(client).deleteCluster(blueprint);
@@ -183,7 +243,7 @@ public class ClusterCommandsTest {
   public void testCreateCluster() throws HttpResponseException {
     String blueprint = "blueprint";
     Map<String, List<String>> map = singletonMap("group1", asList("host", "host2"));
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", map);
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(map));
     when(context.getFocusValue()).thenReturn(blueprint);
     when(client.getClusterName()).thenReturn("cluster");
 
@@ -224,7 +284,7 @@ public class ClusterCommandsTest {
   @Test
   public void testIsClusterPreviewCommandAvailable() {
     when(context.isFocusOnClusterBuild()).thenReturn(true);
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", singletonMap("group1", asList("host1")));
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(singletonMap("group1", asList("host1"))));
 
     boolean result = clusterCommands.isClusterPreviewCommandAvailable();
 
@@ -234,7 +294,7 @@ public class ClusterCommandsTest {
   @Test
   public void testIsClusterPreviewCommandAvailableForNoAssignments() {
     when(context.isFocusOnClusterBuild()).thenReturn(true);
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", singletonMap("group1", emptyList()));
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", new HostGroupAssignments(asList("group1")));
 
     boolean result = clusterCommands.isClusterPreviewCommandAvailable();
 
@@ -244,7 +304,7 @@ public class ClusterCommandsTest {
   @Test
   public void testIsClusterResetCommandAvailable() {
     when(context.isFocusOnClusterBuild()).thenReturn(true);
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", singletonMap("group1", asList("host1")));
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(singletonMap("group1", asList("host1"))));
 
     boolean result = clusterCommands.isClusterResetCommandAvailable();
 
@@ -254,13 +314,13 @@ public class ClusterCommandsTest {
   @Test
   public void testAutoAssignForEmptyResult() throws InvalidHostGroupHostAssociation {
     Map<String, List<String>> hostGroups = singletonMap("group1", asList("host1"));
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", hostGroups);
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(hostGroups));
     when(context.getFocusValue()).thenReturn("blueprint");
     when(client.recommendAssignments("blueprint")).thenReturn(new HashMap<String, List<String>>());
 
-    clusterCommands.autoAssign();
+    clusterCommands.autoAssign(false, null, null);
 
-    Map<String, List<String>> result = (Map<String, List<String>>) ReflectionTestUtils.getField(clusterCommands, "hostGroups");
+    Map<String, List<String>> result = ((HostGroupAssignments) ReflectionTestUtils.getField(clusterCommands, "hostGroups")).toMap();
     assertEquals(hostGroups, result);
   }
 
@@ -268,14 +328,47 @@ public class ClusterCommandsTest {
   public void testAutoAssign() throws InvalidHostGroupHostAssociation {
     Map<String, List<String>> hostGroups = singletonMap("group1", asList("host1"));
     Map<String, List<String>> newAssignments = singletonMap("group1", asList("host1"));
-    ReflectionTestUtils.setField(clusterCommands, "hostGroups", hostGroups);
+    ReflectionTestUtils.setField(clusterCommands, "hostGroups", HostGroupAssignments.from(hostGroups));
     when(context.getFocusValue()).thenReturn("blueprint");
     when(client.recommendAssignments("blueprint")).thenReturn(newAssignments);
 
-    clusterCommands.autoAssign();
+    clusterCommands.autoAssign(false, null, null);
 
-    Map<String, List<String>> result = (Map<String, List<String>>) ReflectionTestUtils.getField(clusterCommands, "hostGroups");
+    Map<String, List<String>> result = ((HostGroupAssignments) ReflectionTestUtils.getField(clusterCommands, "hostGroups")).toMap();
     assertEquals(newAssignments, result);
     verify(context).setHint(Hints.CREATE_CLUSTER);
   }
+
+  @Test
+  public void testAutoAssignBalanced() throws Exception {
+    Map<String, List<String>> blueprint = new HashMap<String, List<String>>();
+    blueprint.put("master", asList("NAMENODE", "RESOURCEMANAGER"));
+    blueprint.put("slave", asList("DATANODE"));
+    Map<String, String> hosts = new HashMap<String, String>();
+    hosts.put("host1", "HEALTHY");
+    hosts.put("host2", "HEALTHY");
+    hosts.put("host3", "HEALTHY");
+    File resources = Files.createTempFile("resources", ".txt").toFile();
+    Files.write(resources.toPath(), "host2 cores=16 memory=67108864\n".getBytes("UTF-8"));
+    when(context.getFocusValue()).thenReturn("blueprint");
+    when(client.getBlueprintMap("blueprint")).thenReturn(blueprint);
+    when(client.getHostNames()).thenReturn(hosts);
+
+    clusterCommands.autoAssign(false, "master=1", resources);
+
+    Map<String, List<String>> result = ((HostGroupAssignments) ReflectionTestUtils.getField(clusterCommands, "hostGroups")).toMap();
+    assertEquals(asList("host2"), result.get("master"));
+    assertEquals(asList("host1", "host3"), result.get("slave"));
+    verify(context).setHint(Hints.CREATE_CLUSTER);
+  }
+
+  @Test
+  public void testAutoAssignBalancedForUnknownHostGroup() throws Exception {
+    when(context.getFocusValue()).thenReturn("blueprint");
+    when(client.getBlueprintMap("blueprint")).thenReturn(singletonMap("slave", asList("DATANODE")));
+
+    String result = clusterCommands.autoAssign(false, "master=1", null);
+
+    assertEquals("Cannot plan the assignments: master is not a valid host group", result);
+  }
 }
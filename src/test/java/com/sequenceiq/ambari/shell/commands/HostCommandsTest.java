@@ -64,4 +64,13 @@ public class HostCommandsTest {
     verify(context, times(0)).setFocus("host1", FocusType.HOST);
     assertEquals("host1 is not a valid host name", result);
   }
+
+  @Test
+  public void testHostsWithoutOptions() {
+    when(client.showHostList()).thenReturn("host1 HEALTHY");
+
+    String result = hostCommands.hosts(null, null, null, false);
+
+    assertEquals("host1 HEALTHY", result);
+  }
 }
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.completion;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HostNameIndexTest {
+
+  private final HostNameIndex index = new HostNameIndex(
+    asList("dn2.example.com", "nn.example.com", "dn1.example.com", "dn10.example.com", "edge.example.com"));
+
+  @Test
+  public void testFindForPrefix() {
+    List<String> result = index.find("dn1", 10);
+
+    assertEquals(asList("dn1.example.com", "dn10.example.com"), result);
+  }
+
+  @Test
+  public void testFindForLimit() {
+    List<String> result = index.find("dn", 2);
+
+    assertEquals(asList("dn1.example.com", "dn10.example.com"), result);
+    assertEquals(3, index.count("dn"));
+  }
+
+  @Test
+  public void testFindForEmptyPrefix() {
+    List<String> result = index.find(null, 10);
+
+    assertEquals(5, result.size());
+    assertEquals("dn1.example.com", result.get(0));
+  }
+
+  @Test
+  public void testFindForNoMatch() {
+    List<String> result = index.find("zk", 10);
+
+    assertEquals(Collections.<String>emptyList(), result);
+    assertEquals(0, index.count("zk"));
+  }
+
+  @Test
+  public void testFindForExactMatch() {
+    List<String> result = index.find("nn.example.com", 10);
+
+    assertEquals(asList("nn.example.com"), result);
+  }
+}
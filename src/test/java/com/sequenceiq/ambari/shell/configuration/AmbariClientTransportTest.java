@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.configuration;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.Test;
+
+public class AmbariClientTransportTest {
+
+  private final AmbariClientTransport.KeepAliveStrategy strategy = new AmbariClientTransport.KeepAliveStrategy(60000);
+
+  @Test
+  public void testKeepAliveWithoutServerTimeout() {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+
+    long result = strategy.getKeepAliveDuration(response, new BasicHttpContext());
+
+    assertEquals(60000, result);
+  }
+
+  @Test
+  public void testKeepAliveForShorterServerTimeout() {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+    response.addHeader("Keep-Alive", "timeout=5, max=100");
+
+    long result = strategy.getKeepAliveDuration(response, new BasicHttpContext());
+
+    assertEquals(5000, result);
+  }
+
+  @Test
+  public void testKeepAliveForLongerServerTimeout() {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+    response.addHeader("Keep-Alive", "timeout=300");
+
+    long result = strategy.getKeepAliveDuration(response, new BasicHttpContext());
+
+    assertEquals(60000, result);
+  }
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.configuration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import com.sequenceiq.ambari.shell.AmbariShell;
+
+public class FastStartConfigurationTest {
+
+  @Test
+  public void testEveryComponentIsImported() {
+    ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(true);
+    scanner.addExcludeFilter(new AnnotationTypeFilter(Configuration.class));
+    Set<String> components = new TreeSet<String>();
+    for (BeanDefinition component : scanner.findCandidateComponents(AmbariShell.class.getPackage().getName())) {
+      components.add(component.getBeanClassName());
+    }
+    Set<String> imported = new TreeSet<String>();
+    for (Class<?> type : FastStartConfiguration.class.getAnnotation(Import.class).value()) {
+      if (!type.isAnnotationPresent(Configuration.class)) {
+        imported.add(type.getName());
+      }
+    }
+
+    assertEquals(components, imported);
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.shell.core.Completion;
+import org.springframework.shell.core.Converter;
+import org.springframework.shell.core.MethodTarget;
+
+public class LazyConverterChainTest {
+
+  private final LazyConverterChain chain = new LazyConverterChain()
+    .register(IntegerConverter.class, Integer.class, int.class)
+    .register(NamedStringConverter.class, String.class)
+    .register(PlainStringConverter.class, String.class);
+
+  @Test
+  public void testConvertersAreCreatedOnFirstUse() {
+    assertEquals(0, chain.getCreatedCount());
+
+    assertEquals(42, chain.convertFromText("42", int.class, null));
+
+    assertEquals(1, chain.getCreatedCount());
+  }
+
+  @Test
+  public void testConvertersAreAskedInRegistrationOrder() {
+    assertEquals("named:a", chain.convertFromText("a", String.class, "named"));
+    assertEquals("plain:a", chain.convertFromText("a", String.class, null));
+    assertEquals(2, chain.getCreatedCount());
+  }
+
+  @Test
+  public void testSupportsForUnknownType() {
+    assertFalse(chain.supports(Double.class, null));
+    assertTrue(chain.supports(Integer.class, null));
+    assertEquals(1, chain.getCreatedCount());
+  }
+
+  public static class IntegerConverter extends AbstractConverter {
+    @Override
+    public boolean supports(Class<?> type, String optionContext) {
+      return Integer.class.equals(type) || int.class.equals(type);
+    }
+
+    @Override
+    public Object convertFromText(String value, Class<?> targetType, String optionContext) {
+      return Integer.valueOf(value);
+    }
+  }
+
+  public static class NamedStringConverter extends AbstractConverter {
+    @Override
+    public boolean supports(Class<?> type, String optionContext) {
+      return String.class.equals(type) && "named".equals(optionContext);
+    }
+
+    @Override
+    public Object convertFromText(String value, Class<?> targetType, String optionContext) {
+      return "named:" + value;
+    }
+  }
+
+  public static class PlainStringConverter extends AbstractConverter {
+    @Override
+    public boolean supports(Class<?> type, String optionContext) {
+      return String.class.equals(type);
+    }
+
+    @Override
+    public Object convertFromText(String value, Class<?> targetType, String optionContext) {
+      return "plain:" + value;
+    }
+  }
+
+  private abstract static class AbstractConverter implements Converter<Object> {
+    @Override
+    public boolean getAllPossibleValues(List<Completion> completions, Class<?> targetType, String existingData,
+      String optionContext, MethodTarget target) {
+      return false;
+    }
+  }
+}
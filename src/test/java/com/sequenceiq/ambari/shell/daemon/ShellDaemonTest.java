@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.daemon;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.shell.core.JLineShellComponent;
+import org.springframework.shell.core.SimpleParser;
+import org.springframework.shell.event.ParseResult;
+import org.springframework.util.ReflectionUtils;
+
+public class ShellDaemonTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private File tokenFile;
+  private ShellDaemon daemon;
+
+  @Before
+  public void setUp() throws IOException {
+    tokenFile = new File(Files.createTempDirectory("daemon").toFile(), "daemon.token");
+    daemon = new ShellDaemon(new EchoShell(), null, 0, 2, tokenFile);
+    daemon.start();
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        daemon.serve();
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @After
+  public void tearDown() {
+    daemon.stop();
+  }
+
+  @Test
+  public void testExecuteReturnsTheOutputOfTheCommands() {
+    int result = execute("echo hello", "# comment", "print world", "echo again");
+
+    assertEquals(ShellDaemon.SUCCESS, result);
+    assertEquals(lines("hello", "world", "again"), out.toString());
+  }
+
+  @Test
+  public void testExecuteStopsAtTheFirstFailure() {
+    int result = execute("echo hello", "echo fail", "echo again");
+
+    assertEquals(ShellDaemon.FAILURE, result);
+    assertEquals(lines("hello", "Command failed fail"), out.toString());
+  }
+
+  @Test
+  public void testExecuteForUnknownCommand() {
+    int result = execute("unknown");
+
+    assertEquals(ShellDaemon.FAILURE, result);
+    assertEquals(lines("Unknown command or invalid options: unknown"), out.toString());
+  }
+
+  @Test
+  public void testExecuteForInvalidToken() throws IOException {
+    Files.write(tokenFile.toPath(), "invalid".getBytes("UTF-8"));
+
+    int result = execute("echo hello");
+
+    assertEquals(ShellDaemon.UNAUTHORIZED, result);
+    assertEquals(lines("Invalid token"), out.toString());
+  }
+
+  @Test
+  public void testExecuteForTooLongCommand() {
+    char[] arg = new char[ShellDaemon.MAX_COMMAND_LINE];
+    Arrays.fill(arg, 'x');
+
+    int result = execute("echo hello", "echo " + new String(arg), "echo again");
+
+    assertEquals(ShellDaemon.FAILURE, result);
+    assertEquals(lines("hello", "Line too long, at most 65536 bytes are accepted"), out.toString());
+  }
+
+  @Test
+  public void testReadLine() throws IOException {
+    InputStream in = new ByteArrayInputStream("first\r\nsecond\n\nlast".getBytes("UTF-8"));
+
+    assertEquals("first", ShellDaemon.readLine(in, 6));
+    assertEquals("second", ShellDaemon.readLine(in, 6));
+    assertEquals("", ShellDaemon.readLine(in, 6));
+    assertEquals("last", ShellDaemon.readLine(in, 6));
+    assertNull(ShellDaemon.readLine(in, 6));
+  }
+
+  @Test(expected = ShellDaemon.LineTooLongException.class)
+  public void testReadLineForTooLongLine() throws IOException {
+    ShellDaemon.readLine(new ByteArrayInputStream("too long".getBytes("UTF-8")), 7);
+  }
+
+  @Test
+  public void testExecuteWhenTheDaemonIsStopped() {
+    int port = daemon.getPort();
+    daemon.stop();
+    tokenFile.getParentFile().delete();
+
+    int result = DaemonClient.execute(port, tokenFile, asList("echo hello"), new PrintStream(out, true));
+
+    assertEquals(DaemonClient.NOT_CONNECTED, result);
+  }
+
+  private int execute(String... commands) {
+    return DaemonClient.execute(daemon.getPort(), tokenFile, asList(commands), new PrintStream(out, true));
+  }
+
+  private String lines(String... lines) {
+    StringBuilder sb = new StringBuilder();
+    for (String line : lines) {
+      sb.append(line).append(System.getProperty("line.separator"));
+    }
+    return sb.toString();
+  }
+
+  public static class Commands {
+    public String echo(String arg) {
+      if ("fail".equals(arg)) {
+        throw new IllegalStateException("fail");
+      }
+      return arg;
+    }
+
+    public void print(String arg) {
+      System.out.println(arg);
+    }
+  }
+
+  private static class EchoShell extends JLineShellComponent {
+
+    @Override
+    public SimpleParser getSimpleParser() {
+      return new SimpleParser() {
+        @Override
+        public ParseResult parse(String buffer) {
+          String[] words = buffer.split(" ");
+          if (words.length < 2) {
+            return null;
+          }
+          Method method = ReflectionUtils.findMethod(Commands.class, words[0], String.class);
+          return new ParseResult(method, new Commands(), new Object[]{words[1]});
+        }
+      };
+    }
+  }
+}
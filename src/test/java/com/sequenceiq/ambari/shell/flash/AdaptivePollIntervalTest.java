@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AdaptivePollIntervalTest {
+
+  @Test
+  public void testNextForFlatProgress() {
+    AdaptivePollInterval interval = new AdaptivePollInterval(100, 1000);
+
+    interval.next(false);
+    interval.next(false);
+    long result = interval.next(false);
+
+    assertEquals(337, interval.getCurrent());
+    assertTrue(result >= 269 && result <= 405);
+    assertEquals(3, interval.getRequests());
+  }
+
+  @Test
+  public void testNextForMaximum() {
+    AdaptivePollInterval interval = new AdaptivePollInterval(100, 1000);
+
+    for (int i = 0; i < 20; i++) {
+      interval.next(false);
+    }
+
+    assertEquals(1000, interval.getCurrent());
+  }
+
+  @Test
+  public void testNextForChangedProgress() {
+    AdaptivePollInterval interval = new AdaptivePollInterval(100, 1000);
+    interval.next(false);
+    interval.next(false);
+
+    long result = interval.next(true);
+
+    assertEquals(100, interval.getCurrent());
+    assertTrue(result >= 80 && result <= 120);
+  }
+}
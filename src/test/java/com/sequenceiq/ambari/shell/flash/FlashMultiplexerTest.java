@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.shell.core.JLineShellComponent;
+
+import com.sequenceiq.ambari.shell.support.ShellConsole;
+
+public class FlashMultiplexerTest {
+
+  private final RecordingShell shell = new RecordingShell();
+  private final SizedConsole console = new SizedConsole();
+  private final FlashMultiplexer multiplexer = new FlashMultiplexer(shell, console, 1);
+
+  @After
+  public void tearDown() {
+    multiplexer.shutdown();
+  }
+
+  @Test
+  public void testRenderJoinsTheSlots() {
+    multiplexer.publish("install", "Installation: 10%");
+    multiplexer.publish("operation-7", "Starting all services");
+
+    multiplexer.render();
+
+    assertEquals(asList("Installation: 10% | Starting all services"), shell.texts);
+    assertEquals(asList("install", "operation-7"), multiplexer.getSlots());
+  }
+
+  @Test
+  public void testRenderCutsTheLineToTheTerminalWidth() {
+    console.width = 52;
+    multiplexer.publish("install", "Installation: 10%");
+    multiplexer.publish("operation-7", "Starting all services");
+    multiplexer.publish("operation-8", "Stopping all services");
+
+    multiplexer.render();
+
+    assertEquals(asList("Installation: 10% | Starting all services (+1 more)"), shell.texts);
+  }
+
+  @Test
+  public void testRenderReplacesTheSlotsWhichDontFit() {
+    console.width = 40;
+    multiplexer.publish("install", "Installation: 10%");
+    multiplexer.publish("operation-7", "Starting all services");
+    multiplexer.publish("operation-8", "Stopping all services");
+
+    multiplexer.render();
+
+    assertEquals(asList("Installation: 10% (+2 more)"), shell.texts);
+  }
+
+  @Test
+  public void testRenderCutsASlotWiderThanTheTerminal() {
+    console.width = 25;
+    multiplexer.publish("operation-7", "Starting all services on every host");
+    multiplexer.publish("operation-8", "Stopping all services");
+
+    multiplexer.render();
+
+    assertEquals(asList("Starting al... (+1 more)"), shell.texts);
+  }
+
+  @Test
+  public void testRenderCoalescesTheUpdatesOfAFrame() {
+    for (int i = 1; i <= 10; i++) {
+      multiplexer.publish("progress", "Querying hosts: " + i + "/10");
+    }
+
+    multiplexer.render();
+
+    assertEquals(asList("Querying hosts: 10/10"), shell.texts);
+    assertEquals(1, multiplexer.getFrames());
+  }
+
+  @Test
+  public void testRenderSkipsUnchangedFrames() {
+    multiplexer.publish("install", "Installation: 10%");
+    multiplexer.render();
+    multiplexer.publish("install", "Installation: 10%");
+
+    multiplexer.render();
+
+    assertEquals(1, shell.texts.size());
+  }
+
+  @Test
+  public void testClearRemovesTheSlot() {
+    multiplexer.publish("install", "Installation: 10%");
+    multiplexer.publish("watch", "Watching tasks");
+    multiplexer.render();
+    multiplexer.clear("install");
+
+    multiplexer.render();
+
+    assertEquals(asList("Installation: 10% | Watching tasks", "Watching tasks"), shell.texts);
+    assertEquals(asList("watch"), multiplexer.getSlots());
+  }
+
+  @Test
+  public void testRenderClearsTheLineWhenEverySlotIsRemoved() {
+    multiplexer.publish("install", "Installation: 10%");
+    multiplexer.render();
+    multiplexer.clear("install");
+
+    multiplexer.render();
+
+    assertEquals("", shell.texts.get(1));
+    assertTrue(multiplexer.getSlots().isEmpty());
+  }
+
+  @Test
+  public void testRenderLoopRefreshesTheTerminal() throws InterruptedException {
+    FlashMultiplexer fast = new FlashMultiplexer(shell, console, 100);
+    try {
+      fast.publish("install", "Installation: 10%");
+      for (int i = 0; i < 100 && shell.texts.isEmpty(); i++) {
+        Thread.sleep(10);
+      }
+    } finally {
+      fast.shutdown();
+    }
+
+    assertEquals("Installation: 10%", shell.texts.get(0));
+  }
+
+  private static class SizedConsole extends ShellConsole {
+    private int width;
+
+    SizedConsole() {
+      super(null);
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+  }
+
+  private static class RecordingShell extends JLineShellComponent {
+    private final List<String> texts = new ArrayList<String>();
+
+    @Override
+    public synchronized void flash(Level level, String message, String slot) {
+      assertEquals(FlashMultiplexer.FLASH_NAME, slot);
+      texts.add(message);
+    }
+  }
+}
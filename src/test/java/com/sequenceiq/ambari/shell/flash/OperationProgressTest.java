@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+
+public class OperationProgressTest {
+
+  @Test
+  public void testGetTextForRunningOperation() throws InterruptedException {
+    ScriptedTaskTracker tracker = new ScriptedTaskTracker();
+    tracker.add(tasks("COMPLETED", "IN_PROGRESS", "PENDING", "PENDING"));
+    OperationProgress progress = createProgress(tracker);
+
+    String result = progress.getText();
+
+    assertTrue(result.startsWith("Starting all services (request 7): 1/4 tasks ==--------"));
+    assertNull(progress.getResult());
+    assertNull(progress.await(1, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testGetTextForCompletedOperation() throws InterruptedException {
+    ScriptedTaskTracker tracker = new ScriptedTaskTracker();
+    tracker.add(tasks("COMPLETED", "IN_PROGRESS"));
+    tracker.add(tasks("COMPLETED", "COMPLETED"));
+    OperationProgress progress = createProgress(tracker);
+
+    progress.getText();
+    String result = progress.getText();
+
+    assertEquals("Starting all services (request 7): COMPLETED", result);
+    assertEquals("COMPLETED", progress.await(1, TimeUnit.SECONDS));
+    assertEquals("", progress.getText());
+  }
+
+  @Test
+  public void testGetTextForFailedOperation() throws InterruptedException {
+    ScriptedTaskTracker tracker = new ScriptedTaskTracker();
+    tracker.add(tasks("COMPLETED", "FAILED", "ABORTED"));
+    OperationProgress progress = createProgress(tracker);
+
+    progress.getText();
+
+    assertEquals("FAILED (2 of 3 tasks)", progress.await());
+  }
+
+  @Test
+  public void testGetTextForUnreachableServer() throws InterruptedException {
+    OperationProgress progress = createProgress(new ScriptedTaskTracker());
+
+    for (int i = 0; i < 10; i++) {
+      progress.getText();
+    }
+
+    assertTrue(progress.await(1, TimeUnit.SECONDS).startsWith(OperationProgress.UNKNOWN));
+  }
+
+  private OperationProgress createProgress(TaskTracker tracker) {
+    return new OperationProgress(null, "Starting all services", "7", tracker, new AdaptivePollInterval(100, 1000));
+  }
+
+  private List<String[]> tasks(String... states) {
+    List<String[]> result = new ArrayList<String[]>();
+    for (int i = 0; i < states.length; i++) {
+      result.add(new String[]{String.valueOf(i), "task" + i, states[i]});
+    }
+    return result;
+  }
+
+  private static class ScriptedTaskTracker extends TaskTracker {
+    private final LinkedList<List<String[]>> responses = new LinkedList<List<String[]>>();
+
+    ScriptedTaskTracker() {
+      super(null, 1);
+    }
+
+    void add(List<String[]> tasks) {
+      responses.add(tasks);
+    }
+
+    @Override
+    public List<String[]> getTasks(String requestId) throws IOException {
+      if (responses.isEmpty()) {
+        throw new IOException("Connection refused");
+      }
+      return responses.poll();
+    }
+  }
+}
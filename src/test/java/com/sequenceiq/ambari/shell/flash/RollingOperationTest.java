@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.shell.cache.TaskTracker;
+import com.sequenceiq.ambari.shell.support.ServiceControl;
+
+public class RollingOperationTest {
+
+  private static final List<String> HOSTS = asList("host1", "host2", "host3", "host4", "host5");
+
+  @Test
+  public void testBatchesAreSentOneByOne() throws InterruptedException {
+    RecordingServiceControl control = new RecordingServiceControl();
+    StatusTaskTracker tracker = new StatusTaskTracker();
+    RollingOperation operation = createOperation(control, tracker, 2, 1);
+
+    operation.getText();
+    assertEquals(1, control.batches.size());
+    operation.getText();
+    assertEquals(1, control.batches.size());
+
+    tracker.statuses.put("1", "COMPLETED");
+    operation.getText();
+    tracker.statuses.put("2", "COMPLETED");
+    operation.getText();
+    tracker.statuses.put("3", "COMPLETED");
+    String result = operation.getText();
+
+    assertEquals(asList(asList("host1", "host2"), asList("host3", "host4"), asList("host5")), control.batches);
+    assertEquals("Stopping HDFS: COMPLETED (5 host(s) in 3 batches)", result);
+    assertEquals("COMPLETED (5 host(s) in 3 batches)", operation.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testParallelBatchesAreBounded() {
+    RecordingServiceControl control = new RecordingServiceControl();
+    StatusTaskTracker tracker = new StatusTaskTracker();
+    RollingOperation operation = createOperation(control, tracker, 1, 2);
+
+    String result = operation.getText();
+    tracker.statuses.put("2", "COMPLETED");
+    operation.getText();
+
+    assertTrue(result.startsWith("Stopping HDFS: 0/5 hosts, 2/5 batches sent"));
+    assertEquals(3, control.batches.size());
+  }
+
+  @Test
+  public void testRollingStopsOnFailedBatch() throws InterruptedException {
+    RecordingServiceControl control = new RecordingServiceControl();
+    StatusTaskTracker tracker = new StatusTaskTracker();
+    RollingOperation operation = createOperation(control, tracker, 2, 1);
+
+    operation.getText();
+    tracker.statuses.put("1", "FAILED");
+    operation.getText();
+
+    assertEquals(1, control.batches.size());
+    assertEquals("FAILED in batch 1/3, request 1 (1 of 1 tasks), 0 host(s) done",
+      operation.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testBatchesWithoutRequestAreDone() {
+    RecordingServiceControl control = new RecordingServiceControl();
+    control.noRequest = true;
+    RollingOperation operation = createOperation(control, new StatusTaskTracker(), 2, 1);
+
+    String result = operation.getText();
+
+    assertEquals("Stopping HDFS: COMPLETED (5 host(s) in 3 batches)", result);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCreateForInvalidBatchSize() {
+    createOperation(new RecordingServiceControl(), new StatusTaskTracker(), 0, 1);
+  }
+
+  private RollingOperation createOperation(ServiceControl control, TaskTracker tracker, int batchSize,
+    int parallelism) {
+    RollingOperation operation = new RollingOperation(null, "Stopping HDFS", control, tracker, HOSTS,
+      asList("NAMENODE", "DATANODE"), ServiceControl.INSTALLED, batchSize, parallelism,
+      new AdaptivePollInterval(100, 1000));
+    assertNull(operation.getResult());
+    return operation;
+  }
+
+  private static class RecordingServiceControl extends ServiceControl {
+    private final List<List<String>> batches = new ArrayList<List<String>>();
+    private boolean noRequest;
+
+    RecordingServiceControl() {
+      super(null);
+    }
+
+    @Override
+    public int setHostComponentState(Collection<String> hosts, Collection<String> components, String state) {
+      batches.add(new ArrayList<String>(hosts));
+      return noRequest ? 0 : batches.size();
+    }
+  }
+
+  private static class StatusTaskTracker extends TaskTracker {
+    private final Map<String, String> statuses = new HashMap<String, String>();
+
+    StatusTaskTracker() {
+      super(null, 1);
+    }
+
+    @Override
+    public List<String[]> getTasks(String requestId) throws IOException {
+      String status = statuses.containsKey(requestId) ? statuses.get(requestId) : "IN_PROGRESS";
+      return Collections.singletonList(new String[]{"1", "task", status});
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.flash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.shell.support.ShellConsole;
+
+public class TableWatcherTest {
+
+  @Test
+  public void testDiff() {
+    List<String[]> previous = rows("NAMENODE", "STARTED", "DATANODE", "INSTALLED", "ZOOKEEPER", "STARTED");
+    List<String[]> current = rows("NAMENODE", "STARTED", "DATANODE", "STARTED", "HBASE", "INSTALLED");
+
+    List<String[]> result = TableWatcher.diff(TableWatcher.index(previous), TableWatcher.index(current));
+
+    assertEquals(3, result.size());
+    assertArrayEquals(new String[]{"DATANODE", "STARTED", "INSTALLED"}, result.get(0));
+    assertArrayEquals(new String[]{"HBASE", "INSTALLED", TableWatcher.NONE}, result.get(1));
+    assertArrayEquals(new String[]{"ZOOKEEPER", TableWatcher.REMOVED, "STARTED"}, result.get(2));
+  }
+
+  @Test
+  public void testDiffForMultipleKeyColumns() {
+    List<String[]> previous = Arrays.asList(new String[]{"host1", "DATANODE", "STARTED"},
+      new String[]{"host2", "DATANODE", "STARTED"});
+    List<String[]> current = Arrays.asList(new String[]{"host1", "DATANODE", "STARTED"},
+      new String[]{"host2", "DATANODE", "INSTALLED"});
+
+    List<String[]> result = TableWatcher.diff(TableWatcher.index(previous), TableWatcher.index(current));
+
+    assertEquals(1, result.size());
+    assertArrayEquals(new String[]{"host2", "DATANODE", "INSTALLED", "STARTED"}, result.get(0));
+  }
+
+  @Test
+  public void testWatchStopsOnKeyPress() {
+    final List<List<String[]>> polls = new ArrayList<List<String[]>>(Arrays.asList(
+      rows("task1", "QUEUED"), rows("task1", "QUEUED"), rows("task1", "COMPLETED")));
+    final int[] pollCount = new int[1];
+    ShellConsole keys = new ShellConsole(null) {
+      @Override
+      public boolean isInteractive() {
+        return true;
+      }
+
+      @Override
+      public boolean isKeyAvailable() {
+        return pollCount[0] >= 3;
+      }
+
+      @Override
+      public int readKey() {
+        pollCount[0] = 0;
+        return 'q';
+      }
+    };
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TableWatcher watcher = new TableWatcher(null, keys, new PrintStream(out, true), 10);
+
+    String result = watcher.watch("Watching tasks", new TableWatcher.Source() {
+      @Override
+      public List<String[]> poll() {
+        pollCount[0]++;
+        return polls.remove(0);
+      }
+    }, "TASK", "STATUS");
+
+    assertEquals("Stopped watching after 3 poll(s), 1 change(s)", result);
+    assertTrue(out.toString().contains("COMPLETED"));
+    assertTrue(out.toString().contains("PREVIOUS"));
+  }
+
+  @Test
+  public void testWatchWithoutTerminal() {
+    ShellConsole keys = new ShellConsole(null) {
+      @Override
+      public boolean isInteractive() {
+        return false;
+      }
+    };
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    TableWatcher watcher = new TableWatcher(null, keys, new PrintStream(out, true), 10);
+
+    String result = watcher.watch("Watching tasks", new TableWatcher.Source() {
+      @Override
+      public List<String[]> poll() {
+        throw new IllegalStateException("Polled without a terminal");
+      }
+    }, "TASK", "STATUS");
+
+    assertTrue(result.startsWith("Watching needs an interactive terminal"));
+    assertEquals(0, out.size());
+  }
+
+  private List<String[]> rows(String... values) {
+    List<String[]> rows = new ArrayList<String[]>();
+    for (int i = 0; i < values.length; i += 2) {
+      rows.add(new String[]{values[i], values[i + 1]});
+    }
+    return rows;
+  }
+}
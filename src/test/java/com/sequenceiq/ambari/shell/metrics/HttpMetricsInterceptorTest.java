@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class HttpMetricsInterceptorTest {
+
+  @Test
+  public void testGetEndpointReplacesTheIds() {
+    assertEquals("GET /api/v1/clusters/*/hosts/*/host_components",
+      HttpMetricsInterceptor.getEndpoint("GET", "/api/v1/clusters/c1/hosts/node1.mycorp.com/host_components?fields=*"));
+  }
+
+  @Test
+  public void testGetEndpointForAbsoluteUri() {
+    assertEquals("POST /api/v1/blueprints/*",
+      HttpMetricsInterceptor.getEndpoint("POST", "http://localhost:8080/api/v1/blueprints/single-node"));
+  }
+
+  @Test
+  public void testGetEndpointForCollection() {
+    assertEquals("GET /api/v1/hosts", HttpMetricsInterceptor.getEndpoint("GET", "/api/v1/hosts"));
+    assertEquals("GET /", HttpMetricsInterceptor.getEndpoint("GET", "http://localhost:8080"));
+  }
+}
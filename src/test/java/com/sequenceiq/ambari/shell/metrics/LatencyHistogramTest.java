@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @Test
+  public void testGetPercentile() {
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+
+    assertEquals(100, histogram.getCount());
+    assertWithinTenPercent(50, histogram.getPercentile(50));
+    assertWithinTenPercent(95, histogram.getPercentile(95));
+    assertWithinTenPercent(99, histogram.getPercentile(99));
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getPercentile(100));
+  }
+
+  @Test
+  public void testGetPercentileForEmptyHistogram() {
+    assertEquals(0, histogram.getPercentile(99));
+  }
+
+  @Test
+  public void testGetPercentileNeverExceedsTheMaximum() {
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(7));
+
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(7), histogram.getPercentile(50));
+  }
+
+  private void assertWithinTenPercent(long expectedMillis, long actualNanos) {
+    double actualMillis = actualNanos / 1e6;
+    assertTrue(actualMillis + " ms", Math.abs(actualMillis - expectedMillis) <= expectedMillis * 0.1);
+  }
+}
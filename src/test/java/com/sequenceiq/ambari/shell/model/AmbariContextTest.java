@@ -55,6 +55,15 @@ public class AmbariContextTest {
     assertEquals("ambari-shell>", result);
   }
 
+  @Test
+  public void testGetPromptForRootWhileConnecting() {
+    ambariContext.setConnecting(true);
+
+    String result = ambariContext.getPrompt();
+
+    assertEquals("ambari-shell(connecting)>", result);
+  }
+
   @Test
   public void testGetPromptForFocus() {
     ReflectionTestUtils.setField(ambariContext, "cluster", "single-node");
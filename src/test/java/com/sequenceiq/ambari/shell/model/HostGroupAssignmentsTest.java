@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.model;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class HostGroupAssignmentsTest {
+
+  @Test
+  public void testAssignDropsDuplicates() {
+    HostGroupAssignments assignments = new HostGroupAssignments(asList("master", "slave"));
+
+    assertTrue(assignments.assign("host1", "slave"));
+    assertFalse(assignments.assign("host1", "slave"));
+    assertTrue(assignments.assign("host1", "master"));
+
+    assertEquals(2, assignments.size());
+    assertEquals(asList("host1"), assignments.getHosts("slave"));
+    assertEquals(asList("master", "slave"), assignments.getGroups("host1"));
+  }
+
+  @Test
+  public void testUnassignAndMove() {
+    HostGroupAssignments assignments = new HostGroupAssignments(asList("master", "slave"));
+    assignments.assign("host1", "master");
+    assignments.assign("host2", "master");
+
+    assertTrue(assignments.move("host1", "master", "slave"));
+    assertFalse(assignments.move("host1", "master", "slave"));
+    assertTrue(assignments.unassign("host2", "master"));
+    assertFalse(assignments.unassign("host3", "master"));
+
+    assertEquals(1, assignments.size());
+    assertTrue(assignments.isAssigned("host1", "slave"));
+    assertFalse(assignments.isAssigned("host1", "master"));
+    assertEquals(emptyList(), assignments.getHosts("master"));
+  }
+
+  @Test
+  public void testUnassignFromEveryGroup() {
+    HostGroupAssignments assignments = new HostGroupAssignments(asList("master", "slave"));
+    assignments.assign("host1", "master");
+    assignments.assign("host1", "slave");
+
+    assertEquals(2, assignments.unassign("host1"));
+
+    assertTrue(assignments.isEmpty());
+    assertEquals(emptyList(), assignments.getGroups("host1"));
+  }
+
+  @Test
+  public void testToMap() {
+    Map<String, List<String>> map = new LinkedHashMap<String, List<String>>();
+    map.put("master", asList("host1"));
+    map.put("slave", asList("host2", "host3", "host2"));
+    map.put("edge", Collections.<String>emptyList());
+
+    Map<String, List<String>> result = HostGroupAssignments.from(map).toMap();
+
+    assertEquals(asList("host1"), result.get("master"));
+    assertEquals(asList("host2", "host3"), result.get("slave"));
+    assertEquals(emptyList(), result.get("edge"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAssignForInvalidHostGroup() {
+    new HostGroupAssignments(asList("master")).assign("host1", "slave");
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.shell.model.HostResources;
+
+public class AssignmentPlannerTest {
+
+  @Test
+  public void testPlanGivesStrongestHostsToBoundedGroups() {
+    AssignmentPlanner planner = new AssignmentPlanner(createBlueprint(), Cardinality.parseAll("master=1,zookeeper=3"));
+    List<HostResources> hosts = new ArrayList<HostResources>();
+    hosts.add(new HostResources("nn1", 32, 268435456, 2, "/rack1"));
+    for (int i = 1; i <= 9; i++) {
+      hosts.add(new HostResources("dn" + i, 8, 67108864, 12, "/rack" + (i % 3 + 1)));
+    }
+
+    Map<String, List<String>> result = planner.plan(hosts);
+
+    assertEquals(asList("nn1"), result.get("master"));
+    assertEquals(3, result.get("zookeeper").size());
+    assertEquals(6, result.get("slave").size());
+    assertEquals(3, racks(result.get("zookeeper"), hosts).size());
+  }
+
+  @Test
+  public void testPlanSpreadsLargeClustersAcrossRacks() {
+    AssignmentPlanner planner = new AssignmentPlanner(createBlueprint(),
+      Cardinality.parseAll("master=2,zookeeper=5,slave=*"));
+    List<HostResources> hosts = new ArrayList<HostResources>();
+    for (int i = 0; i < 5000; i++) {
+      hosts.add(new HostResources(String.format("host%04d", i), 4 + i % 5, 1L << (24 + i % 3), 1 + i % 12, "/rack" + i % 40));
+    }
+    Collections.shuffle(hosts);
+
+    Map<String, List<String>> result = planner.plan(hosts);
+
+    assertEquals(2, result.get("master").size());
+    assertEquals(5, racks(result.get("zookeeper"), hosts).size());
+    assertEquals(4993, result.get("slave").size());
+  }
+
+  @Test
+  public void testPlanBalancesUnboundedGroups() {
+    Map<String, List<String>> blueprint = new LinkedHashMap<String, List<String>>();
+    blueprint.put("compute", asList("NODEMANAGER"));
+    blueprint.put("storage", asList("DATANODE"));
+    List<HostResources> hosts = new ArrayList<HostResources>();
+    for (int i = 0; i < 10; i++) {
+      hosts.add(new HostResources("host" + i, 8, 0, 1, null));
+    }
+
+    Map<String, List<String>> result = new AssignmentPlanner(blueprint, new HashMap<String, Cardinality>()).plan(hosts);
+
+    assertEquals(5, result.get("compute").size());
+    assertEquals(5, result.get("storage").size());
+  }
+
+  @Test
+  public void testPlanLeavesHostsUnassignedAboveMaximum() {
+    Map<String, List<String>> blueprint = Collections.singletonMap("master", asList("NAMENODE"));
+    List<HostResources> hosts = asList(new HostResources("host1", 1, 0, 1, null), new HostResources("host2", 2, 0, 1, null));
+
+    Map<String, List<String>> result = new AssignmentPlanner(blueprint, Cardinality.parseAll("master=1")).plan(hosts);
+
+    assertEquals(asList("host2"), result.get("master"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlanForTooFewHosts() {
+    AssignmentPlanner planner = new AssignmentPlanner(createBlueprint(), Cardinality.parseAll("zookeeper=3"));
+
+    planner.plan(asList(new HostResources("host1", 1, 0, 1, null), new HostResources("host2", 1, 0, 1, null)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCreateForUnknownHostGroup() {
+    new AssignmentPlanner(createBlueprint(), Cardinality.parseAll("gateway=1"));
+  }
+
+  @Test
+  public void testParseResources() {
+    HostResources resources = AssignmentPlanner.parseResources("dn1.mycorp.com cores=8 memory=1024 disks=6 rack=/r1");
+
+    assertEquals("dn1.mycorp.com", resources.getName());
+    assertEquals(8, resources.getCores());
+    assertEquals(1024, resources.getMemory());
+    assertEquals(6, resources.getDisks());
+    assertEquals("/r1", resources.getRack());
+    assertEquals(HostResources.DEFAULT_RACK, AssignmentPlanner.parseResources("dn1.mycorp.com").getRack());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseResourcesForUnknownResource() {
+    AssignmentPlanner.parseResources("dn1.mycorp.com gpus=2");
+  }
+
+  @Test
+  public void testParseCardinality() {
+    assertEquals("1", Cardinality.parse("1").toString());
+    assertEquals("3+", Cardinality.parse("3+").toString());
+    assertEquals("2-5", Cardinality.parse(" 2-5").toString());
+    assertEquals("0+", Cardinality.parse("*").toString());
+    assertTrue(Cardinality.parse("2-5").isBounded());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseCardinalityForReversedRange() {
+    Cardinality.parse("5-2");
+  }
+
+  private Map<String, List<String>> createBlueprint() {
+    Map<String, List<String>> blueprint = new LinkedHashMap<String, List<String>>();
+    blueprint.put("master", asList("NAMENODE", "RESOURCEMANAGER", "HISTORYSERVER"));
+    blueprint.put("zookeeper", asList("ZOOKEEPER_SERVER"));
+    blueprint.put("slave", asList("DATANODE", "NODEMANAGER"));
+    return blueprint;
+  }
+
+  private Set<String> racks(List<String> names, List<HostResources> hosts) {
+    Set<String> result = new HashSet<String>();
+    for (HostResources host : hosts) {
+      if (names.contains(host.getName())) {
+        result.add(host.getRack());
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.shell.core.JLineShellComponent;
+import org.springframework.shell.core.SimpleParser;
+import org.springframework.shell.event.ParseResult;
+import org.springframework.util.ReflectionUtils;
+
+public class BatchScriptExecutorTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final PrintStream printer = new PrintStream(out, true);
+  private final ScriptShell shell = new ScriptShell(printer);
+  private final BatchScriptExecutor executor = new BatchScriptExecutor(shell, 4, null, printer);
+
+  @Test
+  public void testClassify() {
+    assertEquals(BatchScriptExecutor.Kind.READ, BatchScriptExecutor.classify("  blueprint   list"));
+    assertEquals(BatchScriptExecutor.Kind.INDEPENDENT, BatchScriptExecutor.classify("blueprint add --url x"));
+    assertEquals(BatchScriptExecutor.Kind.SEQUENTIAL, BatchScriptExecutor.classify("blueprint defaults"));
+    assertEquals(BatchScriptExecutor.Kind.SEQUENTIAL, BatchScriptExecutor.classify("host listing"));
+    assertEquals(BatchScriptExecutor.Kind.SEQUENTIAL, BatchScriptExecutor.classify("cluster create"));
+  }
+
+  @Test
+  public void testExecuteKeepsTheOrderOfTheOutput() {
+    boolean result = executor.execute("blueprint add 30", "blueprint add 0", "blueprint add 10",
+      "cluster create", "host list 20", "blueprint show 0");
+
+    assertTrue(result);
+    assertEquals(lines("30", "0", "10", "> cluster create", "20", "0"), out.toString());
+    assertEquals(asList("cluster create"), shell.sequential);
+  }
+
+  @Test
+  public void testExecuteStopsAtTheFirstFailure() {
+    boolean result = executor.execute("host list 10", "host list fail", "host list 0", "cluster create");
+
+    assertFalse(result);
+    assertEquals(lines("10", "Command failed fail"), out.toString());
+    assertEquals(Collections.<String>emptyList(), shell.sequential);
+  }
+
+  @Test
+  public void testExecuteStopsAtParseError() {
+    boolean result = executor.execute("host list 0", "host list", "host list 0", "cluster create");
+
+    assertFalse(result);
+    assertEquals(lines("0", "> host list"), out.toString());
+    assertEquals(asList("host list"), shell.sequential);
+  }
+
+  private String lines(String... lines) {
+    StringBuilder sb = new StringBuilder();
+    for (String line : lines) {
+      sb.append(line).append(System.getProperty("line.separator"));
+    }
+    return sb.toString();
+  }
+
+  public static class Commands {
+    public String echo(String arg) throws InterruptedException {
+      if ("fail".equals(arg)) {
+        throw new IllegalStateException("fail");
+      }
+      Thread.sleep(Long.valueOf(arg));
+      return arg;
+    }
+  }
+
+  private static class ScriptShell extends JLineShellComponent {
+
+    private final List<String> sequential = new ArrayList<String>();
+    private final PrintStream out;
+
+    ScriptShell(PrintStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public boolean executeScriptLine(String line) {
+      sequential.add(line);
+      out.println("> " + line);
+      return true;
+    }
+
+    @Override
+    public SimpleParser getSimpleParser() {
+      return new SimpleParser() {
+        @Override
+        public ParseResult parse(String buffer) {
+          String[] words = buffer.split(" ");
+          if (words.length < 3) {
+            return null;
+          }
+          Method method = ReflectionUtils.findMethod(Commands.class, "echo", String.class);
+          return new ParseResult(method, new Commands(), new Object[]{words[2]});
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+public class BlueprintNameReaderTest {
+
+  @Test
+  public void testReadName() throws IOException {
+    String json = FileUtils.readFileToString(new File("src/test/resources/testBlueprint.json"));
+
+    assertEquals("single-node-hdfs-yarn", BlueprintNameReader.readName(json));
+  }
+
+  @Test
+  public void testReadNameForNestedNames() throws IOException {
+    String json = "{\"host_groups\":[{\"blueprint_name\":\"group\"}],"
+      + "\"Blueprints\":{\"configurations\":{\"blueprint_name\":\"nested\"},\"blueprint_name\":\"bp\"}}";
+
+    assertEquals("bp", BlueprintNameReader.readName(json));
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadNameForMissingName() throws IOException {
+    BlueprintNameReader.readName("{\"Blueprints\":{\"stack_name\":\"HDP\"}}");
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadNameForMalformedJson() throws IOException {
+    BlueprintNameReader.readName(FileUtils.readFileToString(new File("src/test/resources/blueprints/malformed.json")));
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.shell.model.ConnectionProfile;
+
+public class ConnectionProfilesTest {
+
+  private final ConnectionProfiles profiles = new ConnectionProfiles(null,
+    new ConnectionProfile(ConnectionProfiles.DEFAULT, "localhost", "8080", "admin", "admin"), null, null, null, null, null);
+
+  @Test
+  public void testLoad() throws IOException {
+    File file = Files.createTempFile("profiles", ".properties").toFile();
+    Files.write(file.toPath(), ("prod1.host=ambari1.mycorp.com\nprod1.port=8443\n"
+      + "prod2.host=ambari2.mycorp.com\nprod2.password=secret\n").getBytes("UTF-8"));
+
+    int result = profiles.load(file);
+
+    List<ConnectionProfile> loaded = profiles.getProfiles();
+    assertEquals(2, result);
+    assertEquals(3, loaded.size());
+    assertEquals("http://ambari1.mycorp.com:8443/api/v1/", profiles.get("prod1").getUri());
+    assertEquals("8080", profiles.get("prod2").getPort());
+    assertEquals("admin", profiles.get("prod2").getUser());
+    assertEquals("secret", profiles.get("prod2").getPassword());
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadForMissingHost() throws IOException {
+    File file = Files.createTempFile("profiles", ".properties").toFile();
+    Files.write(file.toPath(), "prod1.port=8443\n".getBytes("UTF-8"));
+
+    profiles.load(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoadForUnknownProperty() throws IOException {
+    File file = Files.createTempFile("profiles", ".properties").toFile();
+    Files.write(file.toPath(), "prod1.hostname=ambari1.mycorp.com\n".getBytes("UTF-8"));
+
+    profiles.load(file);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveActiveProfile() {
+    profiles.remove(ConnectionProfiles.DEFAULT);
+  }
+
+  @Test
+  public void testAuthorization() {
+    String result = ConnectionProfiles.authorization(new ConnectionProfile("p", "h", "8080", "admin", "admin"));
+
+    assertEquals("Basic YWRtaW46YWRtaW4=", result);
+  }
+
+  @Test
+  public void testRenderMerged() {
+    Map<String, FanOutExecutor.Result<Map<String, String>>> results =
+      new LinkedHashMap<String, FanOutExecutor.Result<Map<String, String>>>();
+    Map<String, String> services = new LinkedHashMap<String, String>();
+    services.put("HDFS", "STARTED");
+    services.put("YARN", "INSTALLED");
+    results.put("prod1", FanOutExecutor.Result.success(services));
+    results.put("prod2", FanOutExecutor.Result.success(Collections.singletonMap("HDFS", "INSTALLED")));
+    results.put("prod3", FanOutExecutor.Result.<Map<String, String>>failure("timed out"));
+
+    String result = ConnectionProfiles.renderMerged(results, "HDFS", null, "SERVER", "SERVICE", "STATE");
+
+    assertTrue(result.startsWith("3 server(s) queried, 1 failed\n"));
+    assertTrue(result.contains("prod1"));
+    assertTrue(result.contains("prod2"));
+    assertTrue(!result.contains("YARN"));
+    assertTrue(result.contains("FAILED: timed out"));
+  }
+}
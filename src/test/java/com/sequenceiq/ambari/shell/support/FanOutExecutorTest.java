@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class FanOutExecutorTest {
+
+  private final FanOutExecutor executor = new FanOutExecutor(2, 200);
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void testExecuteKeepsTheOrderOfTheKeys() {
+    Map<String, FanOutExecutor.Result<String>> result = executor.execute(asList("c", "a", "b"),
+      new FanOutExecutor.Task<String>() {
+        @Override
+        public String call(String key) {
+          return key.toUpperCase();
+        }
+      }, null);
+
+    assertEquals(asList("c", "a", "b"), new ArrayList<String>(result.keySet()));
+    assertEquals("A", result.get("a").getValue());
+  }
+
+  @Test
+  public void testExecuteForBoundedParallelism() {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+
+    executor.execute(asList("1", "2", "3", "4", "5", "6"), new FanOutExecutor.Task<String>() {
+      @Override
+      public String call(String key) throws InterruptedException {
+        int current = running.incrementAndGet();
+        synchronized (maxRunning) {
+          maxRunning.set(Math.max(maxRunning.get(), current));
+        }
+        Thread.sleep(20);
+        running.decrementAndGet();
+        return key;
+      }
+    }, null);
+
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void testExecuteForFailureAndTimeout() {
+    final AtomicInteger progress = new AtomicInteger();
+
+    Map<String, FanOutExecutor.Result<String>> result = executor.execute(asList("ok", "fail", "slow"),
+      new FanOutExecutor.Task<String>() {
+        @Override
+        public String call(String key) throws InterruptedException {
+          if ("fail".equals(key)) {
+            throw new IllegalStateException("boom");
+          } else if ("slow".equals(key)) {
+            Thread.sleep(5000);
+          }
+          return key;
+        }
+      }, new FanOutExecutor.ProgressListener() {
+        @Override
+        public void onProgress(int done, int total) {
+          progress.set(done);
+        }
+      });
+
+    assertTrue(result.get("ok").isSuccess());
+    assertFalse(result.get("fail").isSuccess());
+    assertEquals("boom", result.get("fail").getError());
+    assertEquals("timed out", result.get("slow").getError());
+    assertEquals(3, progress.get());
+  }
+}
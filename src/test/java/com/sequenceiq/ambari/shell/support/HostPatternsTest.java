@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class HostPatternsTest {
+
+  @Test
+  public void testExpandForZeroPaddedRange() {
+    List<String> result = HostPatterns.expand("dn[008-011].example.com");
+
+    assertEquals(asList("dn008.example.com", "dn009.example.com", "dn010.example.com", "dn011.example.com"), result);
+  }
+
+  @Test
+  public void testExpandForMultipleRanges() {
+    List<String> result = HostPatterns.expand("r[1-2]n[1-2]");
+
+    assertEquals(asList("r1n1", "r1n2", "r2n1", "r2n2"), result);
+  }
+
+  @Test
+  public void testExpandForPlainName() {
+    List<String> result = HostPatterns.expand("nn.example.com");
+
+    assertEquals(asList("nn.example.com"), result);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testExpandForReversedRange() {
+    HostPatterns.expand("dn[10-1]");
+  }
+
+  @Test
+  public void testGlobToPattern() {
+    assertTrue(HostPatterns.isGlob("dn*.example.com"));
+    assertTrue(HostPatterns.globToPattern("dn*.example.com").matcher("dn12.example.com").matches());
+    assertTrue(HostPatterns.globToPattern("dn?.example.com").matcher("dn1.example.com").matches());
+    assertFalse(HostPatterns.globToPattern("dn*.example.com").matcher("dn12.exampleXcom").matches());
+  }
+}
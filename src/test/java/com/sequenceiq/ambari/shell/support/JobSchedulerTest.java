@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class JobSchedulerTest {
+
+  private final JobScheduler scheduler = new JobScheduler(1, 1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void testGetJobsForRunningAndQueuedJobs() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    scheduler.submit("first", new BlockingTask(started, release));
+    scheduler.submit("second", new BlockingTask(new CountDownLatch(1), release));
+    started.await(1, TimeUnit.SECONDS);
+
+    List<JobScheduler.Job> result = scheduler.getJobs();
+
+    assertEquals(2, result.size());
+    assertEquals("first", result.get(0).getName());
+    assertTrue(result.get(0).isRunning());
+    assertFalse(result.get(1).isRunning());
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testSubmitForFullQueue() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    scheduler.submit("first", new BlockingTask(started, release));
+    started.await(1, TimeUnit.SECONDS);
+    scheduler.submit("second", new BlockingTask(new CountDownLatch(1), release));
+
+    try {
+      scheduler.submit("third", new BlockingTask(new CountDownLatch(1), release));
+    } finally {
+      assertEquals(1, scheduler.getRejected());
+      assertEquals(2, scheduler.getJobs().size());
+    }
+  }
+
+  @Test
+  public void testCancelRunningJob() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    BlockingTask task = new BlockingTask(started, release);
+    JobScheduler.Job job = scheduler.submit("first", task);
+    started.await(1, TimeUnit.SECONDS);
+
+    boolean result = scheduler.cancel(job.getId());
+
+    assertTrue(result);
+    assertTrue(task.cancelled);
+    assertTrue(task.interrupted.await(1, TimeUnit.SECONDS));
+    assertTrue(scheduler.getJobs().isEmpty());
+    assertEquals(1, scheduler.getCancelled());
+  }
+
+  @Test
+  public void testCancelQueuedJobFreesTheQueue() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    scheduler.submit("first", new BlockingTask(started, release));
+    started.await(1, TimeUnit.SECONDS);
+    BlockingTask queued = new BlockingTask(new CountDownLatch(1), release);
+    JobScheduler.Job job = scheduler.submit("second", queued);
+
+    scheduler.cancel(job.getId());
+    scheduler.submit("third", new BlockingTask(new CountDownLatch(1), release));
+
+    assertTrue(queued.cancelled);
+    assertEquals(2, scheduler.getJobs().size());
+  }
+
+  @Test
+  public void testCancelForUnknownJob() {
+    assertFalse(scheduler.cancel(42));
+  }
+
+  @Test
+  public void testFinishedJobIsRemoved() throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(1);
+    scheduler.submit("quick", new Runnable() {
+      @Override
+      public void run() {
+        done.countDown();
+      }
+    });
+    done.await(1, TimeUnit.SECONDS);
+
+    for (int i = 0; i < 100 && scheduler.getFinished() == 0; i++) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(1, scheduler.getFinished());
+    assertTrue(scheduler.getJobs().isEmpty());
+  }
+
+  private static class BlockingTask implements Runnable, JobScheduler.Cancellable {
+    private final CountDownLatch started;
+    private final CountDownLatch release;
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+    private volatile boolean cancelled;
+
+    BlockingTask(CountDownLatch started, CountDownLatch release) {
+      this.started = started;
+      this.release = release;
+    }
+
+    @Override
+    public void run() {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+
+import groovyx.net.http.HttpResponseDecorator;
+import groovyx.net.http.RESTClient;
+
+public class ResourceQueryTest {
+
+  @Test
+  public void testToRequest() {
+    ResourceQuery query = new ResourceQuery(null, "hosts")
+      .field("Hosts/host_name", "HOSTNAME").fields("Hosts/cpu_count, Hosts/os_type")
+      .where("Hosts/host_status", "HEALTHY").where("Hosts/rack_info", null);
+
+    Map<String, Object> request = query.toRequest();
+
+    Map<String, Object> expectedQuery = new LinkedHashMap<String, Object>();
+    expectedQuery.put("Hosts/host_status", "HEALTHY");
+    expectedQuery.put("fields", "Hosts/host_name,Hosts/cpu_count,Hosts/os_type");
+    assertEquals("hosts", request.get("path"));
+    assertEquals(expectedQuery, request.get("query"));
+  }
+
+  @Test
+  public void testToRequestWithRawPredicate() {
+    ResourceQuery query = new ResourceQuery(null, "clusters/c1/requests/1/tasks")
+      .field("Tasks/id", "ID").field("Tasks/status", "STATUS").where("Tasks/id>=10").where("Tasks/role", "DATA NODE");
+
+    Map<String, Object> request = query.toRequest();
+
+    assertEquals("Tasks/id>=10&Tasks/role=DATA+NODE&fields=Tasks/id,Tasks/status", request.get("queryString"));
+    assertEquals(null, request.get("query"));
+  }
+
+  @Test
+  public void testValue() {
+    Map<String, Object> item = singletonMap("Hosts", (Object) singletonMap("cpu_count", 4));
+
+    assertEquals("4", ResourceQuery.value(item, "Hosts/cpu_count"));
+    assertEquals("", ResourceQuery.value(item, "Hosts/os_type"));
+    assertEquals("", ResourceQuery.value(item, "Hosts/cpu_count/value"));
+  }
+
+  @Test
+  public void testHeader() {
+    assertEquals("CPU_COUNT", ResourceQuery.header("Hosts/cpu_count"));
+    assertEquals("STATE", ResourceQuery.header("state"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRows() throws Exception {
+    AmbariClient client = mock(AmbariClient.class);
+    RESTClient rest = mock(RESTClient.class);
+    HttpResponseDecorator response = mock(HttpResponseDecorator.class);
+    Map<String, Object> data = new HashMap<String, Object>();
+    data.put("items", Arrays.asList(
+      singletonMap("Hosts", singletonMap("host_name", "host1")),
+      singletonMap("Hosts", singletonMap("host_name", "host2"))));
+    when(client.getAmbari()).thenReturn(rest);
+    when(rest.get(anyMap())).thenReturn(response);
+    when(response.getData()).thenReturn(data);
+
+    Iterator<String[]> rows = new ResourceQuery(client, "hosts")
+      .field("Hosts/host_name", "HOSTNAME").field("Hosts/host_status", "STATE").rows();
+
+    assertArrayEquals(new String[]{"host1", ""}, rows.next());
+    assertArrayEquals(new String[]{"host2", ""}, rows.next());
+    assertFalse(rows.hasNext());
+  }
+}
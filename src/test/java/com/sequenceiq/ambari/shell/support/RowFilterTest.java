@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RowFilterTest {
+
+  private final List<String[]> rows = asList(
+    new String[]{"dn001.mycorp.com", "HEALTHY"},
+    new String[]{"master.mycorp.com", "HEALTHY"},
+    new String[]{"dn002.mycorp.com", "UNHEALTHY"});
+
+  @Test
+  public void testMatchingForGlob() {
+    List<String> result = column(RowFilter.matching(rows.iterator(), 0, "dn*"), 0);
+
+    assertEquals(asList("dn001.mycorp.com", "dn002.mycorp.com"), result);
+  }
+
+  @Test
+  public void testMatchingForSubstring() {
+    List<String> result = column(RowFilter.matching(rows.iterator(), 1, "UN"), 0);
+
+    assertEquals(asList("dn002.mycorp.com"), result);
+  }
+
+  @Test
+  public void testMatchingForNoMatch() {
+    List<String> result = column(RowFilter.matching(rows.iterator(), 0, "nn?"), 0);
+
+    assertEquals(new ArrayList<String>(), result);
+  }
+
+  @Test
+  public void testMatchingWithoutExpression() {
+    Iterator<String[]> iterator = rows.iterator();
+
+    assertSame(iterator, RowFilter.matching(iterator, 0, null));
+  }
+
+  private List<String> column(Iterator<String[]> rows, int column) {
+    List<String> result = new ArrayList<String>();
+    while (rows.hasNext()) {
+      result.add(rows.next()[column]);
+    }
+    return result;
+  }
+}
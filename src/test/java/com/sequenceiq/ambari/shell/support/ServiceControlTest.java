@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+
+import groovyx.net.http.ContentType;
+import groovyx.net.http.HttpResponseDecorator;
+import groovyx.net.http.RESTClient;
+
+public class ServiceControlTest {
+
+  private final AmbariClient client = mock(AmbariClient.class);
+
+  @Test
+  public void testCreateRequestForService() {
+    Map<String, Object> request = ServiceControl.createRequest("clusters/c1/services/HDFS", null, "Start HDFS",
+      "ServiceInfo", ServiceControl.STARTED);
+
+    assertEquals("clusters/c1/services/HDFS", request.get("path"));
+    assertFalse(request.containsKey("queryString"));
+    assertEquals("{RequestInfo={context=Start HDFS}, Body={ServiceInfo={state=STARTED}}}",
+      request.get("body").toString());
+    assertEquals(ContentType.JSON, request.get("requestContentType"));
+  }
+
+  @Test
+  public void testCreateRequestForHostComponents() {
+    Map<String, Object> request = ServiceControl.createRequest("clusters/c1/host_components",
+      "HostRoles/host_name.in(host1,host2)", "Stop components of 2 host(s)", "HostRoles", ServiceControl.INSTALLED);
+
+    assertEquals("HostRoles/host_name.in(host1,host2)", request.get("queryString"));
+    assertEquals("{RequestInfo={context=Stop components of 2 host(s)}, Body={HostRoles={state=INSTALLED}}}",
+      request.get("body").toString());
+  }
+
+  @Test
+  public void testSetServiceState() throws Exception {
+    HttpResponseDecorator response = mockPut();
+    when(response.getData()).thenReturn(singletonMap("Requests", singletonMap("id", 12)));
+
+    int result = new ServiceControl(client).setServiceState("HDFS", ServiceControl.STARTED);
+
+    assertEquals(12, result);
+  }
+
+  @Test
+  public void testSetServiceStateWithoutChange() throws Exception {
+    HttpResponseDecorator response = mockPut();
+    when(response.getData()).thenReturn(null);
+
+    int result = new ServiceControl(client).setServiceState("HDFS", ServiceControl.STARTED);
+
+    assertEquals(0, result);
+  }
+
+  @SuppressWarnings("unchecked")
+  private HttpResponseDecorator mockPut() throws Exception {
+    RESTClient rest = mock(RESTClient.class);
+    HttpResponseDecorator response = mock(HttpResponseDecorator.class);
+    when(client.getClusterName()).thenReturn("c1");
+    when(client.getAmbari()).thenReturn(rest);
+    when(rest.put(anyMap())).thenReturn(response);
+    return response;
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.ambari.shell.model.AmbariContext;
+
+public class StartupProbeTest {
+
+  private final AmbariContext context = new AmbariContext();
+
+  @Test
+  public void testProbeRunsTheRequestsConcurrently() throws Exception {
+    StartupProbe probe = new StartupProbe(new SlowClient("single-node", 300), context, 500);
+    context.setConnecting(true);
+
+    long start = System.currentTimeMillis();
+    probe.probe();
+
+    assertTrue(System.currentTimeMillis() - start < 500);
+    assertEquals("single-node", context.getCluster());
+    assertTrue(context.areBlueprintsAvailable());
+    assertFalse(context.isConnecting());
+    assertEquals("Hint: See the install progress with the 'tasks' command.", context.getHint());
+  }
+
+  @Test(expected = TimeoutException.class)
+  public void testProbeForTimeout() throws Exception {
+    StartupProbe probe = new StartupProbe(new SlowClient(null, 300), context, 100);
+
+    probe.probe();
+  }
+
+  @Test
+  public void testStartSetsTheConnectingState() {
+    StartupProbe probe = new StartupProbe(new SlowClient(null, 1000), context, 2000);
+
+    probe.start(null);
+
+    assertTrue(context.isConnecting());
+    assertEquals("ambari-shell(connecting)>", context.getPrompt());
+  }
+
+  private static class SlowClient extends AmbariClient {
+
+    private final String cluster;
+    private final long delay;
+
+    SlowClient(String cluster, long delay) {
+      super("localhost", "8080", "admin", "admin");
+      this.cluster = cluster;
+      this.delay = delay;
+    }
+
+    @Override
+    public String getClusterName() {
+      sleep();
+      return cluster;
+    }
+
+    @Override
+    public boolean isBlueprintAvailable() {
+      sleep();
+      return true;
+    }
+
+    private void sleep() {
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
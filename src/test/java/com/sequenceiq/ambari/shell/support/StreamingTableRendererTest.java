@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sequenceiq.ambari.shell.support;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+public class StreamingTableRendererTest {
+
+  @Test
+  public void testRenderMultiValueMap() throws IOException {
+    Map<String, List<String>> map = new LinkedHashMap<String, List<String>>();
+    map.put("ZOOKEEPER", Collections.singletonList("ZOOKEEPER_SERVER"));
+    map.put("MAPREDUCE2", Collections.singletonList("HISTORYSERVER"));
+    map.put("HDFS", Collections.singletonList("DATANODE"));
+    StringWriter writer = new StringWriter();
+
+    int rows = new StreamingTableRenderer(writer, 10, 0, null)
+      .render(StreamingTableRenderer.multiValueMapRows(map), "SERVICE", "COMPONENT");
+
+    assertEquals(3, rows);
+    assertEquals(IOUtils.toString(new FileInputStream(new File("src/test/resources/2columns"))), writer.toString());
+  }
+
+  @Test
+  public void testRenderMapValueMap() throws IOException {
+    Map<String, Map<String, String>> map = new LinkedHashMap<String, Map<String, String>>();
+    map.put("ZOOKEEPER", Collections.singletonMap("ZOOKEEPER_SERVER", "INSTALLED"));
+    map.put("MAPREDUCE2", Collections.singletonMap("HISTORYSERVER", "STARTED"));
+    map.put("HDFS", Collections.singletonMap("DATANODE", "STARTED"));
+    StringWriter writer = new StringWriter();
+
+    new StreamingTableRenderer(writer, 10, 0, null)
+      .render(StreamingTableRenderer.mapValueMapRows(map), "SERVICE", "COMPONENT", "STATE");
+
+    assertEquals(IOUtils.toString(new FileInputStream(new File("src/test/resources/3columns"))), writer.toString());
+  }
+
+  @Test
+  public void testRenderForRowsOutsideOfTheSample() throws IOException {
+    Map<String, String> map = new LinkedHashMap<String, String>();
+    map.put("a", "1");
+    map.put("bbb", "2");
+    StringWriter writer = new StringWriter();
+
+    new StreamingTableRenderer(writer, 1, 0, null).render(StreamingTableRenderer.singleMapRows(map), "K", "V");
+
+    assertEquals("  K  V\n  -  -\n  a  1\n  bbb  2\n", writer.toString());
+  }
+
+  @Test
+  public void testRenderForPagerStop() throws IOException {
+    Map<String, String> map = new LinkedHashMap<String, String>();
+    for (int i = 0; i < 10; i++) {
+      map.put("task" + i, "COMPLETED");
+    }
+    StringWriter writer = new StringWriter();
+
+    int rows = new StreamingTableRenderer(writer, 5, 4, new StreamingTableRenderer.Pager() {
+      @Override
+      public boolean next() {
+        return false;
+      }
+    }).render(StreamingTableRenderer.singleMapRows(map), "TASK", "STATUS");
+
+    assertEquals(4, rows);
+  }
+}